@@ -0,0 +1,240 @@
+import java.io.*;
+import java.lang.management.*;
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * Measures the throughput of the core operations of Othello
+ *
+ * Every operation is run against a position a few moves into a game,
+ * for every combination of board size and player count. Results can be
+ * saved and compared later, so that a change to the engine can be judged
+ * against numbers instead of guesswork.
+ *
+ * Usage: java Benchmark [--sizes 8x8,12x12] [--players 2,3,4]
+ *   [--time milliseconds] [--save file] [--compare file]
+ *
+ * @version 2026-10-18
+ */
+public class Benchmark {
+  /**
+   * The number of moves played before the position is measured
+   */
+  private static final int OPENING_MOVES = 20;
+  /**
+   * The number of calls between checks of the clock
+   */
+  private static final int BATCH = 1000;
+  /**
+   * Results are added to this so that the JIT can't throw the work away
+   */
+  public static long sink = 0;
+
+  public static void main(String[] args) throws IOException {
+    String sizes = "8x8,12x12,20x20";
+    String players = "2,3,4";
+    long time = 1000;
+    String save = null;
+    String compare = null;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--sizes".equals(args[i])) {
+        sizes = args[i + 1];
+      } else if ("--players".equals(args[i])) {
+        players = args[i + 1];
+      } else if ("--time".equals(args[i])) {
+        time = Long.parseLong(args[i + 1]);
+      } else if ("--save".equals(args[i])) {
+        save = args[i + 1];
+      } else if ("--compare".equals(args[i])) {
+        compare = args[i + 1];
+      }
+    }
+
+    Map<String, Double> baseline = compare == null ? null : load(compare);
+    Map<String, Double> results = new LinkedHashMap<String, Double>();
+
+    for (String size : sizes.split(",")) {
+      String[] dimensions = size.split("x");
+      int width = Integer.parseInt(dimensions[0]);
+      int height = Integer.parseInt(dimensions[1]);
+
+      for (String count : players.split(",")) {
+        int playerCount = Integer.parseInt(count);
+        String prefix = width + "x" + height + "/" + playerCount + " ";
+
+        for (Map.Entry<String, LongSupplier> operation : getOperations(width, height, playerCount).entrySet()) {
+          String key = prefix + operation.getKey();
+          double[] result = measure(operation.getValue(), time);
+          results.put(key, result[0]);
+          String line = String.format("%-34s %,16.0f ops/s %10.1f B/op", key, result[0], result[1]);
+
+          if (baseline != null && baseline.containsKey(key)) {
+            line += String.format(" %+7.1f%%", (result[0] / baseline.get(key) - 1) * 100);
+          }
+
+          System.out.println(line);
+        }
+      }
+    }
+
+    if (save != null) {
+      PrintWriter writer = new PrintWriter(new FileWriter(save));
+
+      for (Map.Entry<String, Double> result : results.entrySet()) {
+        writer.println(result.getKey() + "\t" + result.getValue());
+      }
+
+      writer.close();
+    }
+  }
+
+  /**
+   * Sets up a position a few moves into a game
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @return the position
+   */
+  public static Othello createPosition(int width, int height, int playerCount) {
+    Othello othello = new Othello(width, height, playerCount);
+    othello.setInitialBoard();
+    // The same seed every time, so that runs can be compared
+    Random random = new Random(42);
+    int[] moves = new int[othello.getSize()];
+
+    for (int i = 0; i < OPENING_MOVES; i++) {
+      int count = othello.getMoves(othello.getTurn() + 1, moves);
+
+      if (othello.makeMove(moves[random.nextInt(count)]) == -1) {
+        // We don't want to measure a finished game, so take it back
+        othello.undo();
+        break;
+      }
+    }
+
+    return othello;
+  }
+
+  /**
+   * Gets every operation to measure
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @return the operations, by name
+   */
+  private static Map<String, LongSupplier> getOperations(int width, int height, int playerCount) {
+    Map<String, LongSupplier> operations = new LinkedHashMap<String, LongSupplier>();
+    Othello othello = createPosition(width, height, playerCount);
+    int attacker = othello.getTurn() + 1;
+    int[] buffer = new int[othello.getSize()];
+    int moveCount = othello.getMoves(attacker, buffer);
+    int[] moves = Arrays.copyOf(buffer, moveCount);
+    int[][] positions = new int[moveCount][];
+
+    for (int i = 0; i < moveCount; i++) {
+      positions[i] = new int[] {moves[i] / height, moves[i] % height};
+    }
+
+    // Cycling through the moves means that every one of them gets measured
+    int[] next = {0};
+    operations.put("getValidMoves", () -> othello.getValidMoves(attacker).size());
+    operations.put("getMoves", () -> othello.getMoves(attacker, buffer));
+    operations.put("getCaptures", () -> othello.getCaptures(positions[next[0]++ % moveCount], attacker).size());
+    operations.put("getFlips", () -> othello.getFlips(moves[next[0]++ % moveCount], attacker, buffer));
+    operations.put("makeMove+undo", () -> {
+      int turn = othello.makeMove(moves[next[0]++ % moveCount]);
+      othello.undo();
+      return turn;
+    });
+    operations.put("getCounts", () -> othello.getCounts()[0]);
+    // Undoing changes the board without working out the next turn, so the
+    // getNextTurn after it has to catch up on those changes, which is the part
+    // that matters (take away makeMove+undo to see what that costs on its own).
+    // Calling it again on a board that hasn't changed only measures the cached answer.
+    operations.put("makeMove+undo+getNextTurn", () -> {
+      othello.makeMove(moves[next[0]++ % moveCount]);
+      othello.undo();
+      return othello.getNextTurn();
+    });
+    operations.put("getNextTurn (cached)", () -> othello.getNextTurn());
+    return operations;
+  }
+
+  /**
+   * Runs an operation over and over again
+   *
+   * @param operation the operation
+   * @param time how long to measure for, in milliseconds
+   * @return the operations per second and the bytes allocated per operation
+   */
+  private static double[] measure(LongSupplier operation, long time) {
+    // Warm up first so that we measure compiled code
+    run(operation, time / 2);
+    long bytes = getAllocatedBytes();
+    long start = System.nanoTime();
+    long count = run(operation, time);
+    long elapsed = System.nanoTime() - start;
+    bytes = getAllocatedBytes() - bytes;
+    return new double[] {count * 1e9 / elapsed, bytes < 0 ? Double.NaN : (double) bytes / count};
+  }
+
+  /**
+   * Runs an operation until some time has passed
+   *
+   * @param operation the operation
+   * @param time how long to run for, in milliseconds
+   * @return the number of times the operation ran
+   */
+  private static long run(LongSupplier operation, long time) {
+    long end = System.nanoTime() + time * 1000000;
+    long count = 0;
+
+    while (System.nanoTime() < end) {
+      for (int i = 0; i < BATCH; i++) {
+        sink += operation.getAsLong();
+      }
+
+      count += BATCH;
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the number of bytes this thread has allocated so far
+   *
+   * @return the number of bytes, or -1 if the JVM can't tell us
+   */
+  private static long getAllocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    return -1;
+  }
+
+  /**
+   * Loads results that were saved by an earlier run
+   *
+   * @param path the path of the file
+   * @return the operations per second, by name
+   */
+  private static Map<String, Double> load(String path) throws IOException {
+    Map<String, Double> results = new HashMap<String, Double>();
+    BufferedReader reader = new BufferedReader(new FileReader(path));
+    String line;
+
+    while ((line = reader.readLine()) != null) {
+      String[] parts = line.split("\t");
+      results.put(parts[0], Double.parseDouble(parts[1]));
+    }
+
+    reader.close();
+    return results;
+  }
+}
@@ -0,0 +1,233 @@
+/**
+ * A bitboard for the standard 8x8 two player game
+ *
+ * Every square gets one bit in a long, so a whole position
+ * is just two longs (one for each player). The square at (x, y)
+ * is bit x * 8 + y, which is the same base-height numbering
+ * that Game uses for its tiles.
+ *
+ * @version 2026-10-18
+ */
+public class Bitboard {
+  /**
+   * The width (and height) of the board
+   */
+  public static final int SIZE = 8;
+  /**
+   * Every square whose y coordinate is 0
+   */
+  private static final long Y_FIRST = 0x0101010101010101L;
+  /**
+   * Every square whose y coordinate is 7
+   */
+  private static final long Y_LAST = 0x8080808080808080L;
+  // These are the same eight directions that Othello.getCaptures() walks,
+  // except that each vector {dx, dy} has been turned into a shift of dx * 8 + dy,
+  // so the directions are 1, 7, 8 and 9 in both the left and right shifts.
+  // Shifting by anything but 8 would otherwise wrap around from the bottom
+  // of one column to the top of the next, but a line of captured discs
+  // can never include the first or last row, so masking those out
+  // of the opponent's discs stops every wrap
+  /**
+   * Every square that isn't in the first or last row
+   */
+  private static final long INNER = ~(Y_FIRST | Y_LAST);
+
+  /**
+   * The discs of each player
+   */
+  private long[] discs = new long[2];
+
+  public Bitboard() {}
+
+  /**
+   * Gets the square index of a position
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return the index of the square
+   */
+  public static int getSquare(int x, int y) {
+    return x * SIZE + y;
+  }
+
+  /**
+   * Gets the value at a square, using the same values as Othello
+   *
+   * @param square the index of the square
+   * @return 0 if the square is empty, otherwise the player plus one
+   */
+  public int getValue(int square) {
+    long bit = 1L << square;
+
+    if ((discs[0] & bit) != 0) {
+      return 1;
+    } else if ((discs[1] & bit) != 0) {
+      return 2;
+    }
+
+    return 0;
+  }
+
+  /**
+   * Sets the value at a square, using the same values as Othello
+   *
+   * @param square the index of the square
+   * @param value 0 to empty the square, otherwise the player plus one
+   */
+  public void setValue(int square, int value) {
+    long bit = 1L << square;
+    discs[0] &= ~bit;
+    discs[1] &= ~bit;
+
+    if (value != 0) {
+      discs[value - 1] |= bit;
+    }
+  }
+
+  /**
+   * Gets the discs of a player
+   *
+   * @param player the player (starting from 0)
+   * @return a bitmask of the player's discs
+   */
+  public long getDiscs(int player) {
+    return discs[player];
+  }
+
+  /**
+   * Gets every empty square
+   *
+   * @return a bitmask of the empty squares
+   */
+  public long getEmpty() {
+    return ~(discs[0] | discs[1]);
+  }
+
+  /**
+   * Gets all valid moves for a player
+   *
+   * @param player the player (starting from 0)
+   * @return a bitmask of the valid moves
+   */
+  public long getMoves(int player) {
+    return getMoves(discs[player], discs[1 - player]);
+  }
+
+  /**
+   * Gets all valid moves for a player, given the discs directly
+   *
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player
+   * @return a bitmask of the valid moves
+   */
+  public static long getMoves(long own, long opponent) {
+    long empty = ~(own | opponent);
+    long inner = opponent & INNER;
+    return getMoves(own, opponent, empty, 8)
+      | getMoves(own, inner, empty, 1)
+      | getMoves(own, inner, empty, 7)
+      | getMoves(own, inner, empty, 9);
+  }
+
+  /**
+   * Gets the valid moves along one line, in both directions
+   *
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player that can be captured in this direction
+   * @param empty the empty squares
+   * @param amount the shift amount of the direction
+   * @return a bitmask of the valid moves
+   */
+  private static long getMoves(long own, long opponent, long empty, int amount) {
+    // Grow a line of opponent discs outwards from our own discs
+    // There can be at most six of them in a row on an 8x8 board
+    long left = (own << amount) & opponent;
+    long right = (own >>> amount) & opponent;
+
+    for (int i = 0; i < 5; i++) {
+      left |= (left << amount) & opponent;
+      right |= (right >>> amount) & opponent;
+    }
+
+    // Any empty square right after such a line is a move
+    return ((left << amount) | (right >>> amount)) & empty;
+  }
+
+  /**
+   * Gets all discs that would be captured
+   *
+   * @param square the square where a disc would be placed
+   * @param player the player (starting from 0)
+   * @return a bitmask of the captured discs
+   */
+  public long getFlips(int square, int player) {
+    return getFlips(square, discs[player], discs[1 - player]);
+  }
+
+  /**
+   * Gets all discs that would be captured, given the discs directly
+   *
+   * @param square the square where a disc would be placed
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player
+   * @return a bitmask of the captured discs
+   */
+  public static long getFlips(int square, long own, long opponent) {
+    long start = 1L << square;
+    long inner = opponent & INNER;
+    return getLine(start, own, opponent, 8) | getLine(start, own, opponent, -8)
+      | getLine(start, own, inner, 1) | getLine(start, own, inner, -1)
+      | getLine(start, own, inner, 7) | getLine(start, own, inner, -7)
+      | getLine(start, own, inner, 9) | getLine(start, own, inner, -9);
+  }
+
+  /**
+   * Gets the discs that would be captured in one direction
+   *
+   * @param start the bit of the square where a disc would be placed
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player that can be captured in this direction
+   * @param amount the shift amount of the direction (negative for right shifts)
+   * @return a bitmask of the captured discs
+   */
+  private static long getLine(long start, long own, long opponent, int amount) {
+    long line = 0;
+    long bit = amount > 0 ? start << amount : start >>> -amount;
+
+    // Just like Othello.getCaptures(), keep walking while we see the opponent
+    while ((bit & opponent) != 0) {
+      line |= bit;
+      bit = amount > 0 ? bit << amount : bit >>> -amount;
+    }
+
+    // The line only counts if it is closed off by one of our own discs
+    return (bit & own) != 0 ? line : 0;
+  }
+
+  /**
+   * Places a disc and captures everything it should
+   *
+   * @param square the square where the disc is placed
+   * @param player the player (starting from 0)
+   * @return a bitmask of the captured discs
+   */
+  public long makeMove(int square, int player) {
+    long flips = getFlips(square, player);
+    discs[player] |= flips | (1L << square);
+    discs[1 - player] &= ~flips;
+    return flips;
+  }
+
+  /**
+   * Creates a copy of this bitboard
+   *
+   * @return a copy of this bitboard
+   */
+  public Bitboard copy() {
+    Bitboard clone = new Bitboard();
+    clone.discs[0] = discs[0];
+    clone.discs[1] = discs[1];
+    return clone;
+  }
+}
@@ -0,0 +1,262 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.*;
+
+/**
+ * The board, painted by hand instead of being built out of a label per tile
+ *
+ * The empty board (its colour and grid lines) is drawn once into an image
+ * and kept until the size changes, so painting is one copy of that image
+ * plus a tile for each square inside whatever needs repainting. When a move
+ * is made, only the squares that changed are repainted, so even a 100x100
+ * board doesn't have to be drawn again from scratch.
+ *
+ * The tiles are read straight from the Othello it's showing, so it must
+ * only be changed on the event dispatch thread.
+ *
+ * @version 2026-10-18
+ */
+public class BoardView extends JComponent {
+  /**
+   * The version of the class, since Swing components are serializable
+   */
+  private static final long serialVersionUID = 1L;
+  /**
+   * The game being shown
+   */
+  private Othello othello = null;
+  /**
+   * The picture of each player's tile
+   */
+  private Image[] tileImages;
+  /**
+   * The colour of the board
+   */
+  private Color back;
+  /**
+   * The colour of a highlighted square
+   */
+  private Color highlightBack;
+  /**
+   * The colour of the grid lines
+   */
+  private Color outline;
+  /**
+   * Whether each square is highlighted
+   */
+  private boolean[] highlighted = new boolean[0];
+  /**
+   * The empty board, drawn at the current size
+   */
+  private BufferedImage background = null;
+  /**
+   * Each player's tile, scaled to fit a square at the current size
+   */
+  private BufferedImage[] scaledTiles = null;
+  /**
+   * The width and height of each square, in pixels
+   */
+  private int cellSize;
+  /**
+   * Where the board starts from the left
+   */
+  private int left;
+  /**
+   * Where the board starts from the top
+   */
+  private int top;
+
+  /**
+   * Creates an empty board
+   *
+   * @param tileImages the picture of each player's tile
+   * @param back the colour of the board
+   * @param highlightBack the colour of a highlighted square
+   * @param outline the colour of the grid lines
+   */
+  public BoardView(Image[] tileImages, Color back, Color highlightBack, Color outline) {
+    this.tileImages = tileImages;
+    this.back = back;
+    this.highlightBack = highlightBack;
+    this.outline = outline;
+  }
+
+  /**
+   * Shows a different game, which may have a different size
+   *
+   * @param othello the game
+   */
+  public void setGame(Othello othello) {
+    this.othello = othello;
+    highlighted = new boolean[othello.getSize()];
+    background = null;
+    repaint();
+  }
+
+  /**
+   * Finds the square under a point
+   *
+   * @param px the x of the point, in pixels
+   * @param py the y of the point, in pixels
+   * @return the square, or -1 if the point isn't on the board
+   */
+  public int getSquare(int px, int py) {
+    if (othello == null) {
+      return -1;
+    }
+
+    updateLayout();
+    int x = Math.floorDiv(px - left, cellSize);
+    int y = Math.floorDiv(py - top, cellSize);
+
+    if (x < 0 || x >= othello.getWidth() || y < 0 || y >= othello.getHeight()) {
+      return -1;
+    }
+
+    return othello.getSquare(x, y);
+  }
+
+  /**
+   * Repaints one square
+   *
+   * @param pos the position of the square
+   */
+  public void repaintSquare(int[] pos) {
+    updateLayout();
+    repaint(left + pos[0] * cellSize, top + pos[1] * cellSize, cellSize + 1, cellSize + 1);
+  }
+
+  /**
+   * Highlights a square (or stops highlighting it)
+   *
+   * @param square the square
+   * @param isHighlighted whether it should be highlighted
+   */
+  public void setHighlighted(int square, boolean isHighlighted) {
+    if (highlighted[square] != isHighlighted) {
+      highlighted[square] = isHighlighted;
+      int height = othello.getHeight();
+      repaintSquare(new int[] {square / height, square % height});
+    }
+  }
+
+  /**
+   * Works out how big the squares are and where the board goes,
+   * throwing away the cached images if that changed
+   */
+  private void updateLayout() {
+    int width = othello.getWidth();
+    int height = othello.getHeight();
+    int size = Math.max(1, Math.min(getWidth() / width, getHeight() / height));
+
+    if (size != cellSize) {
+      cellSize = size;
+      background = null;
+      scaledTiles = null;
+    }
+
+    // The board is centred in whatever space it's given
+    left = (getWidth() - cellSize * width) / 2;
+    top = (getHeight() - cellSize * height) / 2;
+
+    if (background != null && (background.getWidth() != cellSize * width + 1
+        || background.getHeight() != cellSize * height + 1)) {
+      background = null;
+    }
+  }
+
+  /**
+   * Draws the empty board
+   */
+  private void drawBackground() {
+    int width = othello.getWidth();
+    int height = othello.getHeight();
+    background = new BufferedImage(cellSize * width + 1, cellSize * height + 1, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = background.createGraphics();
+    g.setColor(back);
+    g.fillRect(0, 0, background.getWidth(), background.getHeight());
+    g.setColor(outline);
+
+    for (int x = 0; x <= width; x++) {
+      g.drawLine(x * cellSize, 0, x * cellSize, height * cellSize);
+    }
+
+    for (int y = 0; y <= height; y++) {
+      g.drawLine(0, y * cellSize, width * cellSize, y * cellSize);
+    }
+
+    g.dispose();
+  }
+
+  /**
+   * Scales each player's tile to fit inside a square
+   */
+  private void scaleTiles() {
+    // Just like the labels used to, leave a small gap around each tile
+    int size = Math.max(1, cellSize - 2 * Math.max(1, cellSize / 32));
+    scaledTiles = new BufferedImage[tileImages.length];
+
+    for (int i = 0; i < tileImages.length; i++) {
+      scaledTiles[i] = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+      Graphics2D g = scaledTiles[i].createGraphics();
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+
+      if (tileImages[i] != null) {
+        g.drawImage(tileImages[i], 0, 0, size, size, null);
+      }
+
+      g.dispose();
+    }
+  }
+
+  protected void paintComponent(Graphics graphics) {
+    if (othello == null) {
+      return;
+    }
+
+    updateLayout();
+
+    if (background == null) {
+      drawBackground();
+    }
+
+    if (scaledTiles == null) {
+      scaleTiles();
+    }
+
+    graphics.drawImage(background, left, top, null);
+    Rectangle clip = graphics.getClipBounds();
+
+    if (clip == null) {
+      clip = new Rectangle(0, 0, getWidth(), getHeight());
+    }
+
+    // Only the squares inside the area being repainted need to be drawn
+    int width = othello.getWidth();
+    int height = othello.getHeight();
+    int startX = Math.max(0, Math.floorDiv(clip.x - left, cellSize));
+    int endX = Math.min(width - 1, Math.floorDiv(clip.x + clip.width - left, cellSize));
+    int startY = Math.max(0, Math.floorDiv(clip.y - top, cellSize));
+    int endY = Math.min(height - 1, Math.floorDiv(clip.y + clip.height - top, cellSize));
+    int tileOffset = (cellSize - scaledTiles[0].getWidth()) / 2;
+
+    for (int x = startX; x <= endX; x++) {
+      for (int y = startY; y <= endY; y++) {
+        int square = othello.getSquare(x, y);
+        int px = left + x * cellSize;
+        int py = top + y * cellSize;
+
+        if (highlighted[square]) {
+          graphics.setColor(highlightBack);
+          graphics.fillRect(px + 1, py + 1, cellSize - 1, cellSize - 1);
+        }
+
+        int value = othello.getValue(square);
+
+        if (value != 0) {
+          graphics.drawImage(scaledTiles[value - 1], px + tileOffset, py + tileOffset, null);
+        }
+      }
+    }
+  }
+}
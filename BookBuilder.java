@@ -0,0 +1,351 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Builds an opening book from games the computer plays against itself
+ *
+ * The first few moves of each game are random, so that the games
+ * cover more than one line, and the rest are searched. Every move made
+ * in the first few plies is recorded along with how the game ended for
+ * whoever made it. If the book already exists, the new games are added
+ * to what it already knows.
+ *
+ * @version 2026-10-18
+ */
+public class BookBuilder {
+  /**
+   * The width of the board
+   */
+  private int width;
+  /**
+   * The height of the board
+   */
+  private int height;
+  /**
+   * The number of players
+   */
+  private int playerCount;
+  /**
+   * The number of plies of each game to record
+   */
+  private int plies;
+  /**
+   * The number of plies at the start of each game that are random
+   */
+  private int randomPlies;
+  /**
+   * The number of positions each search may look at
+   */
+  private long nodeLimit;
+
+  /**
+   * Creates a book builder
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @param plies the number of plies of each game to record
+   * @param randomPlies the number of plies at the start of each game that are random
+   * @param nodeLimit the number of positions each search may look at
+   */
+  public BookBuilder(int width, int height, int playerCount, int plies, int randomPlies, long nodeLimit) {
+    this.width = width;
+    this.height = height;
+    this.playerCount = playerCount;
+    this.plies = plies;
+    this.randomPlies = randomPlies;
+    this.nodeLimit = nodeLimit;
+  }
+
+  /**
+   * Plays one game and records its first few plies
+   *
+   * @param seed the seed for the random moves
+   * @return one row for every recorded move: {hash, move, games, wins, draws}
+   */
+  public ArrayList<long[]> playGame(long seed) {
+    Othello othello = new Othello(width, height, playerCount);
+    othello.setInitialBoard();
+    Symmetry symmetry = Symmetry.get(width, height);
+    Random random = new Random(seed);
+    int[] moves = new int[othello.getSize()];
+    ArrayList<long[]> rows = new ArrayList<long[]>();
+    ArrayList<Integer> movers = new ArrayList<Integer>();
+    try (Engine engine = Engine.create((playerCount == 2 ? "search:" : "maxn:") + nodeLimit, othello, seed)) {
+      for (int ply = 0; othello.getTurn() != -1; ply++) {
+        int turn = othello.getTurn();
+        int move;
+
+        if (ply < randomPlies) {
+          int count = othello.getMoves(turn + 1, moves);
+          move = moves[random.nextInt(count)];
+        } else {
+          move = engine.getMove();
+        }
+
+        if (ply < plies) {
+          // The move is stored as it would be played in the canonical position,
+          // picked the same way however the position was reached
+          int symmetries = symmetry.getCanonicalSymmetries(othello);
+          long hash = symmetry.hash(othello, Integer.numberOfTrailingZeros(symmetries));
+          rows.add(new long[] {hash, symmetry.getCanonicalMove(move, symmetries), 1, 0, 0});
+          movers.add(turn);
+        }
+
+        othello.makeMove(move);
+      }
+    }
+
+    Statistics statistics = othello.getStatistics();
+    int top = 0;
+    int leaders = 0;
+
+    for (int i = 0; i < playerCount; i++) {
+      int count = statistics.getCount(i);
+
+      if (count > top) {
+        top = count;
+        leaders = 1;
+      } else if (count == top) {
+        leaders++;
+      }
+    }
+
+    for (int i = 0; i < rows.size(); i++) {
+      if (statistics.getCount(movers.get(i)) == top) {
+        rows.get(i)[leaders == 1 ? 3 : 4] = 1;
+      }
+    }
+
+    return rows;
+  }
+
+  /**
+   * Reads every entry of a book into rows
+   *
+   * @param book the book
+   * @return one row for every entry: {hash, move, games, wins, draws}
+   */
+  public static ArrayList<long[]> readRows(OpeningBook book) {
+    ArrayList<long[]> rows = new ArrayList<long[]>(book.getEntryCount());
+
+    for (int i = 0; i < book.getEntryCount(); i++) {
+      rows.add(new long[] {book.getHash(i), book.getMove(i), book.getGames(i), book.getWins(i), book.getDraws(i)});
+    }
+
+    return rows;
+  }
+
+  /**
+   * Sorts rows by hash and then move, adding up the rows for the same move
+   *
+   * @param rows the rows, which are changed
+   * @return the merged rows
+   */
+  public static ArrayList<long[]> merge(ArrayList<long[]> rows) {
+    rows.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+    ArrayList<long[]> merged = new ArrayList<long[]>();
+
+    for (long[] row : rows) {
+      long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+      if (last != null && last[0] == row[0] && last[1] == row[1]) {
+        last[2] += row[2];
+        last[3] += row[3];
+        last[4] += row[4];
+      } else {
+        merged.add(row.clone());
+      }
+    }
+
+    return merged;
+  }
+
+  /**
+   * Writes a book
+   *
+   * It's written to a temporary file first and then moved into place,
+   * so anyone who has the old book open keeps seeing the old book
+   *
+   * @param path the file
+   * @param rows the merged rows
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path path, ArrayList<long[]> rows) throws IOException {
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(OpeningBook.MAGIC);
+      out.writeInt(width);
+      out.writeInt(height);
+      out.writeInt(playerCount);
+      out.writeInt(rows.size());
+      out.writeInt(0);
+
+      for (long[] row : rows) {
+        out.writeLong(row[0]);
+        out.writeInt((int) row[1]);
+
+        // Counts that don't fit are capped rather than wrapped
+        for (int i = 2; i < 5; i++) {
+          out.writeInt((int) Math.min(row[i], Integer.MAX_VALUE));
+        }
+      }
+    }
+
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Checks that a book gives the same moves for a position as for its flipped and turned copies
+   *
+   * A scratch book is built from games whose first few plies are all random,
+   * and then just as many random openings are looked up in it, copies and all
+   *
+   * @param games the number of games
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @param seed the seed for the moves
+   * @return {the number of moves checked, the number that didn't match}
+   * @throws IOException if the scratch book can't be written
+   */
+  public static long[] verify(int games, int width, int height, int playerCount, long seed) throws IOException {
+    int plies = 8;
+    BookBuilder builder = new BookBuilder(width, height, playerCount, plies, plies, 100);
+    ArrayList<long[]> rows = new ArrayList<long[]>();
+
+    for (int i = 0; i < games; i++) {
+      rows.addAll(builder.playGame(seed + i));
+    }
+
+    Path file = Files.createTempFile("book", ".bin");
+
+    try {
+      builder.write(file, merge(rows));
+      OpeningBook book = new OpeningBook(file);
+      Random random = new Random(seed);
+      long checked = 0;
+      long different = 0;
+
+      for (int i = 0; i < games; i++) {
+        Othello othello = new Othello(width, height, playerCount);
+        othello.setInitialBoard();
+        int[] moves = new int[othello.getSize()];
+
+        for (int ply = 0; ply < plies && othello.getTurn() != -1; ply++) {
+          checked += book.getMoves(othello).size();
+          different += BookMove.countAsymmetric(book::getMoves, othello);
+          othello.makeMove(moves[random.nextInt(othello.getMoves(othello.getTurn() + 1, moves))]);
+        }
+      }
+
+      return new long[] {checked, different};
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Plays games and adds them to a book
+   *
+   * @param args --book, --games, --plies, --random, --nodes,
+   *   --players, --width, --height, --threads and --verify (the number of
+   *   games to check symmetric positions with, instead of doing anything else)
+   * @throws Exception if the book can't be read or written
+   */
+  public static void main(String[] args) throws Exception {
+    Path path = Paths.get("book.bin");
+    int games = 100;
+    int plies = 12;
+    int randomPlies = 4;
+    long nodeLimit = 20000;
+    int playerCount = 2;
+    int width = 8;
+    int height = 8;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int verifyGames = 0;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--book".equals(args[i])) {
+        path = Paths.get(args[i + 1]);
+        continue;
+      }
+
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--games".equals(args[i])) {
+        games = value;
+      } else if ("--plies".equals(args[i])) {
+        plies = value;
+      } else if ("--random".equals(args[i])) {
+        randomPlies = value;
+      } else if ("--nodes".equals(args[i])) {
+        nodeLimit = value;
+      } else if ("--players".equals(args[i])) {
+        playerCount = value;
+      } else if ("--width".equals(args[i])) {
+        width = value;
+      } else if ("--height".equals(args[i])) {
+        height = value;
+      } else if ("--threads".equals(args[i])) {
+        threads = value;
+      } else if ("--verify".equals(args[i])) {
+        verifyGames = value;
+      }
+    }
+
+    if (verifyGames > 0) {
+      long[] result = verify(verifyGames, width, height, playerCount, 1);
+      System.out.println(String.format("%d book moves checked against their symmetric copies, %d different %s",
+        result[0], result[1], result[1] == 0 ? "ok" : "FAILED"));
+
+      if (result[1] != 0) {
+        System.exit(1);
+      }
+
+      return;
+    }
+
+    BookBuilder builder = new BookBuilder(width, height, playerCount, plies, randomPlies, nodeLimit);
+    ArrayList<long[]> rows = new ArrayList<long[]>();
+
+    if (Files.exists(path)) {
+      OpeningBook book = new OpeningBook(path);
+
+      if (book.getWidth() != width || book.getHeight() != height || book.getPlayerCount() != playerCount) {
+        throw new IllegalArgumentException(path + " is a book for a different game");
+      }
+
+      rows.addAll(readRows(book));
+    }
+
+    long start = System.nanoTime();
+    // Each game gets its own seed, so a second run adds different games
+    long seed = new Random().nextLong();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    ArrayList<Future<ArrayList<long[]>>> results = new ArrayList<Future<ArrayList<long[]>>>();
+
+    try {
+      for (int i = 0; i < games; i++) {
+        long gameSeed = seed + i;
+        results.add(pool.submit(() -> builder.playGame(gameSeed)));
+      }
+
+      for (Future<ArrayList<long[]>> result : results) {
+        rows.addAll(result.get());
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    ArrayList<long[]> merged = merge(rows);
+    builder.write(path, merged);
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("%d games in %.1f s, %d entries in %s",
+      games, seconds, merged.size(), path));
+  }
+}
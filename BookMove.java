@@ -0,0 +1,95 @@
+import java.util.*;
+import java.util.function.*;
+
+/**
+ * A move from the opening book and how it has done
+ */
+public class BookMove {
+  /**
+   * The square of the move
+   */
+  public int move;
+  /**
+   * The number of games the move was played in
+   */
+  public int games;
+  /**
+   * The number of those games that the player who moved went on to win
+   */
+  public int wins;
+  /**
+   * The number of those games that the player who moved tied for first in
+   */
+  public int draws;
+
+  /**
+   * Creates a move from the opening book
+   *
+   * @param move the square of the move
+   * @param games the number of games it was played in
+   * @param wins the number of those games that were won
+   * @param draws the number of those games that were drawn
+   */
+  public BookMove(int move, int games, int wins, int draws) {
+    this.move = move;
+    this.games = games;
+    this.wins = wins;
+    this.draws = draws;
+  }
+
+  /**
+   * Gets how well the move has done, counting draws as half a win
+   *
+   * @return the score, from 0 to 1
+   */
+  public double getScore() {
+    return games == 0 ? 0 : (wins + draws / 2.0) / games;
+  }
+
+  /**
+   * Looks up a position and each of its flipped and turned copies,
+   * and counts the moves whose stats don't turn along with the board
+   *
+   * Every copy plays out the same, so anything that stores positions by their
+   * canonical copy must give the same stats for the same move in every copy
+   *
+   * @param lookup gets the moves of a position (like OpeningBook.getMoves())
+   * @param othello the position
+   * @return the number of moves that are missing or different in some copy
+   */
+  public static int countAsymmetric(Function<Othello, ArrayList<BookMove>> lookup, Othello othello) {
+    Symmetry symmetry = Symmetry.get(othello.getWidth(), othello.getHeight());
+    ArrayList<BookMove> moves = lookup.apply(othello);
+    int differences = 0;
+
+    for (int s = 1; s < symmetry.count; s++) {
+      HashMap<Integer, BookMove> copyMoves = new HashMap<Integer, BookMove>();
+
+      for (BookMove move : lookup.apply(symmetry.apply(othello, s))) {
+        copyMoves.put(move.move, move);
+      }
+
+      for (BookMove move : moves) {
+        BookMove copy = copyMoves.remove(symmetry.transform(move.move, s));
+
+        if (copy == null || copy.games != move.games || copy.wins != move.wins || copy.draws != move.draws) {
+          differences++;
+        }
+      }
+
+      // Anything left over only showed up in the copy
+      differences += copyMoves.size();
+    }
+
+    return differences;
+  }
+
+  /**
+   * Creates a String of all of the variables of the instance
+   *
+   * @return a String of all the variables of the instance
+   */
+  public String toString() {
+    return "move: " + move + " games: " + games + " wins: " + wins + " draws: " + draws;
+  }
+}
@@ -0,0 +1,525 @@
+import java.util.*;
+
+/**
+ * Plays random games and checks the engine against a plain copy of the rules
+ *
+ * The rules here are written the slowest, most obvious way (a 2D array
+ * and a walk in each of the eight directions), so they're easy to trust.
+ * After every move, undo, revert and copy, the engine has to agree with them on
+ * the board, the legal moves, the captures and the turn, and everything it
+ * keeps up to date as it goes (the counts, the statistics, the hash and the
+ * pattern indices) has to match what a fresh count of the board gives.
+ *
+ * Usage: java Crosscheck [--games 30] [--seed 1]
+ *
+ * @version 2026-10-18
+ */
+public class Crosscheck {
+  /**
+   * The board sizes and player counts to play on, as {width, height, players}
+   * (8x8 with two players goes through the bitboard)
+   */
+  private static final int[][] SETUPS = {
+    {8, 8, 2}, {8, 8, 3}, {8, 8, 4}, {10, 9, 2}, {12, 12, 4}, {9, 11, 3}
+  };
+  /**
+   * The steps in each direction
+   */
+  private static final int[][] DIRECTIONS = {
+    {-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}
+  };
+
+  /**
+   * The game being checked
+   */
+  private Othello othello;
+  /**
+   * The width of the board
+   */
+  private int width;
+  /**
+   * The height of the board
+   */
+  private int height;
+  /**
+   * The number of players
+   */
+  private int playerCount;
+  /**
+   * The board according to the plain rules, by x and then y
+   */
+  private int[][] board;
+  /**
+   * The turn according to the plain rules
+   */
+  private int turn;
+  /**
+   * The plain boards and turns before each move, so they can be undone
+   */
+  private ArrayList<int[][]> boards = new ArrayList<int[][]>();
+  /**
+   * The turns that go with the boards
+   */
+  private ArrayList<Integer> turns = new ArrayList<Integer>();
+  /**
+   * The number of things that didn't match
+   */
+  private long different = 0;
+  /**
+   * The number of positions compared
+   */
+  private long checked = 0;
+
+  /**
+   * Starts a game on both sides
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   */
+  private Crosscheck(int width, int height, int playerCount) {
+    this.width = width;
+    this.height = height;
+    this.playerCount = playerCount;
+    othello = new Othello(width, height, playerCount);
+    othello.setInitialBoard();
+    board = new int[width][height];
+
+    for (int[] tile : Othello.getInitialBoard(playerCount)) {
+      board[tile[0]][tile[1]] = tile[2] + 1;
+    }
+
+    turn = nextTurn(-1);
+
+    // Asking for these now means they're kept up to date from here on,
+    // instead of being read from scratch when they're compared
+    othello.getStatistics();
+
+    if (width == 8 && height == 8 && playerCount == 2) {
+      othello.getPatterns();
+    }
+  }
+
+  /**
+   * Finds every tile a move would capture, the plain way
+   *
+   * @param x the x coordinate of the move
+   * @param y the y coordinate of the move
+   * @param attacker the attacker (starting from 1)
+   * @return the captured tiles as {x, y}
+   */
+  private ArrayList<int[]> captures(int x, int y, int attacker) {
+    ArrayList<int[]> captured = new ArrayList<int[]>();
+
+    if (board[x][y] != 0) {
+      return captured;
+    }
+
+    for (int[] direction : DIRECTIONS) {
+      ArrayList<int[]> line = new ArrayList<int[]>();
+      int cx = x + direction[0];
+      int cy = y + direction[1];
+
+      while (cx >= 0 && cx < width && cy >= 0 && cy < height
+          && board[cx][cy] != 0 && board[cx][cy] != attacker) {
+        line.add(new int[] {cx, cy});
+        cx += direction[0];
+        cy += direction[1];
+      }
+
+      if (cx >= 0 && cx < width && cy >= 0 && cy < height && board[cx][cy] == attacker) {
+        captured.addAll(line);
+      }
+    }
+
+    return captured;
+  }
+
+  /**
+   * Determines whether a player has a move, the plain way
+   *
+   * @param attacker the player (starting from 1)
+   * @return whether or not there is a move
+   */
+  private boolean hasMove(int attacker) {
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        if (!captures(x, y, attacker).isEmpty()) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Finds the next player that can move, the plain way
+   *
+   * @param from the player who just moved
+   * @return the next turn, or -1 if nobody can move
+   */
+  private int nextTurn(int from) {
+    int next = from;
+
+    for (int i = 0; i <= playerCount; i++) {
+      next = (next + 1 + playerCount) % playerCount;
+
+      if (hasMove(next + 1)) {
+        return next;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Notes that something didn't match
+   *
+   * @param what what it was
+   */
+  private void fail(String what) {
+    if (different < 10) {
+      System.out.println(String.format("%dx%d, %d players, move %d: %s",
+        width, height, playerCount, othello.getLogSize(), what));
+    }
+
+    different++;
+  }
+
+  /**
+   * Compares everything the engine knows about the position with the plain rules
+   */
+  private void compare() {
+    checked++;
+    int[] counts = new int[playerCount];
+    int[] frontiers = new int[playerCount];
+    int[] regionEmpties = new int[4];
+    int empties = 0;
+
+    if (othello.getTurn() != turn) {
+      fail("turn " + othello.getTurn() + " instead of " + turn);
+    }
+
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        int square = othello.getSquare(x, y);
+        int value = board[x][y];
+
+        if (othello.getValue(square) != value) {
+          fail("square " + x + "," + y + " is " + othello.getValue(square) + " instead of " + value);
+        }
+
+        if (value == 0) {
+          empties++;
+          regionEmpties[(x < (width + 1) / 2 ? 0 : 1) + (y < (height + 1) / 2 ? 0 : 2)]++;
+          continue;
+        }
+
+        counts[value - 1]++;
+
+        if (isNextToEmpty(x, y)) {
+          frontiers[value - 1]++;
+        }
+      }
+    }
+
+    Statistics statistics = othello.getStatistics();
+
+    if (!Arrays.equals(othello.getCounts(), counts)) {
+      fail("counts " + Arrays.toString(othello.getCounts()) + " instead of " + Arrays.toString(counts));
+    }
+
+    if (statistics.getEmptyCount() != empties) {
+      fail("empty count " + statistics.getEmptyCount() + " instead of " + empties);
+    }
+
+    for (int region = 0; region < 4; region++) {
+      if (statistics.getRegionEmptyCount(region) != regionEmpties[region]) {
+        fail("region " + region + " empty count is wrong");
+      }
+    }
+
+    int[] flips = new int[othello.getSize()];
+    int[] moves = new int[othello.getSize()];
+
+    for (int attacker = 1; attacker <= playerCount; attacker++) {
+      int mobility = 0;
+
+      for (int x = 0; x < width; x++) {
+        for (int y = 0; y < height; y++) {
+          int square = othello.getSquare(x, y);
+          ArrayList<int[]> expected = captures(x, y, attacker);
+          boolean isLegal = !expected.isEmpty();
+          mobility += isLegal ? 1 : 0;
+
+          if (othello.isLegal(square, attacker) != isLegal) {
+            fail("isLegal(" + x + "," + y + ", " + attacker + ") is " + !isLegal);
+          }
+
+          // Flips are only asked for on empty squares, like everywhere else
+          if (board[x][y] == 0 && !sameSquares(flips, othello.getFlips(square, attacker, flips), expected)) {
+            fail("flips of " + x + "," + y + " for " + attacker + " are wrong");
+          }
+        }
+      }
+
+      int count = othello.getMoves(attacker, moves);
+
+      if (count != mobility || othello.getMoveCount(attacker) != mobility
+          || othello.hasMoves(attacker) != (mobility > 0)) {
+        fail("player " + attacker + " has " + count + " moves instead of " + mobility);
+      }
+
+      for (int i = 0; i < count; i++) {
+        int square = moves[i];
+
+        if (captures(square / height, square % height, attacker).isEmpty()) {
+          fail("move " + square + " for " + attacker + " isn't legal");
+        }
+      }
+
+      if (statistics.getFrontierCount(attacker - 1) != frontiers[attacker - 1]) {
+        fail("frontier count of " + attacker + " is wrong");
+      }
+    }
+
+    if (othello.getHash() != Zobrist.get(othello.getSize(), playerCount).hash(othello)) {
+      fail("hash is out of date");
+    }
+
+    if (width == 8 && height == 8 && playerCount == 2) {
+      Patterns fresh = new Patterns(othello);
+      Patterns patterns = othello.getPatterns();
+
+      for (int pattern = 0; pattern < Patterns.getCount(); pattern++) {
+        for (int player = 0; player < 2; player++) {
+          if (patterns.getIndex(pattern, player) != fresh.getIndex(pattern, player)) {
+            fail("pattern " + pattern + " is out of date");
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Determines whether a square has an empty neighbour
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return whether or not a neighbour is empty
+   */
+  private boolean isNextToEmpty(int x, int y) {
+    for (int[] direction : DIRECTIONS) {
+      int nx = x + direction[0];
+      int ny = y + direction[1];
+
+      if (nx >= 0 && nx < width && ny >= 0 && ny < height && board[nx][ny] == 0) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Determines whether some squares are the same as some positions, in any order
+   *
+   * @param squares the squares
+   * @param count the number of squares
+   * @param positions the positions
+   * @return whether or not they're the same
+   */
+  private boolean sameSquares(int[] squares, int count, ArrayList<int[]> positions) {
+    if (count != positions.size()) {
+      return false;
+    }
+
+    int[] expected = new int[count];
+
+    for (int i = 0; i < count; i++) {
+      expected[i] = othello.getSquare(positions.get(i)[0], positions.get(i)[1]);
+    }
+
+    int[] actual = Arrays.copyOf(squares, count);
+    Arrays.sort(expected);
+    Arrays.sort(actual);
+    return Arrays.equals(actual, expected);
+  }
+
+  /**
+   * Makes a random legal move on both sides
+   *
+   * Every other move goes through makeMove(int[]), so the captures
+   * it hands back to the user are checked as well
+   *
+   * @param random the random number generator
+   */
+  private void move(Random random) {
+    // The moves come from the plain rules, so an engine
+    // that has lost track of them can't stop the game
+    ArrayList<int[]> moves = new ArrayList<int[]>();
+
+    for (int mx = 0; mx < width; mx++) {
+      for (int my = 0; my < height; my++) {
+        if (!captures(mx, my, turn + 1).isEmpty()) {
+          moves.add(new int[] {mx, my});
+        }
+      }
+    }
+
+    int[] pick = moves.get(random.nextInt(moves.size()));
+    int x = pick[0];
+    int y = pick[1];
+    int square = othello.getSquare(x, y);
+    ArrayList<int[]> captured = captures(x, y, turn + 1);
+
+    boards.add(copy(board));
+    turns.add(turn);
+
+    if (random.nextBoolean()) {
+      State state = othello.makeMove(new int[] {x, y});
+      ArrayList<int[]> expected = new ArrayList<int[]>(captured);
+      expected.add(new int[] {x, y});
+      int[] updates = new int[state.updates.size()];
+
+      for (int i = 0; i < updates.length; i++) {
+        updates[i] = othello.getSquare(state.updates.get(i)[0], state.updates.get(i)[1]);
+      }
+
+      if (!sameSquares(updates, updates.length, expected) || state.currentTurn != turn) {
+        fail("state of move " + x + "," + y + " is wrong");
+      }
+    } else {
+      othello.makeMove(square);
+    }
+
+    for (int[] tile : captured) {
+      board[tile[0]][tile[1]] = turn + 1;
+    }
+
+    board[x][y] = turn + 1;
+    turn = nextTurn(turn);
+  }
+
+  /**
+   * Goes back to before a move on both sides
+   *
+   * @param index the number of moves to keep
+   * @param isUndo whether to undo one move at a time instead of reverting
+   */
+  private void back(int index, boolean isUndo) {
+    if (isUndo) {
+      while (othello.getLogSize() > index) {
+        othello.undo();
+      }
+    } else {
+      othello.revert(index);
+    }
+
+    board = boards.get(index);
+    turn = turns.get(index);
+
+    while (boards.size() > index) {
+      boards.remove(boards.size() - 1);
+      turns.remove(turns.size() - 1);
+    }
+  }
+
+  /**
+   * Carries on with a copy of the game instead of the game itself
+   *
+   * A copy can't undo past where it was made, so neither can the plain rules
+   */
+  private void switchToCopy() {
+    othello = othello.copy();
+    boards.clear();
+    turns.clear();
+  }
+
+  /**
+   * Copies a plain board
+   *
+   * @param from the board
+   * @return the copy
+   */
+  private static int[][] copy(int[][] from) {
+    int[][] to = new int[from.length][];
+
+    for (int x = 0; x < from.length; x++) {
+      to[x] = from[x].clone();
+    }
+
+    return to;
+  }
+
+  /**
+   * Plays random games on every setup, undoing and reverting now and then
+   *
+   * @param games the number of games on each setup
+   * @param seed the seed for the games
+   * @return {the number of positions compared, the number of things that didn't match}
+   */
+  public static long[] verify(int games, long seed) {
+    Random random = new Random(seed);
+    long checked = 0;
+    long different = 0;
+
+    for (int[] setup : SETUPS) {
+      for (int game = 0; game < games; game++) {
+        Crosscheck check = new Crosscheck(setup[0], setup[1], setup[2]);
+        check.compare();
+
+        while (check.turn != -1) {
+          check.move(random);
+          check.compare();
+          int size = check.othello.getLogSize();
+
+          // Going back a few moves now and then checks that undo
+          // and revert put back everything that was kept up to date
+          if (random.nextInt(8) == 0) {
+            check.back(Math.max(0, size - 1 - random.nextInt(4)), random.nextBoolean());
+            check.compare();
+          }
+
+          // A copy has to carry on exactly like the game it came from
+          if (random.nextInt(16) == 0) {
+            check.switchToCopy();
+            check.compare();
+          }
+        }
+
+        checked += check.checked;
+        different += check.different;
+      }
+    }
+
+    return new long[] {checked, different};
+  }
+
+  /**
+   * Checks the engine and prints whether it matched
+   *
+   * @param args --games (on each setup) and --seed
+   */
+  public static void main(String[] args) {
+    int games = 30;
+    long seed = 1;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--games".equals(args[i])) {
+        games = Integer.parseInt(args[i + 1]);
+      } else if ("--seed".equals(args[i])) {
+        seed = Long.parseLong(args[i + 1]);
+      }
+    }
+
+    long[] result = verify(games, seed);
+    System.out.println(String.format("%d positions checked against the plain rules, %d different %s",
+      result[0], result[1], result[1] == 0 ? "ok" : "FAILED"));
+
+    if (result[1] != 0) {
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,953 @@
+import java.util.*;
+
+/**
+ * An exact solver for the end of a two player game
+ *
+ * Once there are only a couple of dozen empty squares left, it's
+ * cheaper to play every line out to the end than to guess at positions
+ * with an Evaluator, as long as the moves are tried in a good order:
+ *
+ * Fastest-first tries the moves that leave the opponent with the fewest
+ * replies first, since those lines are the smallest and usually the best.
+ * Parity tries squares in regions with an odd number of empties first,
+ * since whoever moves last in a region usually comes out ahead.
+ *
+ * On the standard 8x8 board, everything is done on two longs instead of
+ * going through Othello, and the last few empties are searched by looking
+ * at the empty squares directly rather than generating a list of moves.
+ *
+ * Scores are the final tile difference for whoever is moving,
+ * or just -1, 0 or 1 when only the winner is wanted.
+ *
+ * @version 2026-10-18
+ */
+public class Endgame {
+  /**
+   * At this many empties or fewer, the empty squares are searched directly
+   */
+  private static final int LAST_EMPTIES = 5;
+  /**
+   * At this many empties or more, moves are sorted by the opponent's mobility
+   */
+  private static final int FASTEST_FIRST = 7;
+  /**
+   * At this many empties or more, positions are stored in the table
+   */
+  private static final int TABLE_EMPTIES = 10;
+  /**
+   * A score larger than any real score
+   */
+  private static final int INFINITY = 1000;
+  /**
+   * The limits are checked whenever the node count is a multiple of this plus one
+   */
+  private static final int CHECK_INTERVAL = 1023;
+  /**
+   * The squares next to each square on an 8x8 board
+   */
+  private static final long[] NEIGHBOURS = new long[64];
+  /**
+   * The squares in each quarter of an 8x8 board
+   */
+  private static final long[] QUADRANTS = new long[4];
+  /**
+   * The corners of an 8x8 board
+   */
+  private static final long CORNERS = 0x8100000000000081L;
+
+  static {
+    for (int square = 0; square < 64; square++) {
+      int x = square / Bitboard.SIZE;
+      int y = square % Bitboard.SIZE;
+      QUADRANTS[(x < 4 ? 0 : 1) + (y < 4 ? 0 : 2)] |= 1L << square;
+
+      for (int dx = -1; dx <= 1; dx++) {
+        for (int dy = -1; dy <= 1; dy++) {
+          int nx = x + dx;
+          int ny = y + dy;
+
+          if ((dx != 0 || dy != 0) && nx >= 0 && nx < 8 && ny >= 0 && ny < 8) {
+            NEIGHBOURS[square] |= 1L << Bitboard.getSquare(nx, ny);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The game being solved (always put back the way it was)
+   */
+  private Othello othello;
+  /**
+   * Positions that have already been solved
+   */
+  private TranspositionTable table;
+  /**
+   * Whether to only find out who wins
+   */
+  private boolean isWinLossDraw = false;
+  /**
+   * The moves at each number of empties
+   */
+  private int[][] moves;
+  /**
+   * The ordering score of each move at each number of empties
+   */
+  private int[][] orders;
+  /**
+   * The number of positions searched
+   */
+  private long nodes;
+  /**
+   * The number of positions to stop at
+   */
+  private long nodeLimit;
+  /**
+   * The time to stop at
+   */
+  private long deadline;
+  /**
+   * Whether the solver should stop as soon as possible
+   */
+  private volatile boolean isStopped;
+
+  /**
+   * Creates a solver for a game with its own transposition table
+   *
+   * @param othello the game to solve (it is changed while solving)
+   */
+  public Endgame(Othello othello) {
+    this(othello, new TranspositionTable(16));
+  }
+
+  /**
+   * Creates a solver for a game
+   *
+   * @param othello the game to solve (it is changed while solving)
+   * @param table the transposition table to use
+   */
+  public Endgame(Othello othello, TranspositionTable table) {
+    if (othello.getPlayerCount() != 2) {
+      throw new IllegalArgumentException("Endgame only supports two players");
+    }
+
+    int size = othello.getSize();
+    this.othello = othello;
+    this.table = table;
+    this.moves = new int[size + 1][size];
+    this.orders = new int[size + 1][size];
+  }
+
+  /**
+   * Sets whether to only find out who wins
+   *
+   * That's a lot faster than finding the exact score,
+   * since far more lines can be cut off
+   *
+   * @param isWinLossDraw whether to only find out who wins
+   */
+  public void setWinLossDraw(boolean isWinLossDraw) {
+    this.isWinLossDraw = isWinLossDraw;
+  }
+
+  /**
+   * Solves the position
+   *
+   * @return the result, where the score is the final tile difference
+   *   (or its sign, if only the winner is wanted) for whoever is moving
+   */
+  public SearchResult solve() {
+    return solve(Long.MAX_VALUE, Long.MAX_VALUE);
+  }
+
+  /**
+   * Solves the position, unless it takes too long
+   *
+   * @param time the time limit, in milliseconds
+   * @param nodeLimit the number of positions to stop at
+   * @return the result, whose depth is 0 if the position wasn't solved
+   */
+  public SearchResult solve(long time, long nodeLimit) {
+    long start = System.nanoTime();
+    SearchResult result = new SearchResult();
+    this.deadline = time == Long.MAX_VALUE ? Long.MAX_VALUE : start + time * 1000000;
+    this.nodeLimit = nodeLimit;
+    this.nodes = 0;
+    table.newSearch();
+    int player = othello.getTurn();
+
+    if (player != -1 && othello.hasMoves(player + 1)) {
+      int empty = othello.getStatistics().getEmptyCount();
+      int score;
+
+      if (isWinLossDraw) {
+        score = Integer.signum(solveRoot(-1, 1, empty, result));
+      } else {
+        // A window with nothing in it only says whether the score is above
+        // or below a number, but it's so much cheaper than a full window
+        // that it's faster to close in on the score with a series of them.
+        // The table remembers everything from one try to the next.
+        int lower = -INFINITY;
+        int upper = INFINITY;
+        score = 0;
+
+        while (lower < upper && !isStopped) {
+          int bound = score == lower ? score + 1 : score;
+          score = solveRoot(bound - 1, bound, empty, result);
+
+          if (score < bound) {
+            upper = score;
+          } else {
+            lower = score;
+          }
+        }
+      }
+
+      result.score = score;
+      result.depth = isStopped ? 0 : empty;
+      result.principalVariation = new int[] {result.bestMove};
+    }
+
+    result.nodes = nodes;
+    result.time = (System.nanoTime() - start) / 1000000;
+    isStopped = false;
+    return result;
+  }
+
+  /**
+   * Stops a solve that is running on another thread,
+   * or the next one to start if none is running
+   */
+  public void stop() {
+    isStopped = true;
+  }
+
+  /**
+   * Counts a node and checks the limits every so often
+   *
+   * @return whether the solver has been stopped
+   */
+  private boolean countNode() {
+    nodes++;
+
+    if ((nodes & CHECK_INTERVAL) == 0
+        && (nodes >= nodeLimit || System.nanoTime() > deadline)) {
+      isStopped = true;
+    }
+
+    return isStopped;
+  }
+
+  /**
+   * Solves a position on an 8x8 board
+   *
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player
+   * @param alpha the score we already know we can get
+   * @param beta the score the opponent already knows they can hold us to
+   * @param empty the number of empty squares
+   * @return the final tile difference for the player who is moving
+   */
+  private int solve(long own, long opponent, int alpha, int beta, int empty) {
+    if (empty <= LAST_EMPTIES) {
+      return empty == 1
+        ? solveLast(own, opponent, Long.numberOfTrailingZeros(~(own | opponent)))
+        : solveShallow(own, opponent, alpha, beta, empty, false);
+    }
+
+    if (countNode()) {
+      return 0;
+    }
+
+    if (Bitboard.getMoves(own, opponent) == 0) {
+      if (Bitboard.getMoves(opponent, own) == 0) {
+        return Long.bitCount(own) - Long.bitCount(opponent);
+      }
+
+      return -solve(opponent, own, -beta, -alpha, empty);
+    }
+
+    long hash = 0;
+    int hashMove = -1;
+
+    if (empty >= TABLE_EMPTIES) {
+      hash = getHash(own, opponent);
+      long entry = table.probe(hash);
+
+      if (entry != 0) {
+        int score = TranspositionTable.getScore(entry);
+        int bound = TranspositionTable.getBound(entry);
+        hashMove = TranspositionTable.getMove(entry);
+
+        if (bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER && score >= beta)
+            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+          return score;
+        }
+      }
+    }
+
+    int[] list = moves[empty];
+    int[] order = orders[empty];
+    int count = orderMoves(own, opponent, empty);
+
+    for (int i = 0; i < count; i++) {
+      if (list[i] == hashMove) {
+        order[i] = Integer.MAX_VALUE;
+      }
+    }
+
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = -1;
+
+    for (int i = 0; i < count; i++) {
+      pickNext(list, order, i, count);
+      int move = list[i];
+      long flips = Bitboard.getFlips(move, own, opponent);
+      long nextOwn = opponent & ~flips;
+      long nextOpponent = own | flips | (1L << move);
+      int score;
+
+      // Once we have a good move, the rest only need to prove they're worse,
+      // which a window with nothing in it does much more cheaply
+      if (i == 0) {
+        score = -solve(nextOwn, nextOpponent, -beta, -alpha, empty - 1);
+      } else {
+        score = -solve(nextOwn, nextOpponent, -alpha - 1, -alpha, empty - 1);
+
+        if (score > alpha && score < beta) {
+          score = -solve(nextOwn, nextOpponent, -beta, -score, empty - 1);
+        }
+      }
+
+      if (isStopped) {
+        return 0;
+      }
+
+      if (score > best) {
+        best = score;
+        bestMove = move;
+
+        if (score > alpha) {
+          alpha = score;
+
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+
+    if (empty >= TABLE_EMPTIES) {
+      int bound = TranspositionTable.EXACT;
+
+      if (best <= originalAlpha) {
+        bound = TranspositionTable.UPPER;
+      } else if (best >= beta) {
+        bound = TranspositionTable.LOWER;
+      }
+
+      table.store(hash, bestMove, best, empty, bound);
+    }
+
+    return best;
+  }
+
+  /**
+   * Lists and scores the moves of a position on an 8x8 board
+   *
+   * With plenty of empties left, moves that leave the opponent the fewest
+   * replies come first. Either way, squares in odd regions get a bonus.
+   *
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player
+   * @param empty the number of empty squares (which picks the buffers to use)
+   * @return the number of moves
+   */
+  private int orderMoves(long own, long opponent, int empty) {
+    int[] list = moves[empty];
+    int[] order = orders[empty];
+    long odd = getOddRegions(~(own | opponent));
+    long bits = Bitboard.getMoves(own, opponent);
+    int count = 0;
+
+    while (bits != 0) {
+      int move = Long.numberOfTrailingZeros(bits);
+      long bit = bits & -bits;
+      bits ^= bit;
+      int score = (odd & bit) != 0 ? 1 : 0;
+
+      if (empty >= FASTEST_FIRST) {
+        long flips = Bitboard.getFlips(move, own, opponent);
+        long nextOwn = own | flips | bit;
+        long nextOpponent = opponent & ~flips;
+        long replies = Bitboard.getMoves(nextOpponent, nextOwn);
+        // Corners count twice, since they're the replies we least want to give.
+        // Empty squares next to our discs are moves the opponent might get later.
+        score -= (Long.bitCount(replies) + Long.bitCount(replies & CORNERS)) * 16;
+        score -= getPotentialMobility(nextOwn, ~(nextOwn | nextOpponent)) * 4;
+        score += (bit & CORNERS) != 0 ? 8 : 0;
+      }
+
+      list[count] = move;
+      order[count] = score;
+      count++;
+    }
+
+    return count;
+  }
+
+  /**
+   * Solves a position with only a few empty squares left
+   *
+   * This walks the empty squares directly (odd regions first) and only
+   * checks for captures at the ones next to an opponent's disc,
+   * which is much cheaper than generating every move
+   *
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player
+   * @param alpha the score we already know we can get
+   * @param beta the score the opponent already knows they can hold us to
+   * @param empty the number of empty squares
+   * @param isPassed whether the other player just had to pass
+   * @return the final tile difference for the player who is moving
+   */
+  private int solveShallow(long own, long opponent, int alpha, int beta, int empty, boolean isPassed) {
+    if (countNode()) {
+      return 0;
+    }
+
+    long emptyBits = ~(own | opponent);
+    long odd = getOddRegions(emptyBits);
+    int best = -INFINITY;
+
+    for (int pass = 0; pass < 2; pass++) {
+      long bits = emptyBits & (pass == 0 ? odd : ~odd);
+
+      while (bits != 0) {
+        int square = Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+
+        if ((NEIGHBOURS[square] & opponent) == 0) {
+          continue;
+        }
+
+        long flips = Bitboard.getFlips(square, own, opponent);
+
+        if (flips == 0) {
+          continue;
+        }
+
+        long nextOwn = opponent & ~flips;
+        long nextOpponent = own | flips | (1L << square);
+        int score = empty == 2
+          ? -solveLast(nextOwn, nextOpponent, Long.numberOfTrailingZeros(emptyBits & ~(1L << square)))
+          : -solveShallow(nextOwn, nextOpponent, -beta, -Math.max(alpha, best), empty - 1, false);
+
+        if (score > best) {
+          best = score;
+
+          if (best >= beta) {
+            return best;
+          }
+        }
+      }
+    }
+
+    if (best == -INFINITY) {
+      if (isPassed) {
+        // Neither player can move, so the game is over
+        return Long.bitCount(own) - Long.bitCount(opponent);
+      }
+
+      return -solveShallow(opponent, own, -beta, -alpha, empty, true);
+    }
+
+    return best;
+  }
+
+  /**
+   * Solves a position with one empty square left
+   *
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player
+   * @param square the empty square
+   * @return the final tile difference for the player who is moving
+   */
+  private int solveLast(long own, long opponent, int square) {
+    nodes++;
+    int difference = Long.bitCount(own) - Long.bitCount(opponent);
+    int flips = Long.bitCount(Bitboard.getFlips(square, own, opponent));
+
+    if (flips != 0) {
+      return difference + 2 * flips + 1;
+    }
+
+    flips = Long.bitCount(Bitboard.getFlips(square, opponent, own));
+
+    if (flips != 0) {
+      return difference - 2 * flips - 1;
+    }
+
+    return difference;
+  }
+
+  /**
+   * Counts the empty squares next to a player's discs
+   *
+   * @param discs the player's discs
+   * @param emptyBits the empty squares
+   * @return the number of empty squares next to the discs
+   */
+  private static int getPotentialMobility(long discs, long emptyBits) {
+    int count = 0;
+
+    for (long bits = emptyBits; bits != 0; bits &= bits - 1) {
+      if ((NEIGHBOURS[Long.numberOfTrailingZeros(bits)] & discs) != 0) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the squares in every region with an odd number of empties
+   *
+   * @param emptyBits the empty squares
+   * @return the squares in the odd regions
+   */
+  private static long getOddRegions(long emptyBits) {
+    long odd = 0;
+
+    for (int region = 0; region < 4; region++) {
+      if ((Long.bitCount(emptyBits & QUADRANTS[region]) & 1) != 0) {
+        odd |= QUADRANTS[region];
+      }
+    }
+
+    return odd;
+  }
+
+  /**
+   * Hashes a position on an 8x8 board
+   *
+   * The solver never goes through Othello, so it can't use the Zobrist hash
+   *
+   * @param own the discs of the player who is moving
+   * @param opponent the discs of the other player
+   * @return the hash
+   */
+  private static long getHash(long own, long opponent) {
+    long hash = own * 0x9E3779B97F4A7C15L + Long.rotateLeft(opponent, 29) * 0xC2B2AE3D27D4EB4FL;
+    hash ^= hash >>> 31;
+    hash *= 0xBF58476D1CE4E5B9L;
+    return hash ^ (hash >>> 29);
+  }
+
+  /**
+   * Solves the root
+   *
+   * The best move is only changed if it's better than alpha,
+   * since otherwise all we know is that every move is at most alpha
+   *
+   * @param alpha the score we already know we can get
+   * @param beta the score the opponent already knows they can hold us to
+   * @param empty the number of empty squares
+   * @param result where the best move is written
+   * @return the final tile difference for the player who is moving
+   */
+  private int solveRoot(int alpha, int beta, int empty, SearchResult result) {
+    int player = othello.getTurn();
+    boolean isBitboard = othello.getWidth() == Bitboard.SIZE && othello.getHeight() == Bitboard.SIZE;
+    long own = 0;
+    long opponent = 0;
+    int[] list = moves[empty];
+    int count;
+
+    if (isBitboard) {
+      for (int square = 0; square < othello.getSize(); square++) {
+        int value = othello.getValue(square);
+
+        if (value == player + 1) {
+          own |= 1L << square;
+        } else if (value != 0) {
+          opponent |= 1L << square;
+        }
+      }
+
+      count = orderMoves(own, opponent, empty);
+    } else {
+      count = orderMoves(player, empty);
+    }
+
+    int best = -INFINITY;
+    int bestMove = list[0];
+
+    for (int i = 0; i < count; i++) {
+      pickNext(list, orders[empty], i, count);
+      int move = list[i];
+      int score;
+
+      if (isBitboard) {
+        long flips = Bitboard.getFlips(move, own, opponent);
+        score = -solve(opponent & ~flips, own | flips | (1L << move), -beta, -Math.max(alpha, best), empty - 1);
+      } else {
+        score = play(move, player, Math.max(alpha, best), beta, empty);
+      }
+
+      if (isStopped) {
+        break;
+      }
+
+      if (score > best) {
+        best = score;
+        bestMove = move;
+      }
+
+      if (best >= beta) {
+        break;
+      }
+    }
+
+    if (best > alpha || result.bestMove == -1) {
+      result.bestMove = bestMove;
+    }
+
+    return best;
+  }
+
+  /**
+   * Solves a position on any other board, going through Othello
+   *
+   * @param alpha the score we already know we can get
+   * @param beta the score the opponent already knows they can hold us to
+   * @param empty the number of empty squares
+   * @return the final tile difference for the player who is moving
+   */
+  private int solve(int alpha, int beta, int empty) {
+    if (countNode()) {
+      return 0;
+    }
+
+    int player = othello.getTurn();
+    long hash = othello.getHash();
+    long entry = table.probe(hash);
+    int hashMove = -1;
+
+    if (entry != 0) {
+      int score = TranspositionTable.getScore(entry);
+      int bound = TranspositionTable.getBound(entry);
+      hashMove = TranspositionTable.getMove(entry);
+
+      if (bound == TranspositionTable.EXACT
+          || (bound == TranspositionTable.LOWER && score >= beta)
+          || (bound == TranspositionTable.UPPER && score <= alpha)) {
+        return score;
+      }
+    }
+
+    int[] list = moves[empty];
+    int[] order = orders[empty];
+    int count = orderMoves(player, empty);
+
+    for (int i = 0; i < count; i++) {
+      if (list[i] == hashMove) {
+        order[i] = Integer.MAX_VALUE;
+      }
+    }
+
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = -1;
+
+    for (int i = 0; i < count; i++) {
+      pickNext(list, order, i, count);
+      int score = play(list[i], player, alpha, beta, empty);
+
+      if (isStopped) {
+        return 0;
+      }
+
+      if (score > best) {
+        best = score;
+        bestMove = list[i];
+
+        if (score > alpha) {
+          alpha = score;
+
+          if (alpha >= beta) {
+            break;
+          }
+        }
+      }
+    }
+
+    int bound = TranspositionTable.EXACT;
+
+    if (best <= originalAlpha) {
+      bound = TranspositionTable.UPPER;
+    } else if (best >= beta) {
+      bound = TranspositionTable.LOWER;
+    }
+
+    table.store(hash, bestMove, best, empty, bound);
+    return best;
+  }
+
+  /**
+   * Plays a move through Othello and solves what's left
+   *
+   * @param move the move
+   * @param player the player who is moving
+   * @param alpha the score we already know we can get
+   * @param beta the score the opponent already knows they can hold us to
+   * @param empty the number of empty squares before the move
+   * @return the final tile difference for the player who is moving
+   */
+  private int play(int move, int player, int alpha, int beta, int empty) {
+    int next = othello.makeMove(move);
+    int score;
+
+    if (next == -1) {
+      Statistics statistics = othello.getStatistics();
+      score = statistics.getCount(player) - statistics.getCount(1 - player);
+    } else if (next == player) {
+      score = solve(alpha, beta, empty - 1);
+    } else {
+      score = -solve(-beta, -alpha, empty - 1);
+    }
+
+    othello.undo();
+    return score;
+  }
+
+  /**
+   * Lists and scores the moves of a position on any other board
+   *
+   * @param player the player who is moving
+   * @param empty the number of empty squares (which picks the buffers to use)
+   * @return the number of moves
+   */
+  private int orderMoves(int player, int empty) {
+    int[] list = moves[empty];
+    int[] order = orders[empty];
+    int count = othello.getMoves(player + 1, list);
+    Statistics statistics = othello.getStatistics();
+    int parity = statistics.getParity();
+
+    for (int i = 0; i < count; i++) {
+      int move = list[i];
+      order[i] = (parity >> statistics.getRegion(move)) & 1;
+
+      if (empty >= FASTEST_FIRST) {
+        othello.makeMove(move);
+        order[i] -= othello.getMoveCount(2 - player) * 4;
+        othello.undo();
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Moves the best remaining move to the front of what's left
+   *
+   * @param list the moves
+   * @param order the ordering score of each move
+   * @param from the first move that hasn't been searched
+   * @param count the number of moves
+   */
+  private static void pickNext(int[] list, int[] order, int from, int count) {
+    int best = from;
+
+    for (int i = from + 1; i < count; i++) {
+      if (order[i] > order[best]) {
+        best = i;
+      }
+    }
+
+    int move = list[from];
+    list[from] = list[best];
+    list[best] = move;
+    int score = order[from];
+    order[from] = order[best];
+    order[best] = score;
+  }
+
+  /**
+   * Finds the final tile difference the slow way, trying every move with nothing cut off
+   *
+   * @param othello the position (left as it was)
+   * @param player the player the difference is for
+   * @return the final tile difference for that player
+   */
+  private static int minimax(Othello othello, int player) {
+    int turn = othello.getTurn();
+
+    if (turn == -1) {
+      Statistics statistics = othello.getStatistics();
+      return statistics.getCount(player) - statistics.getCount(1 - player);
+    }
+
+    int[] moves = new int[othello.getSize()];
+    int count = othello.getMoves(turn + 1, moves);
+    int best = turn == player ? -INFINITY : INFINITY;
+
+    for (int i = 0; i < count; i++) {
+      othello.makeMove(moves[i]);
+      int score = minimax(othello, player);
+      othello.undo();
+      best = turn == player ? Math.max(best, score) : Math.min(best, score);
+    }
+
+    return best;
+  }
+
+  /**
+   * Checks the solver against minimax with nothing cut off, on random positions
+   *
+   * Both the score and the move are checked (the move has to be one that
+   * actually gets that score), on the 8x8 board and on boards that go
+   * through Othello instead, with the exact score and with only the winner
+   *
+   * @param positions the number of positions for each board size
+   * @param empties the number of empty squares in each position
+   * @param seed the seed for the positions
+   * @return {the number of solves checked, the number that didn't match}
+   */
+  public static long[] verify(int positions, int empties, long seed) {
+    Random random = new Random(seed);
+    int[][] sizes = {{8, 8}, {10, 8}, {9, 9}};
+    long checked = 0;
+    long different = 0;
+
+    for (int[] size : sizes) {
+      for (int n = 0; n < positions; n++) {
+        Othello othello = createPosition(size[0], size[1], empties, random);
+        int player = othello.getTurn();
+        int expected = minimax(othello, player);
+        long hash = othello.getHash();
+
+        for (int wld = 0; wld <= 1; wld++) {
+          Endgame endgame = new Endgame(othello);
+          endgame.setWinLossDraw(wld == 1);
+          SearchResult result = endgame.solve();
+          checked++;
+
+          if (result.score != (wld == 1 ? Integer.signum(expected) : expected) || othello.getHash() != hash) {
+            different++;
+            continue;
+          }
+
+          // The move has to get the score, not just the position
+          othello.makeMove(result.bestMove);
+          int moveScore = minimax(othello, player);
+          othello.undo();
+
+          if (wld == 1 ? Integer.signum(moveScore) != result.score : moveScore != expected) {
+            different++;
+          }
+        }
+      }
+    }
+
+    return new long[] {checked, different};
+  }
+
+  /**
+   * Solves random positions and prints how long each one took
+   *
+   * @param args --empties, --count, --wld 1, --width, --height and --verify
+   *   (the number of positions on each board size to check against minimax
+   *   with --empties empty squares, 9 if not given, instead of timing anything)
+   */
+  public static void main(String[] args) {
+    int empties = 20;
+    int positions = 5;
+    boolean isWinLossDraw = false;
+    int width = 8;
+    int height = 8;
+    int verifyPositions = 0;
+    boolean isEmptiesGiven = false;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--empties".equals(args[i])) {
+        empties = value;
+        isEmptiesGiven = true;
+      } else if ("--count".equals(args[i])) {
+        positions = value;
+      } else if ("--wld".equals(args[i])) {
+        isWinLossDraw = value != 0;
+      } else if ("--width".equals(args[i])) {
+        width = value;
+      } else if ("--height".equals(args[i])) {
+        height = value;
+      } else if ("--verify".equals(args[i])) {
+        verifyPositions = value;
+      }
+    }
+
+    if (verifyPositions > 0) {
+      long[] result = verify(verifyPositions, isEmptiesGiven ? empties : 9, 1);
+      System.out.println(String.format("%d solves checked against minimax, %d different %s",
+        result[0], result[1], result[1] == 0 ? "ok" : "FAILED"));
+
+      if (result[1] != 0) {
+        System.exit(1);
+      }
+
+      return;
+    }
+
+    Random random = new Random(42);
+    TranspositionTable table = new TranspositionTable(64);
+    long totalNodes = 0;
+    long totalTime = 0;
+
+    for (int n = 0; n < positions; n++) {
+      Othello othello = createPosition(width, height, empties, random);
+      Endgame endgame = new Endgame(othello, table);
+      endgame.setWinLossDraw(isWinLossDraw);
+      SearchResult result = endgame.solve();
+      totalNodes += result.nodes;
+      totalTime += result.time;
+      System.out.println(String.format("empties %2d move %3d score %+3d %,14d nodes %8.3f s %,14d nodes/s",
+        result.depth, result.bestMove, result.score, result.nodes,
+        result.time / 1000.0, result.getNodesPerSecond()));
+    }
+
+    System.out.println(String.format("total %,14d nodes %8.3f s %,14d nodes/s",
+      totalNodes, totalTime / 1000.0, totalTime == 0 ? totalNodes * 1000 : totalNodes * 1000 / totalTime));
+  }
+
+  /**
+   * Plays random moves until there are only so many empty squares left
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param empties the number of empty squares to leave
+   * @param random where the moves come from
+   * @return a game that isn't over, with that many empty squares
+   */
+  private static Othello createPosition(int width, int height, int empties, Random random) {
+    int[] moves = new int[width * height];
+
+    while (true) {
+      Othello othello = new Othello(width, height);
+      othello.setInitialBoard();
+
+      while (othello.getTurn() != -1 && othello.getStatistics().getEmptyCount() > empties) {
+        int count = othello.getMoves(othello.getTurn() + 1, moves);
+        othello.makeMove(moves[random.nextInt(count)]);
+      }
+
+      if (othello.getTurn() != -1) {
+        return othello;
+      }
+    }
+  }
+}
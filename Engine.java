@@ -0,0 +1,104 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Something that picks moves for one game
+ *
+ * Whoever creates an engine closes it once the game is over, since
+ * some engines hold on to threads that would otherwise never stop.
+ *
+ * @version 2026-10-18
+ */
+public interface Engine extends AutoCloseable {
+  /**
+   * The number of positions a search may look at, unless the spec says otherwise
+   */
+  long DEFAULT_NODES = 10000;
+
+  /**
+   * Picks a move for whoever is moving in the game
+   *
+   * @return the square of the move
+   */
+  int getMove();
+
+  /**
+   * Lets go of anything the engine holds on to, like threads
+   *
+   * Most engines hold nothing but memory, so this does nothing unless overridden
+   */
+  @Override
+  default void close() {
+  }
+
+  /**
+   * Creates an engine from a spec like "search" or "maxn:50000"
+   *
+   * The part before the colon is one of random, search, parallel, pattern, maxn,
+   * paranoid or mcts, and the part after it is how many positions each search may
+   * look at (or, for mcts, how many games it may play out). A pattern search can
+   * have a weight file after a second colon, which is weights.bin by default, and
+   * a parallel search can have its number of threads there (every core by default).
+   * Only a parallel search's main thread counts towards its positions, and its
+   * helpers change what it finds, so it doesn't play the same game twice.
+   *
+   * @param spec the spec
+   * @param othello the game to play (searches change it while searching)
+   * @param seed the seed for anything random
+   * @return the engine
+   */
+  static Engine create(String spec, Othello othello, long seed) {
+    String[] parts = spec.split(":");
+    long nodes = parts.length > 1 ? Long.parseLong(parts[1]) : DEFAULT_NODES;
+    // Searches are limited by nodes rather than time, so that
+    // a game plays out the same no matter how busy the machine is
+    long time = 3600000;
+
+    if ("random".equals(parts[0])) {
+      Random random = new Random(seed);
+      int[] moves = new int[othello.getSize()];
+      return () -> moves[random.nextInt(othello.getMoves(othello.getTurn() + 1, moves))];
+    } else if ("search".equals(parts[0])) {
+      Search search = new Search(othello, new SimpleEvaluator(), new TranspositionTable(4));
+      return () -> search.search(time, nodes, Search.MAX_PLY).bestMove;
+    } else if ("parallel".equals(parts[0])) {
+      int threads = parts.length > 2 ? Integer.parseInt(parts[2]) : Runtime.getRuntime().availableProcessors();
+      ParallelSearch search = new ParallelSearch(new SimpleEvaluator(), new TranspositionTable(16), threads);
+      return new Engine() {
+        @Override
+        public int getMove() {
+          return search.search(othello, time, nodes, Search.MAX_PLY).bestMove;
+        }
+
+        @Override
+        public void close() {
+          search.shutdown();
+        }
+      };
+    } else if ("pattern".equals(parts[0])) {
+      PatternEvaluator evaluator;
+
+      try {
+        evaluator = new PatternEvaluator(Paths.get(parts.length > 2 ? parts[2] : "weights.bin"));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+
+      Search search = new Search(othello, evaluator, new TranspositionTable(4));
+      return () -> search.search(time, nodes, Search.MAX_PLY).bestMove;
+    } else if ("maxn".equals(parts[0]) || "paranoid".equals(parts[0])) {
+      int mode = "maxn".equals(parts[0]) ? MultiSearch.MAX_N : MultiSearch.PARANOID;
+      MultiSearch search = new MultiSearch(othello, new SimpleEvaluator(), mode);
+      return () -> search.search(time, nodes, Search.MAX_PLY).bestMove;
+    } else if ("mcts".equals(parts[0])) {
+      // The tournament already keeps every core busy with its own games,
+      // and the tree is kept from one move to the next
+      MonteCarlo search = new MonteCarlo(othello, 1 << 18, 1);
+      search.setSeed(seed);
+      return () -> search.search(time, nodes).bestMove;
+    }
+
+    throw new IllegalArgumentException("Unknown engine " + spec);
+  }
+}
@@ -1,9 +0,0 @@
-public class Entry {
-  public int turn;
-  public int[][] board;
-
-  public Entry(int turn, int[][] board) {
-    this.turn = turn;
-    this.board = board;
-  }
-}
@@ -0,0 +1,21 @@
+/**
+ * Something that can guess how good a position is without searching
+ *
+ * @version 2026-10-18
+ */
+public interface Evaluator {
+  /**
+   * The largest score that an evaluation may return,
+   * so that it can never be mistaken for a finished game
+   */
+  int MAX_SCORE = 500000;
+
+  /**
+   * Guesses how good a position is for a player
+   *
+   * @param othello the position
+   * @param player the player (starting from 0)
+   * @return a score from -MAX_SCORE to MAX_SCORE, where higher is better
+   */
+  int evaluate(Othello othello, int player);
+}
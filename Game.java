@@ -4,6 +4,7 @@ import java.awt.*;
 import java.awt.font.*;
 import java.awt.event.*;
 import java.util.*;
+import java.io.*;
 import javax.sound.sampled.*;
 
 /**
@@ -52,18 +53,17 @@ public class Game extends JPanel implements ActionListener {
   private static JLabel status;
   private static ImageIcon[] indicatorIcons;
   private static ImageIcon[] tileIcons;
-  private static JPanel board = new JPanel();
-  // Okay, to be honest, this array makes it really hard to change
-  // the height and width later. Oh well. Goodbye options.
-  private static JLabel[][] tiles = new JLabel[width][height];
+  // The whole board is one component that paints itself,
+  // so it never has to be rebuilt, whatever the size of the board
+  private static BoardView board;
+  // Works out which squares to highlight off the event dispatch thread
+  private static MoveHighlighter highlighter;
   private static JComponent[] boardSidebarComponents;
-  // This is a lot more efficient than instantiating
-  // a new MouseListener for every single JPanel
+  // There's only one listener for the whole board, and it works out
+  // which square was clicked from where the click was
   // "But why didn't you just use JButtons instead"?
   // From experience, a ton of JButtons will take quite
-  // some time to load in, so this makes loading faster
-  // Semantically speaking, it's fine not to use JButtons
-  // since the game tiles arne't buttons in the traditional sense
+  // some time to load in, and a 100x100 board would need ten thousand
   public static MouseListener mouseListener = new MouseListener() {
     public void mousePressed(MouseEvent e) {
       // If the game is over, nothing should happen when you click
@@ -71,24 +71,18 @@ public class Game extends JPanel implements ActionListener {
         return;
       }
 
-      // This is actually a bit like event delegation in JavaScript
-      // In this case, we actually still need to assign a listener
-      // to every element, but it's similar since we msut identify
-      // the element that is actually triggering the listener, and
-      // there is only one listener
-      JComponent pressed = (JComponent) e.getComponent();
-      String name = pressed.getName();
-      int id = Integer.parseInt(name);
-      /*
-      int x = id / height;
-      int y = id % height;
-      System.out.println("(" + x + ", " + y + ")");
-      */
+      // This is actually a bit like event delegation in JavaScript,
+      // since we must identify the square from the event itself
+      int id = board.getSquare(e.getX(), e.getY());
 
-      int[] pos = {id / height, id % height};
-      ArrayList<int[]> validMoves = othello.getValidMoves(othello.getTurn() + 1);
+      // Clicks on the margin around the board don't count
+      if (id == -1) {
+        return;
+      }
 
-      // If it's an invalid move, the position must not be in the validMoves list
+      // A loaded game can be any size, so ask othello rather than using height
+      int[] pos = {id / othello.getHeight(), id % othello.getHeight()};
+      // Checking one square is cheap, so this doesn't wait for the highlights
       if (!othello.isValidMove(pos, othello.getTurn() + 1)) {
         playSoundEffect("audio/invalid-move.wav");
         status.setText("That is not a valid move.");
@@ -101,12 +95,12 @@ public class Game extends JPanel implements ActionListener {
       status.setText(" ");
       ArrayList<int[]> updates = state.updates;
 
+      // Only the squares that changed get repainted
       for (int i = 0; i < updates.size(); i++) {
-        int[] update = updates.get(i);
-        setTile(update, state.currentTurn);
+        board.repaintSquare(updates.get(i));
       }
 
-      //setHighlightedTiles();
+      setHighlightedTiles();
 
       if (isDone) {
         status.setText("The game is finished.");
@@ -315,6 +309,28 @@ public class Game extends JPanel implements ActionListener {
     return button;
   }
 
+  /**
+   * Creates a transparent button with some text
+   *
+   * @param text the text
+   * @param actionCommand the action command
+   * @param actionListener an actionListener
+   * @return a button
+   */
+  private static JButton createTextButton(String text, String actionCommand, ActionListener actionListener) {
+    JButton button = new JButton(text);
+    button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+    button.setFont(BODY_FONT);
+    button.setForeground(FORE);
+    button.setActionCommand(actionCommand);
+    button.addActionListener(actionListener);
+    button.setOpaque(false);
+    button.setBorderPainted(false);
+    button.setContentAreaFilled(false);
+    button.setFocusPainted(false);
+    return button;
+  }
+
   /**
    * Creates a transparent button with an icon given the sidebar icon name
    *
@@ -344,13 +360,15 @@ public class Game extends JPanel implements ActionListener {
     JPanel sidebar = new JPanel(new BorderLayout());
     sidebar.setBackground(FORWARD_BACK);
     sidebar.setPreferredSize(new Dimension(108, 768));
-    JPanel top = new JPanel(new GridLayout(2, 0));
+    JPanel top = new JPanel(new GridLayout(3, 0));
     JButton home = createSidebarButton("home", "home", this);
     top.add(home);
     JButton undo = createSidebarButton("undo", "undo", this);
     top.add(undo);
+    JButton save = createTextButton("Save", "save", this);
+    top.add(save);
     top.setOpaque(false);
-    top.setPreferredSize(new Dimension(108, 216));
+    top.setPreferredSize(new Dimension(108, 324));
     sidebar.add(top, BorderLayout.NORTH);
     JPanel center = new JPanel(new GridBagLayout());
     indicator = new JLabel();
@@ -364,6 +382,7 @@ public class Game extends JPanel implements ActionListener {
     boardSidebarComponents = new JComponent[] {
       home,
       undo,
+      save,
       indicator
     };
     setSidebarMode(false);
@@ -399,7 +418,11 @@ public class Game extends JPanel implements ActionListener {
     play.setBorder(new EmptyBorder(30, 0, 0, 0));
     play.setOpaque(false);
     play.setAlignmentX(Component.CENTER_ALIGNMENT);
-    container.add(play, BorderLayout.SOUTH);
+    JPanel buttons = new JPanel(new BorderLayout());
+    buttons.add(play, BorderLayout.CENTER);
+    buttons.add(createTextButton("Load a saved game", "load", this), BorderLayout.SOUTH);
+    buttons.setOpaque(false);
+    container.add(buttons, BorderLayout.SOUTH);
     container.setOpaque(false);
     menu.add(container);
     menu.setOpaque(false);
@@ -454,6 +477,15 @@ public class Game extends JPanel implements ActionListener {
     // Here, we might do some calculations to figure out
     // how big to make the board
     // This will do for now
+    Image[] tileImages = new Image[MAX_PLAYER_COUNT];
+
+    for (int i = 0; i < MAX_PLAYER_COUNT; i++) {
+      tileImages[i] = tileIcons[i] == null ? null : tileIcons[i].getImage();
+    }
+
+    board = new BoardView(tileImages, BOARD_BACK, BOARD_HIGHLIGHT_BACK, BOARD_OUTLINE);
+    board.addMouseListener(mouseListener);
+    highlighter = new MoveHighlighter(board);
     board.setPreferredSize(new Dimension(512, 512));
     board.setOpaque(false);
     container.add(board, BorderLayout.CENTER);
@@ -478,96 +510,23 @@ public class Game extends JPanel implements ActionListener {
 
   /**
    * Highlights the board tiles depending on whether they are valid moves
+   *
+   * The moves are worked out in the background (or remembered from
+   * the last time this position came up), so this returns straight away
    */
   private static void setHighlightedTiles() {
-    ArrayList<int[]> validMoves = othello.getValidMoves(othello.getTurn() + 1);
-
-    for (int x = 0; x < width; x++) {
-      for (int y = 0; y < height; y++) {
-        int[] pos = {x, y};
-        JLabel tile = tiles[x][y];
-
-        if (othello.isValidMove(pos, othello.getTurn() + 1)) {
-          tile.setBackground(BOARD_HIGHLIGHT_BACK);
-        } else {
-          tile.setBackground(BOARD_BACK);
-        }
-      }
-    }
+    highlighter.update(othello);
   }
 
   /**
    * Updates the board using the new settings
    */
   private static void resetBoard() {
-    // We wipe it in case the dimensions of the board change
-    board.removeAll();
-    board.setLayout(new GridLayout(height, width));
-
-    // We must iterate in this order because visually,
-    // the components are added to a GridLayout left-to-right, top-to-bottom
-    for (int y = 0; y < height; y++) {
-      for (int x = 0; x < width; x++) {
-        JLabel tile = new JLabel();
-        tile.setOpaque(true);
-        tile.setBorder(BorderFactory.createLineBorder(BOARD_OUTLINE));
-        tile.setBackground(BOARD_BACK);
-        // This stores the coordinates as a number in base height
-        // It's honestly a bit cheaty to use a name to store
-        // coordinates of this tile, but it's pretty efficient
-        tile.setName(String.valueOf(x * height + y));
-        tile.addMouseListener(mouseListener);
-        tile.setHorizontalAlignment(JLabel.CENTER);
-        board.add(tile);
-        tiles[x][y] = tile;
-      }
-    }
-
-    // We should basically define an initial board depending
-    // on the number of players manually
-    // I don't know of a mathematical way to generate symmetrical
-    // positions for all possible board sizes and player counts
-    int[][] initialBoard;
-
-    // We should have different initial boards for each playerCount
-    if (playerCount == 2) {
-      initialBoard = new int[][] {
-        {3, 4, 0},
-        {4, 3, 0},
-        {3, 3, 1},
-        {4, 4, 1}
-      };
-    } else if (playerCount == 3) {
-      initialBoard = new int[][] {
-        {5, 1, 0}, {6, 2, 0}, {5, 2, 1}, {6, 1, 1},
-        {1, 3, 1}, {2, 4, 1}, {2, 3, 2}, {1, 4, 2},
-        {4, 5, 2}, {5, 6, 2}, {5, 5, 0}, {4, 6, 0}
-      };
-    } else {
-      initialBoard = new int[][] {
-        {2, 1, 0}, {3, 2, 0}, {3, 1, 1}, {2, 2, 1},
-        {1, 4, 1}, {2, 5, 1}, {2, 4, 2}, {1, 5, 2},
-        {4, 5, 2}, {5, 6, 2}, {5, 5, 3}, {4, 6, 3},
-        {5, 2, 3}, {6, 3, 3}, {6, 2, 0}, {5, 3, 0}
-      };
-    }
-
-    for (int i = 0; i < initialBoard.length; i++) {
-      int[] triplet = initialBoard[i];
-      int[] pos = {triplet[0], triplet[1]};
-      int val = triplet[2];
-      // Since a blank space is 0 in storage (for our purposes)
-      othello.setBoardValue(pos, val + 1);
-      setTile(pos, val);
-    }
-
-    //setHighlightedTiles();
-    // So apparently you should repaint and revalidate a container
-    // whenever components are added or removed
-    // Just as a note to myself
-    // https://docs.oracle.com/javase/tutorial/uiswing/components/jcomponent.html#custompaintingapi
-    board.revalidate();
-    board.repaint();
+    // The board draws whatever othello has, so a game that was
+    // loaded part of the way through shows up just the same
+    board.setGame(othello);
+    highlighter.reset();
+    setHighlightedTiles();
   }
 
   private static void updateCountsContainer() {
@@ -589,10 +548,11 @@ public class Game extends JPanel implements ActionListener {
   }
 
   private static void updateCountPanels() {
-    int[] counts = othello.getCounts();
+    // These are kept up to date by othello itself, so reading them is cheap
+    Statistics statistics = othello.getStatistics();
 
     for (int i = 0; i < playerCount; i++) {
-      countLabels[i].setText(String.valueOf(counts[i]));
+      countLabels[i].setText(String.valueOf(statistics.getCount(i)));
     }
   }
 
@@ -633,12 +593,18 @@ public class Game extends JPanel implements ActionListener {
       Object[] options = { "Continue", "Cancel" };
       JOptionPane.showOptionDialog(null, "Your progress will not be saved.", "Warning", JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[0]);
       */
-      int choice = JOptionPane.showConfirmDialog(frame, "Are you sure you wish to exit to the main menu? Your game will not be saved.", "Warning", JOptionPane.YES_NO_OPTION);
+      Object[] options = {"Save and exit", "Exit", "Cancel"};
+      int choice = JOptionPane.showOptionDialog(frame, "Do you want to save your game before exiting to the main menu?", "Warning", JOptionPane.DEFAULT_OPTION, JOptionPane.WARNING_MESSAGE, null, options, options[0]);
 
-      if (choice == 0) {
+      // If they cancel the save dialog, they stay in the game
+      if (choice == 0 && saveGame() || choice == 1) {
         setSidebarMode(false);
         mainLayout.show(main, "menu");
       }
+    } else if ("save".equals(actionCommand)) {
+      saveGame();
+    } else if ("load".equals(actionCommand)) {
+      loadGame();
     } else if ("undo".equals(actionCommand)) {
       // If there are no moves to undo ... don't do anything
       if (othello.getLogSize() == 0) {
@@ -648,21 +614,19 @@ public class Game extends JPanel implements ActionListener {
       // Technically, we don't need to reenable the game,
       // but I want to since it's nice (especially for debugging)
       isDone = false;
+      // Only the squares the move changed need to be repainted
+      int[] changed = othello.getChangedSquares(othello.getLogSize() - 1);
       othello.undo();
       updateCountPanels();
       indicator.setIcon(indicatorIcons[othello.getTurn()]);
       playSoundEffect("audio/undo.wav");
       status.setText("The last move was undone.");
 
-      for (int x = 0; x < width; x++) {
-        for (int y = 0; y < height; y++) {
-          int[] pos = new int[] {x, y};
-          int value = othello.getBoardValue(pos);
-          setTile(pos, value - 1);
-        }
+      for (int square : changed) {
+        board.repaintSquare(new int[] {square / othello.getHeight(), square % othello.getHeight()});
       }
 
-      //setHighlightedTiles();
+      setHighlightedTiles();
     } else if ("play".equals(actionCommand)) {
       int value = getPlayerCountFieldValue();
 
@@ -671,44 +635,87 @@ public class Game extends JPanel implements ActionListener {
         return;
       }
 
-      playerCount = value;
-      isDone = false;
-      setSidebarMode(true);
-      mainLayout.show(main, "boardContainer");
-      othello = new Othello(width, height, playerCount);
-      // Technically speaking, it's pretty inefficient to rebuild the board
-      // every time, but I'll leave efficiency for a later date
-      resetBoard();
-
-      // Update counts (and perhaps reset)
-      updateCountsContainer();
-      updateCountPanels();
-      // Reset turn indicator
-      indicator.setIcon(indicatorIcons[0]);
+      othello = new Othello(width, height, value);
+      othello.setInitialBoard();
+      startGame();
       playSoundEffect("audio/play.wav");
-      // Reset status text
-      status.setText(" ");
     }
   }
 
   /**
-   * Sets the icon of a board tile
+   * Shows the board for whatever game othello holds
+   */
+  private static void startGame() {
+    playerCount = othello.getPlayerCount();
+    isDone = othello.getTurn() == -1;
+    setSidebarMode(true);
+    mainLayout.show(main, "boardContainer");
+    resetBoard();
+
+    // Update counts (and perhaps reset)
+    updateCountsContainer();
+    updateCountPanels();
+    // Reset turn indicator (a finished game keeps whatever it had)
+    if (!isDone) {
+      indicator.setIcon(indicatorIcons[othello.getTurn()]);
+    }
+
+    // Reset status text
+    status.setText(isDone ? "The game is finished." : " ");
+  }
+
+  /**
+   * Asks where to save the game and saves it there
    *
-   * @param pos the position
-   * @param id the name of the image
+   * @return whether the game was saved
    */
-  private static void setTile(int[] pos, int id) {
-    int x = pos[0];
-    int y = pos[1];
-    JLabel tile = tiles[x][y];
-
-    // ID of -1 represents empty space
-    if (id == -1) {
-      tile.setIcon(null);
+  private static boolean saveGame() {
+    JFileChooser chooser = new JFileChooser();
+    chooser.setSelectedFile(new File("game.ogr"));
+
+    if (chooser.showSaveDialog(frame) != JFileChooser.APPROVE_OPTION) {
+      return false;
+    }
+
+    try (GameRecordWriter out = new GameRecordWriter(chooser.getSelectedFile().toPath())) {
+      out.write(othello);
+      status.setText("The game was saved.");
+      return true;
+    } catch (IOException e) {
+      JOptionPane.showMessageDialog(frame, "The game could not be saved: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+      return false;
+    }
+  }
+
+  /**
+   * Asks which game to load and starts playing it where it left off
+   */
+  private static void loadGame() {
+    JFileChooser chooser = new JFileChooser();
+
+    if (chooser.showOpenDialog(frame) != JFileChooser.APPROVE_OPTION) {
       return;
     }
 
-    tile.setIcon(tileIcons[id]);
+    try (GameRecordReader in = new GameRecordReader(chooser.getSelectedFile().toPath())) {
+      GameRecord record = in.read();
+
+      if (record == null) {
+        throw new IOException("There is no game in the file");
+      }
+
+      // There are only so many tile pictures (and nobody plays alone)
+      if (record.playerCount < 2 || record.playerCount > MAX_PLAYER_COUNT) {
+        throw new IOException("Only games of 2 to " + MAX_PLAYER_COUNT + " players can be played here");
+      }
+
+      // Replaying keeps every move in the log, so they can all be undone
+      othello = record.replay();
+      startGame();
+      playSoundEffect("audio/play.wav");
+    } catch (IOException | IllegalArgumentException e) {
+      JOptionPane.showMessageDialog(frame, "The game could not be loaded: " + e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+    }
   }
 
   private static int getPlayerCountFieldValue() {
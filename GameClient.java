@@ -0,0 +1,351 @@
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Plays games on a GameServer (see it for the protocol)
+ *
+ * Each call sends one frame and waits for the answer, so a client
+ * should only be used by one thread at a time. Running this on its own
+ * plays lots of random games at once over lots of connections, checks every
+ * answer against its own copy of each game, and reports how long moves took.
+ *
+ * @version 2026-10-18
+ */
+public class GameClient implements Closeable {
+  /**
+   * The connection
+   */
+  private final SocketChannel channel;
+  /**
+   * The frame being sent
+   */
+  private final ByteBuffer out = ByteBuffer.allocate(GameServer.MAX_FRAME + 2);
+  /**
+   * The frame being received
+   */
+  private final ByteBuffer in = ByteBuffer.allocate(GameServer.MAX_FRAME + 2);
+  /**
+   * How long each move took to come back
+   */
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /**
+   * Connects to a server
+   *
+   * @param host the host
+   * @param port the port
+   * @throws IOException if the server can't be reached
+   */
+  public GameClient(String host, int port) throws IOException {
+    channel = SocketChannel.open(new InetSocketAddress(host, port));
+    channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+  }
+
+  /**
+   * Starts a new game
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @return the number of the game
+   * @throws IOException if the server refuses
+   */
+  public int newGame(int width, int height, int playerCount) throws IOException {
+    begin(GameServer.NEW_GAME).put((byte) width).put((byte) height).put((byte) playerCount);
+    ByteBuffer frame = send(GameServer.GAME);
+    return frame.getInt();
+  }
+
+  /**
+   * Makes a move
+   *
+   * @param game the number of the game
+   * @param square the square (x * height + y)
+   * @param height the height of the board, to turn the updates back into positions
+   * @return what changed, just like Othello.makeMove(int[])
+   * @throws IOException if the move isn't legal or the server can't be reached
+   */
+  public State move(int game, int square, int height) throws IOException {
+    long start = System.nanoTime();
+    begin(GameServer.MOVE).putInt(game).putShort((short) square);
+    ByteBuffer frame = send(GameServer.RESULT);
+    latency.record(System.nanoTime() - start);
+    frame.getInt();
+    State state = new State();
+    state.currentTurn = frame.get();
+    state.nextTurn = frame.get();
+    state.isDone = frame.get() != 0;
+    int count = frame.getShort() & 0xFFFF;
+    state.updates = new ArrayList<int[]>(count);
+
+    for (int i = 0; i < count; i++) {
+      int update = frame.getShort() & 0xFFFF;
+      state.updates.add(new int[] {update / height, update % height});
+    }
+
+    return state;
+  }
+
+  /**
+   * Closes a game
+   *
+   * @param game the number of the game
+   * @throws IOException if the game doesn't exist or the server can't be reached
+   */
+  public void closeGame(int game) throws IOException {
+    begin(GameServer.CLOSE_GAME).putInt(game);
+    send(GameServer.CLOSED);
+  }
+
+  /**
+   * Asks the server how long it has taken to handle moves
+   *
+   * @return {moves, p50, p99}, with the times in nanoseconds
+   * @throws IOException if the server can't be reached
+   */
+  public long[] getStats() throws IOException {
+    begin(GameServer.STATS);
+    ByteBuffer frame = send(GameServer.STATS);
+    return new long[] {frame.getLong(), frame.getLong(), frame.getLong()};
+  }
+
+  /**
+   * Gets how long moves took to come back, as seen from here
+   *
+   * @return the histogram
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * Starts a frame, leaving room for its length
+   *
+   * @param type the type of message
+   * @return the buffer to write the rest of the frame into
+   */
+  private ByteBuffer begin(byte type) {
+    out.clear();
+    return out.putShort((short) 0).put(type);
+  }
+
+  /**
+   * Sends the frame and waits for the answer
+   *
+   * @param expected the type of answer that means it worked
+   * @return the answer, just after its type
+   * @throws IOException if the server sent an error or can't be reached
+   */
+  private ByteBuffer send(byte expected) throws IOException {
+    out.putShort(0, (short) (out.position() - 2));
+    out.flip();
+
+    while (out.hasRemaining()) {
+      channel.write(out);
+    }
+
+    in.clear();
+    in.limit(2);
+    readFully();
+    in.limit(2 + (in.getShort(0) & 0xFFFF));
+    readFully();
+    in.position(2);
+    byte type = in.get();
+
+    if (type == GameServer.ERROR) {
+      int game = in.getInt();
+      throw new IOException("The server sent error " + in.get() + " for game " + game);
+    } else if (type != expected) {
+      throw new IOException("Expected a message of type " + expected + " but got " + type);
+    }
+
+    return in;
+  }
+
+  /**
+   * Reads until the buffer is full
+   *
+   * @throws IOException if the connection closes first
+   */
+  private void readFully() throws IOException {
+    while (in.hasRemaining()) {
+      if (channel.read(in) == -1) {
+        throw new EOFException("The server closed the connection");
+      }
+    }
+  }
+
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Plays random games on one connection, a move in each game at a time,
+   * checking every answer against a local copy
+   *
+   * @param client the client
+   * @param games the number of games to keep open at once
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @param seed the seed for the moves
+   * @return the number of moves made
+   * @throws IOException if anything doesn't match or the server can't be reached
+   */
+  public static long play(GameClient client, int games, int width, int height, int playerCount, long seed)
+      throws IOException {
+    Random random = new Random(seed);
+    int[] ids = new int[games];
+    Othello[] copies = new Othello[games];
+    int[] moves = new int[width * height];
+    long count = 0;
+
+    for (int i = 0; i < games; i++) {
+      ids[i] = client.newGame(width, height, playerCount);
+      copies[i] = new Othello(width, height, playerCount);
+      copies[i].setInitialBoard();
+    }
+
+    for (int open = games; open > 0; ) {
+      for (int i = 0; i < games; i++) {
+        Othello copy = copies[i];
+
+        if (copy == null) {
+          continue;
+        }
+
+        int move = moves[random.nextInt(copy.getMoves(copy.getTurn() + 1, moves))];
+        State state = client.move(ids[i], move, height);
+        State expected = copy.makeMove(new int[] {move / height, move % height});
+        count++;
+
+        if (state.currentTurn != expected.currentTurn || state.nextTurn != expected.nextTurn
+            || state.isDone != expected.isDone || state.updates.size() != expected.updates.size()) {
+          throw new IOException("Game " + ids[i] + " went differently on the server");
+        }
+
+        // The updates come back in the same order, with the placed tile last
+        for (int j = 0; j < state.updates.size(); j++) {
+          int[] update = state.updates.get(j);
+          int[] expectedUpdate = expected.updates.get(j);
+
+          if (update[0] != expectedUpdate[0] || update[1] != expectedUpdate[1]) {
+            throw new IOException("Game " + ids[i] + " changed different squares on the server");
+          }
+        }
+
+        if (state.isDone) {
+          client.closeGame(ids[i]);
+          copies[i] = null;
+          open--;
+        }
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Plays lots of games on a server (or one started here) and reports how it went
+   *
+   * @param args --host, --port (0 starts a server here), --connections,
+   *   --games (open at once on each connection), --width, --height,
+   *   --players and --threads (for a server started here)
+   * @throws Exception if a game goes wrong or the server can't be reached
+   */
+  public static void main(String[] args) throws Exception {
+    String host = "localhost";
+    int port = 0;
+    int connections = 8;
+    int games = 100;
+    int width = 8;
+    int height = 8;
+    int playerCount = 2;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--host".equals(args[i])) {
+        host = args[i + 1];
+        continue;
+      }
+
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--port".equals(args[i])) {
+        port = value;
+      } else if ("--connections".equals(args[i])) {
+        connections = value;
+      } else if ("--games".equals(args[i])) {
+        games = value;
+      } else if ("--width".equals(args[i])) {
+        width = value;
+      } else if ("--height".equals(args[i])) {
+        height = value;
+      } else if ("--players".equals(args[i])) {
+        playerCount = value;
+      } else if ("--threads".equals(args[i])) {
+        threads = value;
+      }
+    }
+
+    GameServer server = null;
+
+    if (port == 0) {
+      server = new GameServer(0, threads);
+      server.start();
+      port = server.getPort();
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(connections);
+    ArrayList<Future<Long>> results = new ArrayList<Future<Long>>();
+    ArrayList<GameClient> clients = new ArrayList<GameClient>();
+    long start = System.nanoTime();
+
+    try {
+      for (int i = 0; i < connections; i++) {
+        GameClient client = new GameClient(host, port);
+        clients.add(client);
+        long seed = i;
+        int gameCount = games;
+        int w = width;
+        int h = height;
+        int p = playerCount;
+        results.add(pool.submit(() -> play(client, gameCount, w, h, p, seed)));
+      }
+
+      long moves = 0;
+
+      for (Future<Long> result : results) {
+        moves += result.get();
+      }
+
+      double seconds = (System.nanoTime() - start) / 1e9;
+      LatencyHistogram latency = new LatencyHistogram();
+
+      for (GameClient client : clients) {
+        latency.add(client.getLatency());
+      }
+
+      long[] stats = clients.get(0).getStats();
+      System.out.println(String.format("%d games, %d moves in %.1f s (%.0f moves/s) over %d connections",
+        connections * games, moves, seconds, moves / seconds, connections));
+      System.out.println("Round trip: " + latency);
+      System.out.println(String.format("On the server: p50 %.1f us, p99 %.1f us (%d moves)",
+        stats[1] / 1e3, stats[2] / 1e3, stats[0]));
+    } finally {
+      pool.shutdownNow();
+
+      for (GameClient client : clients) {
+        client.close();
+      }
+
+      if (server != null) {
+        server.close();
+      }
+    }
+  }
+}
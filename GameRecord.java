@@ -0,0 +1,95 @@
+/**
+ * A whole game, stored as where it started and the squares of its moves
+ *
+ * Every capture and skipped turn follows from the moves, so they're
+ * left out, and replaying the moves gets the whole game back.
+ * GameRecordWriter and GameRecordReader store records in files.
+ *
+ * @version 2026-10-18
+ */
+public class GameRecord {
+  /**
+   * The width of the board
+   */
+  public int width;
+  /**
+   * The height of the board
+   */
+  public int height;
+  /**
+   * The number of players
+   */
+  public int playerCount;
+  /**
+   * The value of every square at the start
+   */
+  public int[] start;
+  /**
+   * The turn at the start
+   */
+  public int startTurn;
+  /**
+   * The square of every move, in order
+   */
+  public int[] moves;
+
+  public GameRecord() {}
+
+  /**
+   * Records every move in a game's log
+   *
+   * @param othello the game
+   * @return the record
+   */
+  public static GameRecord of(Othello othello) {
+    GameRecord record = new GameRecord();
+    record.width = othello.getWidth();
+    record.height = othello.getHeight();
+    record.playerCount = othello.getPlayerCount();
+    record.start = othello.getStartValues();
+    record.startTurn = othello.getStartTurn();
+    record.moves = new int[othello.getLogSize()];
+
+    for (int i = 0; i < record.moves.length; i++) {
+      record.moves[i] = othello.getMove(i);
+    }
+
+    return record;
+  }
+
+  /**
+   * Creates the game as it was before any moves
+   *
+   * @return the game
+   */
+  public Othello createStart() {
+    Othello othello = new Othello(width, height, playerCount);
+    othello.setPosition(start, startTurn);
+    return othello;
+  }
+
+  /**
+   * Creates the game as it was after every move
+   *
+   * The moves are checked as they're made, so a damaged record
+   * can't leave the game in a position that couldn't happen
+   *
+   * @return the game, which can undo back to the start
+   * @throws IllegalArgumentException if a move isn't legal
+   */
+  public Othello replay() {
+    Othello othello = createStart();
+
+    for (int i = 0; i < moves.length; i++) {
+      int turn = othello.getTurn();
+
+      if (turn == -1 || moves[i] < 0 || moves[i] >= othello.getSize() || !othello.isLegal(moves[i], turn + 1)) {
+        throw new IllegalArgumentException("Illegal move " + moves[i] + " at ply " + i);
+      }
+
+      othello.makeMove(moves[i]);
+    }
+
+    return othello;
+  }
+}
@@ -0,0 +1,145 @@
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Reads the game records in a file, one at a time
+ *
+ * Only one record is held at a time, so files of any size
+ * can be read (see GameRecordWriter for the format)
+ *
+ * @version 2026-10-18
+ */
+public class GameRecordReader implements Closeable {
+  /**
+   * The longest side a board in a record may have, so that a damaged record
+   * can't ask for an enormous array (the rays of a board grow with its area
+   * times its longest side, and are already about 200 MB at 256x256)
+   */
+  private static final int MAX_SIDE = 256;
+
+  /**
+   * Where the records come from
+   */
+  private DataInputStream in;
+
+  /**
+   * Starts reading records from a stream
+   *
+   * @param stream the stream
+   * @throws IOException if the stream can't be read or doesn't hold records
+   */
+  public GameRecordReader(InputStream stream) throws IOException {
+    in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+
+    if (in.readInt() != GameRecordWriter.MAGIC) {
+      throw new IOException("Not a game record file");
+    }
+  }
+
+  /**
+   * Starts reading records from a file
+   *
+   * @param path the file
+   * @throws IOException if the file can't be read or doesn't hold records
+   */
+  public GameRecordReader(Path path) throws IOException {
+    this(Files.newInputStream(path));
+  }
+
+  /**
+   * Reads the next record
+   *
+   * @return the record, or null if there are no more
+   * @throws IOException if the record can't be read or is damaged
+   */
+  public GameRecord read() throws IOException {
+    int first = in.read();
+
+    if (first == -1) {
+      return null;
+    }
+
+    GameRecord record = new GameRecord();
+    record.width = readVarint(first);
+    record.height = readVarint(in.read());
+    record.playerCount = readVarint(in.read());
+    record.startTurn = readVarint(in.read()) - 1;
+
+    if (record.width < 1 || record.height < 1 || record.width > MAX_SIDE || record.height > MAX_SIDE) {
+      throw new IOException("Bad board size " + record.width + "x" + record.height);
+    }
+
+    if (record.playerCount < 2 || record.playerCount > Othello.MAX_PLAYER_COUNT) {
+      throw new IOException("Bad player count " + record.playerCount);
+    }
+
+    // -1 means the game is over
+    if (record.startTurn < -1 || record.startTurn >= record.playerCount) {
+      throw new IOException("Bad turn " + record.startTurn);
+    }
+
+    record.start = new int[record.width * record.height];
+    int tiles = readVarint(in.read());
+
+    for (int i = 0; i < tiles; i++) {
+      int square = readVarint(in.read());
+
+      if (square < 0 || square >= record.start.length) {
+        throw new IOException("Bad square " + square);
+      }
+
+      record.start[square] = readVarint(in.read());
+
+      // 0 is an empty square, and k is player k - 1
+      if (record.start[square] < 0 || record.start[square] > record.playerCount) {
+        throw new IOException("Bad value " + record.start[square] + " on square " + square);
+      }
+    }
+
+    int count = readVarint(in.read());
+
+    if (count < 0 || count > record.start.length) {
+      throw new IOException("Bad move count " + count);
+    }
+
+    record.moves = new int[count];
+
+    for (int i = 0; i < count; i++) {
+      record.moves[i] = readVarint(in.read());
+    }
+
+    return record;
+  }
+
+  /**
+   * Reads the rest of a varint
+   *
+   * @param first the first byte, which has already been read
+   * @return the number
+   * @throws IOException if the file ends in the middle
+   */
+  private int readVarint(int first) throws IOException {
+    int value = 0;
+    int shift = 0;
+
+    for (int b = first; ; b = in.read()) {
+      if (b == -1) {
+        throw new EOFException("Record ends in the middle");
+      } else if (shift > 28) {
+        throw new IOException("Varint is too long");
+      }
+
+      value |= (b & 0x7F) << shift;
+
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+
+      shift += 7;
+    }
+  }
+
+  public void close() throws IOException {
+    in.close();
+  }
+}
@@ -0,0 +1,122 @@
+import java.io.*;
+import java.nio.file.*;
+
+/**
+ * Writes game records to a file, one after another
+ *
+ * The file starts with a magic int, and each record is a header
+ * (width, height, player count, the starting turn and every tile
+ * on the starting board) followed by the number of moves and then the
+ * moves themselves. Every number is a varint, which takes one byte for
+ * anything under 128, so on boards of up to 128 squares each move is
+ * a single byte and a whole 8x8 game is well under 100 bytes.
+ *
+ * @version 2026-10-18
+ */
+public class GameRecordWriter implements Closeable {
+  /**
+   * The first int of every game record file ("OGR1")
+   */
+  public static final int MAGIC = 0x4F475231;
+
+  /**
+   * Where the records go
+   */
+  private DataOutputStream out;
+
+  /**
+   * Starts writing records to a stream
+   *
+   * @param stream the stream
+   * @throws IOException if the stream can't be written
+   */
+  public GameRecordWriter(OutputStream stream) throws IOException {
+    out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+    out.writeInt(MAGIC);
+  }
+
+  /**
+   * Starts writing records to a file, replacing anything in it
+   *
+   * @param path the file
+   * @throws IOException if the file can't be written
+   */
+  public GameRecordWriter(Path path) throws IOException {
+    this(Files.newOutputStream(path));
+  }
+
+  /**
+   * Writes a record
+   *
+   * @param record the record
+   * @throws IOException if the record can't be written
+   */
+  public void write(GameRecord record) throws IOException {
+    writeVarint(record.width);
+    writeVarint(record.height);
+    writeVarint(record.playerCount);
+    // The turn is -1 if the game started over, so it's shifted up by one
+    writeVarint(record.startTurn + 1);
+    int tiles = 0;
+
+    for (int value : record.start) {
+      if (value != 0) {
+        tiles++;
+      }
+    }
+
+    writeVarint(tiles);
+
+    for (int square = 0; square < record.start.length; square++) {
+      if (record.start[square] != 0) {
+        writeVarint(square);
+        writeVarint(record.start[square]);
+      }
+    }
+
+    writeVarint(record.moves.length);
+
+    for (int move : record.moves) {
+      writeVarint(move);
+    }
+  }
+
+  /**
+   * Writes every move in a game's log
+   *
+   * @param othello the game
+   * @throws IOException if the record can't be written
+   */
+  public void write(Othello othello) throws IOException {
+    write(GameRecord.of(othello));
+  }
+
+  /**
+   * Writes a number seven bits at a time, lowest first,
+   * where the top bit of each byte says whether more follow
+   *
+   * @param value the number, which must not be negative
+   * @throws IOException if the number can't be written
+   */
+  private void writeVarint(int value) throws IOException {
+    while ((value & ~0x7F) != 0) {
+      out.write(value & 0x7F | 0x80);
+      value >>>= 7;
+    }
+
+    out.write(value);
+  }
+
+  /**
+   * Writes out anything that's still buffered
+   *
+   * @throws IOException if it can't be written
+   */
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  public void close() throws IOException {
+    out.close();
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * A way to emit data after a headless game has finished
+ */
+public class GameResult {
+  /**
+   * The number of the game in the tournament
+   */
+  public int index;
+  /**
+   * The engine that played each seat
+   */
+  public String[] engines;
+  /**
+   * The number of tiles each seat ended with
+   */
+  public int[] counts;
+  /**
+   * The number of moves that were made
+   */
+  public int plies;
+  /**
+   * How long the game took, in milliseconds
+   */
+  public long time;
+
+  public GameResult() {}
+
+  /**
+   * Gets how much of a win a seat earned
+   *
+   * Everyone tied for the most tiles shares the win equally
+   *
+   * @param seat the seat (starting from 0)
+   * @return 1 for an outright win, 0 for a loss, and a fraction for a tie
+   */
+  public double getScore(int seat) {
+    int top = 0;
+    int leaders = 0;
+
+    for (int i = 0; i < counts.length; i++) {
+      if (counts[i] > top) {
+        top = counts[i];
+        leaders = 1;
+      } else if (counts[i] == top) {
+        leaders++;
+      }
+    }
+
+    return counts[seat] == top ? 1.0 / leaders : 0;
+  }
+
+  /**
+   * Creates a line of comma-separated values:
+   * the index, the plies, the time, and then the engine, tiles and score of every seat
+   *
+   * @return the line
+   */
+  public String toString() {
+    String string = index + "," + plies + "," + time;
+
+    for (int i = 0; i < counts.length; i++) {
+      string += "," + engines[i] + "," + counts[i] + "," + getScore(i);
+    }
+
+    return string;
+  }
+}
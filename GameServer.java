@@ -0,0 +1,566 @@
+import java.io.*;
+import java.net.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Hosts games for clients over TCP, without any windows
+ *
+ * Every message is a frame: an unsigned short with the length of the
+ * rest, a byte for the type and then the fields of that type. Clients send
+ *
+ *   NEW_GAME   width (byte), height (byte), player count (byte)
+ *   MOVE       game (int), square (short)
+ *   CLOSE_GAME game (int)
+ *   STATS      nothing
+ *
+ * and the server answers each one, in order, with
+ *
+ *   GAME       game (int), the turn (byte)
+ *   RESULT     game (int), current turn (byte), next turn (byte, -1 when over),
+ *              whether it's done (byte), the number of updates (short),
+ *              then the square of each update (short), with the placed tile last
+ *   CLOSED     game (int)
+ *   STATS      moves (long), p50 (long), p99 (long), in nanoseconds
+ *   ERROR      game (int, or -1), code (byte)
+ *
+ * which is the same thing Othello.makeMove(int[]) puts in a State.
+ *
+ * Boards are between 8x8 and MAX_SIDE x MAX_SIDE, and a connection may
+ * have up to MAX_GAMES_PER_CONNECTION games open, so no one client
+ * can use up the heap.
+ *
+ * One thread accepts connections and hands them out to a few event loops,
+ * each with its own selector. A game belongs to the connection that made it,
+ * so each game is only ever touched by one loop and nothing has to be locked.
+ *
+ * @version 2026-10-18
+ */
+public class GameServer implements Closeable {
+  /**
+   * Asks for a new game
+   */
+  public static final byte NEW_GAME = 1;
+  /**
+   * Asks to make a move
+   */
+  public static final byte MOVE = 2;
+  /**
+   * Asks to close a game
+   */
+  public static final byte CLOSE_GAME = 3;
+  /**
+   * Asks how long moves have been taking
+   */
+  public static final byte STATS = 4;
+  /**
+   * The answer to NEW_GAME
+   */
+  public static final byte GAME = 1;
+  /**
+   * The answer to MOVE
+   */
+  public static final byte RESULT = 2;
+  /**
+   * The answer to CLOSE_GAME
+   */
+  public static final byte CLOSED = 3;
+  /**
+   * The answer to anything that went wrong
+   */
+  public static final byte ERROR = 5;
+  /**
+   * The error for a game that doesn't exist (or belongs to someone else)
+   */
+  public static final byte UNKNOWN_GAME = 1;
+  /**
+   * The error for a move that isn't legal
+   */
+  public static final byte ILLEGAL_MOVE = 2;
+  /**
+   * The error for a message that doesn't make sense
+   */
+  public static final byte BAD_REQUEST = 3;
+  /**
+   * The error for a new game on a connection that already has as many as it may
+   */
+  public static final byte TOO_MANY_GAMES = 4;
+  /**
+   * The widest (and tallest) board a game may have
+   */
+  public static final int MAX_SIDE = 32;
+  /**
+   * The most games a connection may have open at once
+   */
+  public static final int MAX_GAMES_PER_CONNECTION = 1024;
+  /**
+   * The biggest frame, not counting its length
+   */
+  public static final int MAX_FRAME = 65535;
+  /**
+   * How much a connection may have waiting to be sent before
+   * we stop reading from it, so a client that never reads can't use up the heap
+   */
+  private static final int MAX_PENDING = 1 << 20;
+
+  /**
+   * The socket that accepts connections
+   */
+  private final ServerSocketChannel server;
+  /**
+   * The event loops
+   */
+  private final Loop[] loops;
+  /**
+   * The threads running the event loops and the acceptor
+   */
+  private final ArrayList<Thread> threads = new ArrayList<Thread>();
+  /**
+   * The number of the next game
+   */
+  private final AtomicInteger nextGame = new AtomicInteger();
+  /**
+   * The number of games that are open
+   */
+  private final AtomicInteger openGames = new AtomicInteger();
+  /**
+   * How long each move took to handle
+   */
+  private final LatencyHistogram latency = new LatencyHistogram();
+  /**
+   * Whether the server has been closed
+   */
+  private volatile boolean closed = false;
+
+  /**
+   * Everything we know about one client
+   */
+  private static class Connection {
+    /**
+     * What the client has sent that hasn't been handled yet
+     */
+    ByteBuffer in = ByteBuffer.allocate(MAX_FRAME + 2);
+    /**
+     * What hasn't been sent to the client yet
+     */
+    ByteBuffer out = ByteBuffer.allocate(4096);
+    /**
+     * The client's games
+     */
+    HashMap<Integer, Othello> games = new HashMap<Integer, Othello>();
+  }
+
+  /**
+   * Starts listening, but doesn't accept anyone until start() is called
+   *
+   * @param port the port, or 0 for any free one
+   * @param threads the number of event loops
+   * @throws IOException if the port can't be used
+   */
+  public GameServer(int port, int threads) throws IOException {
+    server = ServerSocketChannel.open();
+    server.bind(new InetSocketAddress(port));
+    loops = new Loop[threads];
+
+    for (int i = 0; i < threads; i++) {
+      loops[i] = new Loop();
+    }
+  }
+
+  /**
+   * Gets the port being listened on
+   *
+   * @return the port
+   */
+  public int getPort() {
+    return ((InetSocketAddress) server.socket().getLocalSocketAddress()).getPort();
+  }
+
+  /**
+   * Gets how long moves have taken to handle
+   *
+   * @return the histogram, which keeps filling up
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * Gets the number of games that are open
+   *
+   * @return the number of games
+   */
+  public int getGameCount() {
+    return openGames.get();
+  }
+
+  /**
+   * Starts accepting connections and handling them
+   */
+  public void start() {
+    for (int i = 0; i < loops.length; i++) {
+      Thread thread = new Thread(loops[i], "game-server-" + i);
+      thread.setDaemon(true);
+      threads.add(thread);
+    }
+
+    Thread acceptor = new Thread(() -> {
+      int next = 0;
+
+      while (!closed) {
+        try {
+          SocketChannel channel = server.accept();
+          // Every message is small, so waiting to fill a packet only adds latency
+          channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+          loops[next].add(channel);
+          next = (next + 1) % loops.length;
+        } catch (IOException e) {
+          if (!closed) {
+            System.err.println("Cannot accept a connection: " + e.getMessage());
+          }
+        }
+      }
+    }, "game-server-acceptor");
+    acceptor.setDaemon(true);
+    threads.add(acceptor);
+
+    for (Thread thread : threads) {
+      thread.start();
+    }
+  }
+
+  /**
+   * Stops the server and disconnects everyone
+   *
+   * @throws IOException if the socket can't be closed
+   */
+  public void close() throws IOException {
+    closed = true;
+    server.close();
+
+    for (Loop loop : loops) {
+      loop.selector.wakeup();
+    }
+
+    for (Thread thread : threads) {
+      try {
+        thread.join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+  }
+
+  /**
+   * One selector and the connections it looks after
+   */
+  private class Loop implements Runnable {
+    /**
+     * The selector
+     */
+    final Selector selector;
+    /**
+     * Connections that have been accepted but not registered yet
+     */
+    final ConcurrentLinkedQueue<SocketChannel> added = new ConcurrentLinkedQueue<SocketChannel>();
+
+    /**
+     * Creates an event loop
+     *
+     * @throws IOException if a selector can't be opened
+     */
+    Loop() throws IOException {
+      selector = Selector.open();
+    }
+
+    /**
+     * Hands a new connection to this loop
+     *
+     * @param channel the connection
+     */
+    void add(SocketChannel channel) {
+      added.add(channel);
+      // Channels can only be registered while the selector isn't waiting
+      selector.wakeup();
+    }
+
+    public void run() {
+      try {
+        while (!closed) {
+          selector.select();
+
+          for (SocketChannel channel = added.poll(); channel != null; channel = added.poll()) {
+            channel.configureBlocking(false);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+          }
+
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+
+            try {
+              if (key.isReadable()) {
+                read(key);
+              }
+
+              if (key.isValid() && key.isWritable()) {
+                write(key);
+              }
+            } catch (IOException | RuntimeException e) {
+              // Whatever went wrong only affects this client
+              disconnect(key);
+            }
+          }
+        }
+      } catch (IOException e) {
+        System.err.println("Event loop stopped: " + e.getMessage());
+      } finally {
+        for (SelectionKey key : selector.keys()) {
+          disconnect(key);
+        }
+
+        try {
+          selector.close();
+        } catch (IOException e) {
+          // We're stopping anyway
+        }
+      }
+    }
+
+    /**
+     * Reads whatever a client has sent and answers every whole frame in it
+     *
+     * @param key the client's key
+     * @throws IOException if the connection is broken
+     */
+    void read(SelectionKey key) throws IOException {
+      SocketChannel channel = (SocketChannel) key.channel();
+      Connection connection = (Connection) key.attachment();
+      ByteBuffer in = connection.in;
+
+      if (channel.read(in) == -1) {
+        disconnect(key);
+        return;
+      }
+
+      in.flip();
+
+      while (in.remaining() >= 2) {
+        int length = in.getShort(in.position()) & 0xFFFF;
+
+        if (in.remaining() < 2 + length) {
+          break;
+        }
+
+        in.position(in.position() + 2);
+        int end = in.position() + length;
+        handle(connection, in.slice(in.position(), length));
+        in.position(end);
+      }
+
+      in.compact();
+      write(key);
+    }
+
+    /**
+     * Sends whatever is waiting to be sent
+     *
+     * @param key the client's key
+     * @throws IOException if the connection is broken
+     */
+    void write(SelectionKey key) throws IOException {
+      Connection connection = (Connection) key.attachment();
+      ByteBuffer out = connection.out;
+      out.flip();
+      ((SocketChannel) key.channel()).write(out);
+      out.compact();
+
+      if (out.position() == 0) {
+        key.interestOps(SelectionKey.OP_READ);
+      } else if (out.position() > MAX_PENDING) {
+        // Don't read anything else until they've caught up
+        key.interestOps(SelectionKey.OP_WRITE);
+      } else {
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+      }
+    }
+
+    /**
+     * Closes a connection and forgets its games
+     *
+     * @param key the client's key
+     */
+    void disconnect(SelectionKey key) {
+      Connection connection = (Connection) key.attachment();
+
+      if (connection != null) {
+        openGames.addAndGet(-connection.games.size());
+        connection.games.clear();
+        key.attach(null);
+      }
+
+      key.cancel();
+
+      try {
+        key.channel().close();
+      } catch (IOException e) {
+        // It's gone either way
+      }
+    }
+  }
+
+  /**
+   * Answers one frame
+   *
+   * @param connection the client
+   * @param frame the frame, without its length
+   */
+  private void handle(Connection connection, ByteBuffer frame) {
+    long start = System.nanoTime();
+
+    try {
+      byte type = frame.get();
+
+      if (type == NEW_GAME) {
+        int width = frame.get() & 0xFF;
+        int height = frame.get() & 0xFF;
+        int playerCount = frame.get();
+
+        // The starting tiles are laid out for boards at least this big
+        if (width < Bitboard.SIZE || height < Bitboard.SIZE || width > MAX_SIDE || height > MAX_SIDE
+            || playerCount < 2 || playerCount > 4) {
+          sendError(connection, -1, BAD_REQUEST);
+          return;
+        }
+
+        if (connection.games.size() >= MAX_GAMES_PER_CONNECTION) {
+          sendError(connection, -1, TOO_MANY_GAMES);
+          return;
+        }
+
+        Othello othello = new Othello(width, height, playerCount);
+        othello.setInitialBoard();
+        int game = nextGame.getAndIncrement();
+        connection.games.put(game, othello);
+        openGames.incrementAndGet();
+        ByteBuffer out = reserve(connection, 6);
+        out.put(GAME).putInt(game).put((byte) othello.getTurn());
+      } else if (type == MOVE) {
+        int game = frame.getInt();
+        int square = frame.getShort() & 0xFFFF;
+        Othello othello = connection.games.get(game);
+
+        if (othello == null) {
+          sendError(connection, game, UNKNOWN_GAME);
+          return;
+        }
+
+        int turn = othello.getTurn();
+
+        if (turn == -1 || square >= othello.getSize() || !othello.isLegal(square, turn + 1)) {
+          sendError(connection, game, ILLEGAL_MOVE);
+          return;
+        }
+
+        int height = othello.getHeight();
+        State state = othello.makeMove(new int[] {square / height, square % height});
+        ByteBuffer out = reserve(connection, 10 + 2 * state.updates.size());
+        out.put(RESULT).putInt(game).put((byte) state.currentTurn).put((byte) state.nextTurn)
+          .put((byte) (state.isDone ? 1 : 0)).putShort((short) state.updates.size());
+
+        for (int[] update : state.updates) {
+          out.putShort((short) (update[0] * height + update[1]));
+        }
+
+        latency.record(System.nanoTime() - start);
+      } else if (type == CLOSE_GAME) {
+        int game = frame.getInt();
+
+        if (connection.games.remove(game) == null) {
+          sendError(connection, game, UNKNOWN_GAME);
+          return;
+        }
+
+        openGames.decrementAndGet();
+        reserve(connection, 5).put(CLOSED).putInt(game);
+      } else if (type == STATS) {
+        reserve(connection, 25).put(STATS).putLong(latency.getCount())
+          .putLong(latency.getPercentile(50)).putLong(latency.getPercentile(99));
+      } else {
+        sendError(connection, -1, BAD_REQUEST);
+      }
+    } catch (BufferUnderflowException e) {
+      sendError(connection, -1, BAD_REQUEST);
+    }
+  }
+
+  /**
+   * Sends an error
+   *
+   * @param connection the client
+   * @param game the game, or -1 if there isn't one
+   * @param code the error code
+   */
+  private void sendError(Connection connection, int game, byte code) {
+    reserve(connection, 6).put(ERROR).putInt(game).put(code);
+  }
+
+  /**
+   * Makes room for a frame and writes its length
+   *
+   * @param connection the client
+   * @param length the length of the frame
+   * @return the buffer to write the rest of the frame into
+   */
+  private static ByteBuffer reserve(Connection connection, int length) {
+    ByteBuffer out = connection.out;
+
+    if (out.remaining() < 2 + length) {
+      ByteBuffer bigger = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + 2 + length));
+      out.flip();
+      bigger.put(out);
+      connection.out = out = bigger;
+    }
+
+    return out.putShort((short) length);
+  }
+
+  /**
+   * Runs a server until it's stopped, printing how long moves take every so often
+   *
+   * @param args --port, --threads and --report (seconds between reports)
+   * @throws Exception if the port can't be used
+   */
+  public static void main(String[] args) throws Exception {
+    int port = 7457;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int report = 10;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--port".equals(args[i])) {
+        port = value;
+      } else if ("--threads".equals(args[i])) {
+        threads = value;
+      } else if ("--report".equals(args[i])) {
+        report = value;
+      }
+    }
+
+    GameServer server = new GameServer(port, threads);
+    server.start();
+    System.out.println("Listening on port " + server.getPort() + " with " + threads + " event loops");
+
+    while (true) {
+      Thread.sleep(report * 1000L);
+      System.out.println(server.getGameCount() + " games open, moves " + server.getLatency());
+    }
+  }
+}
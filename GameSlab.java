@@ -0,0 +1,439 @@
+import java.nio.*;
+import java.util.*;
+
+/**
+ * Keeps games that nobody is playing right now outside of the heap
+ *
+ * Each game gets a fixed-size slot in large direct buffers: a state byte,
+ * the turn, the number of moves, the board packed into as few bits per
+ * square as the players need, and then every move. An 8x8 two player game
+ * takes 88 bytes, so a million parked games fit in under 100 MB and
+ * the garbage collector never has to look at any of them.
+ *
+ * Checking a game out turns its slot back into a live Othello, and checking
+ * it in packs it up again, so both cost the same no matter how many games
+ * are parked. Like Othello.copy(), a game that's checked out can't undo
+ * past the point where it was checked out, but every move it has ever made
+ * is still kept in the slot.
+ *
+ * Every game in a slab has the same board size and number of players.
+ *
+ * @version 2026-10-18
+ */
+public class GameSlab {
+  /**
+   * The state of a slot that isn't being used
+   */
+  private static final byte FREE = 0;
+  /**
+   * The state of a slot that holds a parked game
+   */
+  private static final byte PARKED = 1;
+  /**
+   * The state of a slot whose game is checked out
+   */
+  private static final byte CHECKED_OUT = 2;
+  /**
+   * Where the board starts in a slot (after the state, turn and move count)
+   */
+  private static final int BOARD = 8;
+  /**
+   * About how many bytes each buffer takes (a buffer always has room for at least one slot)
+   */
+  private static final int CHUNK_SIZE = 1 << 26;
+  /**
+   * The most slots in each buffer, so small games don't start with a huge buffer
+   */
+  private static final int MAX_SLOTS_PER_CHUNK = 1 << 16;
+
+  /**
+   * The width of the board
+   */
+  private final int width;
+  /**
+   * The height of the board
+   */
+  private final int height;
+  /**
+   * The number of players
+   */
+  private final int playerCount;
+  /**
+   * The number of bits each square takes
+   */
+  private final int bits;
+  /**
+   * The number of bytes the board takes
+   */
+  private final int boardSize;
+  /**
+   * The number of bytes each move takes
+   */
+  private final int moveSize;
+  /**
+   * The number of bytes each slot takes
+   */
+  private final int slotSize;
+  /**
+   * The number of slots in each buffer
+   */
+  private final int slotsPerChunk;
+  /**
+   * The buffers, which are added as the slab fills up
+   */
+  private final ArrayList<ByteBuffer> chunks = new ArrayList<ByteBuffer>();
+  /**
+   * The slots that have been freed and can be used again
+   */
+  private int[] free = new int[16];
+  /**
+   * The number of freed slots
+   */
+  private int freeCount = 0;
+  /**
+   * The number of slots that have ever been used
+   */
+  private int slotCount = 0;
+  /**
+   * Scratch space for a board
+   */
+  private final int[] values;
+
+  /**
+   * Creates an empty slab
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   */
+  public GameSlab(int width, int height, int playerCount) {
+    this.width = width;
+    this.height = height;
+    this.playerCount = playerCount;
+    int size = width * height;
+    // Enough bits for 0 (empty) up to playerCount
+    bits = 32 - Integer.numberOfLeadingZeros(playerCount);
+    boardSize = (size * bits + 63) / 64 * 8;
+    moveSize = size <= 256 ? 1 : 2;
+    // Every move places a tile, so there can't be more moves than squares
+    long bytes = (BOARD + boardSize + (long) size * moveSize + 7) / 8 * 8;
+
+    // A slot is read with int offsets, so it has to fit in one buffer
+    if (bytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("A " + width + "x" + height + " game is too big for a slab");
+    }
+
+    slotSize = (int) bytes;
+    // Big boards get fewer slots per buffer, rather than bigger buffers
+    slotsPerChunk = Math.max(1, Math.min(MAX_SLOTS_PER_CHUNK, CHUNK_SIZE / slotSize));
+    values = new int[size];
+  }
+
+  /**
+   * Parks a game in a new slot
+   *
+   * The game's log is kept as its moves, and the game
+   * itself can be thrown away (or reused) afterwards
+   *
+   * @param othello the game
+   * @return the slot
+   */
+  public synchronized int park(Othello othello) {
+    int slot;
+
+    if (freeCount > 0) {
+      slot = free[--freeCount];
+    } else {
+      if ((long) slotCount == (long) chunks.size() * slotsPerChunk) {
+        chunks.add(ByteBuffer.allocateDirect(slotsPerChunk * slotSize));
+      }
+
+      slot = slotCount++;
+    }
+
+    getChunk(slot).putInt(getOffset(slot) + 4, 0);
+    write(slot, othello);
+    return slot;
+  }
+
+  /**
+   * Turns a parked game back into a live one
+   *
+   * @param slot the slot
+   * @return the game, with an empty log
+   */
+  public Othello checkout(int slot) {
+    Othello othello = new Othello(width, height, playerCount);
+    checkout(slot, othello);
+    return othello;
+  }
+
+  /**
+   * Turns a parked game back into a live one, reusing a game that's done with
+   *
+   * @param slot the slot
+   * @param othello a game of the same size, which is overwritten
+   */
+  public synchronized void checkout(int slot, Othello othello) {
+    ByteBuffer chunk = getChunk(slot);
+    int offset = getOffset(slot);
+
+    if (chunk.get(offset) != PARKED) {
+      throw new IllegalStateException("Slot " + slot + " has no parked game");
+    }
+
+    long word = 0;
+
+    for (int square = 0; square < values.length; square++) {
+      int bit = square * bits;
+
+      if (bit % 64 == 0 || square == 0) {
+        word = chunk.getLong(offset + BOARD + bit / 64 * 8);
+      }
+
+      int shift = bit % 64;
+      long value = word >>> shift;
+
+      // A square can be split across two longs
+      if (shift + bits > 64) {
+        word = chunk.getLong(offset + BOARD + (bit / 64 + 1) * 8);
+        value |= word << (64 - shift);
+      }
+
+      values[square] = (int) (value & ((1 << bits) - 1));
+    }
+
+    othello.setPosition(values, chunk.get(offset + 1) - 1);
+    chunk.put(offset, CHECKED_OUT);
+  }
+
+  /**
+   * Parks a game that was checked out back in its slot
+   *
+   * @param slot the slot
+   * @param othello the game, whose log holds the moves made since it was checked out
+   */
+  public synchronized void checkIn(int slot, Othello othello) {
+    if (getChunk(slot).get(getOffset(slot)) != CHECKED_OUT) {
+      throw new IllegalStateException("Slot " + slot + " isn't checked out");
+    }
+
+    write(slot, othello);
+  }
+
+  /**
+   * Packs a game into its slot, adding its log to the moves already there
+   *
+   * @param slot the slot
+   * @param othello the game
+   */
+  private void write(int slot, Othello othello) {
+    ByteBuffer chunk = getChunk(slot);
+    int offset = getOffset(slot);
+    int moveCount = chunk.getInt(offset + 4);
+    int start = offset + BOARD + boardSize;
+
+    for (int i = 0; i < othello.getLogSize(); i++) {
+      int position = start + (moveCount + i) * moveSize;
+
+      if (moveSize == 1) {
+        chunk.put(position, (byte) othello.getMove(i));
+      } else {
+        chunk.putShort(position, (short) othello.getMove(i));
+      }
+    }
+
+    chunk.putInt(offset + 4, moveCount + othello.getLogSize());
+    long word = 0;
+
+    for (int square = 0; square < values.length; square++) {
+      int bit = square * bits;
+      int shift = bit % 64;
+      long value = othello.getValue(square);
+      word |= value << shift;
+
+      // Write each long once it's full (and the overflow starts the next one)
+      if (shift + bits >= 64) {
+        chunk.putLong(offset + BOARD + bit / 64 * 8, word);
+        word = shift + bits > 64 ? value >>> (64 - shift) : 0;
+      }
+    }
+
+    if (values.length * bits % 64 != 0) {
+      chunk.putLong(offset + BOARD + values.length * bits / 64 * 8, word);
+    }
+
+    chunk.put(offset + 1, (byte) (othello.getTurn() + 1));
+    chunk.put(offset, PARKED);
+  }
+
+  /**
+   * Gets every move a game has made, including those of a game that's checked out
+   * up to the point where it was checked out
+   *
+   * @param slot the slot
+   * @return the squares of the moves
+   */
+  public synchronized int[] getMoves(int slot) {
+    ByteBuffer chunk = getChunk(slot);
+    int offset = getOffset(slot);
+    int[] moves = new int[chunk.getInt(offset + 4)];
+    int start = offset + BOARD + boardSize;
+
+    for (int i = 0; i < moves.length; i++) {
+      int position = start + i * moveSize;
+      moves[i] = moveSize == 1 ? chunk.get(position) & 0xFF : chunk.getShort(position) & 0xFFFF;
+    }
+
+    return moves;
+  }
+
+  /**
+   * Forgets a game, so its slot can be used again
+   *
+   * @param slot the slot
+   */
+  public synchronized void remove(int slot) {
+    ByteBuffer chunk = getChunk(slot);
+    int offset = getOffset(slot);
+
+    if (chunk.get(offset) == FREE) {
+      return;
+    }
+
+    chunk.put(offset, FREE);
+
+    if (freeCount == free.length) {
+      free = Arrays.copyOf(free, free.length * 2);
+    }
+
+    free[freeCount++] = slot;
+  }
+
+  /**
+   * Gets the number of games in the slab, checked out or not
+   *
+   * @return the number of games
+   */
+  public synchronized int getCount() {
+    return slotCount - freeCount;
+  }
+
+  /**
+   * Gets the number of bytes each game takes
+   *
+   * @return the size of a slot
+   */
+  public int getSlotSize() {
+    return slotSize;
+  }
+
+  /**
+   * Gets the number of bytes held outside of the heap
+   *
+   * @return the number of bytes
+   */
+  public synchronized long getMemory() {
+    return (long) chunks.size() * slotsPerChunk * slotSize;
+  }
+
+  /**
+   * Gets the buffer that holds a slot
+   *
+   * @param slot the slot
+   * @return the buffer
+   */
+  private ByteBuffer getChunk(int slot) {
+    if (slot < 0 || slot >= slotCount) {
+      throw new IllegalArgumentException("Slot " + slot + " doesn't exist");
+    }
+
+    return chunks.get(slot / slotsPerChunk);
+  }
+
+  /**
+   * Gets where a slot starts within its buffer
+   *
+   * @param slot the slot
+   * @return the offset in bytes
+   */
+  private int getOffset(int slot) {
+    return slot % slotsPerChunk * slotSize;
+  }
+
+  /**
+   * Parks lots of games and checks them in and out, reporting how long it took
+   *
+   * @param args --games, --width, --height and --players
+   */
+  public static void main(String[] args) {
+    int games = 1000000;
+    int width = 8;
+    int height = 8;
+    int playerCount = 2;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--games".equals(args[i])) {
+        games = value;
+      } else if ("--width".equals(args[i])) {
+        width = value;
+      } else if ("--height".equals(args[i])) {
+        height = value;
+      } else if ("--players".equals(args[i])) {
+        playerCount = value;
+      }
+    }
+
+    // A few different games, each part of the way through, parked over and over
+    Random random = new Random(1);
+    Othello[] samples = new Othello[64];
+
+    for (int i = 0; i < samples.length; i++) {
+      samples[i] = new Othello(width, height, playerCount);
+      samples[i].setInitialBoard();
+      int[] moves = new int[samples[i].getSize()];
+
+      for (int ply = random.nextInt(30); ply > 0 && samples[i].getTurn() != -1; ply--) {
+        samples[i].makeMove(moves[random.nextInt(samples[i].getMoves(samples[i].getTurn() + 1, moves))]);
+      }
+    }
+
+    GameSlab slab = new GameSlab(width, height, playerCount);
+    Runtime runtime = Runtime.getRuntime();
+    System.gc();
+    long heap = runtime.totalMemory() - runtime.freeMemory();
+    long start = System.nanoTime();
+
+    for (int i = 0; i < games; i++) {
+      slab.park(samples[i % samples.length]);
+    }
+
+    double parkTime = (System.nanoTime() - start) / 1e9;
+    System.gc();
+    heap = runtime.totalMemory() - runtime.freeMemory() - heap;
+    // Check out a random game, make a move if it can, and check it back in
+    Othello othello = new Othello(width, height, playerCount);
+    int[] moves = new int[othello.getSize()];
+    int rounds = Math.min(games, 1000000);
+    start = System.nanoTime();
+
+    for (int i = 0; i < rounds; i++) {
+      int slot = random.nextInt(games);
+      slab.checkout(slot, othello);
+
+      if (othello.getTurn() != -1) {
+        othello.makeMove(moves[random.nextInt(othello.getMoves(othello.getTurn() + 1, moves))]);
+      }
+
+      slab.checkIn(slot, othello);
+    }
+
+    double roundTime = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("%d games parked in %.2f s (%.0f ns each), %d bytes each, %.1f MB off the heap, %.1f MB on it",
+      games, parkTime, parkTime * 1e9 / games, slab.getSlotSize(), slab.getMemory() / 1e6, heap / 1e6));
+    System.out.println(String.format("%d checkouts, moves and check-ins in %.2f s (%.0f ns each)",
+      rounds, roundTime, roundTime * 1e9 / rounds));
+  }
+}
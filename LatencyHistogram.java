@@ -0,0 +1,125 @@
+import java.util.concurrent.atomic.*;
+
+/**
+ * Counts how long things took, so that percentiles can be read off later
+ *
+ * Times are put into buckets that get wider as the times get longer,
+ * eight to each doubling, so every percentile is within about 12% and
+ * recording one is just an increment. Any number of threads may record at once.
+ *
+ * @version 2026-10-18
+ */
+public class LatencyHistogram {
+  /**
+   * The number of buckets, which is enough for any long
+   */
+  private static final int BUCKET_COUNT = 61 * 8;
+
+  /**
+   * The number of times in each bucket
+   */
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+
+  public LatencyHistogram() {}
+
+  /**
+   * Records a time
+   *
+   * @param nanos the time, in nanoseconds
+   */
+  public void record(long nanos) {
+    counts.incrementAndGet(getBucket(Math.max(0, nanos)));
+  }
+
+  /**
+   * Adds every time from another histogram
+   *
+   * @param other the other histogram
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts.addAndGet(i, other.counts.get(i));
+    }
+  }
+
+  /**
+   * Gets the number of times recorded
+   *
+   * @return the number of times
+   */
+  public long getCount() {
+    long count = 0;
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      count += counts.get(i);
+    }
+
+    return count;
+  }
+
+  /**
+   * Gets the time that a share of the times were no longer than
+   *
+   * @param percentile the share, from 0 to 100
+   * @return the time, in nanoseconds, or 0 if nothing was recorded
+   */
+  public long getPercentile(double percentile) {
+    long count = getCount();
+    // The rank of the time we want, starting from 1
+    long rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+    long seen = 0;
+
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      seen += counts.get(i);
+
+      if (seen >= rank) {
+        return getUpperBound(i);
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * Picks the bucket of a time
+   *
+   * The first eight buckets are exact, and after that the top bit
+   * picks a doubling and the three bits under it pick one of its eight buckets
+   *
+   * @param nanos the time
+   * @return the bucket
+   */
+  private static int getBucket(long nanos) {
+    if (nanos < 8) {
+      return (int) nanos;
+    }
+
+    int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+    return (exponent - 2) * 8 + (int) (nanos >>> (exponent - 3) & 7);
+  }
+
+  /**
+   * Gets the longest time that goes in a bucket
+   *
+   * @param bucket the bucket
+   * @return the time
+   */
+  private static long getUpperBound(int bucket) {
+    if (bucket < 8) {
+      return bucket;
+    }
+
+    int exponent = bucket / 8 + 2;
+    return ((8L + bucket % 8 + 1) << (exponent - 3)) - 1;
+  }
+
+  /**
+   * Describes the median and 99th percentile
+   *
+   * @return something like "p50 12.3 us, p99 45.6 us (1000 samples)"
+   */
+  public String toString() {
+    return String.format("p50 %.1f us, p99 %.1f us (%d samples)",
+      getPercentile(50) / 1e3, getPercentile(99) / 1e3, getCount());
+  }
+}
@@ -0,0 +1,643 @@
+import java.lang.invoke.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * A computer player that plays random games instead of evaluating positions
+ *
+ * This is Monte Carlo tree search with UCT. Each playout walks down the tree,
+ * picking the child that balances how well it has done against how little
+ * it has been tried, then plays random moves until the game is over.
+ * Whoever won gets the credit in every node on the way back up. Nothing
+ * about the position is ever guessed at, which is why this works just as well
+ * with four players or on a huge board, where evaluations are weak.
+ *
+ * The tree is stored in flat arrays rather than as an object per node.
+ * Each node is four ints (the move and who made it, the first child,
+ * the number of children and the number of visits) plus a long of rewards.
+ * The children of a node are always next to each other.
+ *
+ * Any number of threads can share the tree without locks. A thread counts
+ * its visit on the way down rather than the way up, so until its playout
+ * finishes, that visit looks like a loss (a "virtual loss"), which steers
+ * the other threads down different paths.
+ *
+ * When the game moves on, the part of the tree that is still reachable
+ * is kept for the next search and the rest is thrown away.
+ *
+ * @version 2026-10-18
+ */
+public class MonteCarlo {
+  /**
+   * The number of ints per node
+   */
+  private static final int NODE_INTS = 4;
+  /**
+   * The offset of the move (shifted up 3) and the player who made it
+   */
+  private static final int MOVE = 0;
+  /**
+   * The offset of the index of the first child (or one of the states below)
+   */
+  private static final int FIRST_CHILD = 1;
+  /**
+   * The offset of the number of children
+   */
+  private static final int CHILD_COUNT = 2;
+  /**
+   * The offset of the number of visits
+   */
+  private static final int VISITS = 3;
+  /**
+   * The first child of a node whose children haven't been added yet
+   */
+  private static final int UNEXPANDED = -1;
+  /**
+   * The first child of a node whose children are being added by another thread
+   */
+  private static final int EXPANDING = -2;
+  /**
+   * The first child of a node where the game is over
+   */
+  private static final int TERMINAL = -3;
+  /**
+   * What a win is worth (it can be split evenly between 1, 2, 3 or 4 players)
+   */
+  private static final int SCALE = 12;
+  /**
+   * How much weight is given to trying moves that haven't been tried much
+   */
+  private static final double EXPLORATION = Math.sqrt(2);
+  /**
+   * The deepest the tree is searched for the new root when the game has moved on
+   */
+  private static final int REUSE_DEPTH = 8;
+  /**
+   * The number of bytes each node takes
+   */
+  public static final int NODE_BYTES = NODE_INTS * 4 + 8;
+  /**
+   * A handle for updating the nodes atomically
+   */
+  private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+  /**
+   * A handle for updating the rewards atomically
+   */
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  /**
+   * The game being searched (it is never changed)
+   */
+  private Othello othello;
+  /**
+   * The number of threads
+   */
+  private int threadCount;
+  /**
+   * The threads
+   */
+  private ExecutorService pool;
+  /**
+   * The nodes, NODE_INTS at a time (the root is always node 0)
+   */
+  private int[] nodes;
+  /**
+   * The total reward of each node, for the player who made its move
+   */
+  private long[] rewards;
+  /**
+   * The arrays the tree is copied into when it is trimmed, so that nothing has to be allocated
+   */
+  private int[] spareNodes;
+  /**
+   * The rewards that go with spareNodes
+   */
+  private long[] spareRewards;
+  /**
+   * The number of nodes in use
+   */
+  private AtomicInteger nodeCount = new AtomicInteger();
+  /**
+   * The position at the root of the tree, or null if there is no tree yet
+   */
+  private Othello rootPosition = null;
+  /**
+   * The number of playouts so far in this search
+   */
+  private AtomicLong playouts = new AtomicLong();
+  /**
+   * Where the seeds for each search's random moves come from
+   */
+  private SplittableRandom seeds = new SplittableRandom();
+  /**
+   * Whether the search should stop as soon as possible
+   */
+  private volatile boolean isStopped;
+
+  /**
+   * Creates a search for a game
+   *
+   * @param othello the game to search (it is only ever copied)
+   * @param capacity the most nodes the tree can hold
+   * @param threadCount the number of threads
+   */
+  public MonteCarlo(Othello othello, int capacity, int threadCount) {
+    this.othello = othello;
+    this.threadCount = threadCount;
+    this.pool = threadCount > 1 ? Executors.newFixedThreadPool(threadCount - 1) : null;
+    this.nodes = new int[capacity * NODE_INTS];
+    this.rewards = new long[capacity];
+    this.spareNodes = new int[capacity * NODE_INTS];
+    this.spareRewards = new long[capacity];
+  }
+
+  /**
+   * Searches for the best move
+   *
+   * The score is how often the best move won, out of 1000
+   *
+   * @param time the time limit, in milliseconds
+   * @param playoutLimit the number of playouts to stop at
+   * @return the result of the search, where nodes is the number of playouts
+   */
+  public SearchResult search(long time, long playoutLimit) {
+    long start = System.nanoTime();
+    long deadline = start + time * 1000000;
+    SearchResult result = new SearchResult();
+
+    if (othello.getTurn() == -1) {
+      return result;
+    }
+
+    setRoot();
+    playouts.set(0);
+    ArrayList<Future<?>> helpers = new ArrayList<Future<?>>();
+
+    for (int i = 1; i < threadCount; i++) {
+      Othello copy = othello.copy();
+      long seed = seeds.nextLong();
+      helpers.add(pool.submit(() -> run(copy, seed, deadline, playoutLimit)));
+    }
+
+    run(othello.copy(), seeds.nextLong(), deadline, playoutLimit);
+    isStopped = true;
+
+    for (Future<?> helper : helpers) {
+      try {
+        helper.get();
+      } catch (InterruptedException | ExecutionException e) {
+        throw new RuntimeException(e);
+      }
+    }
+
+    isStopped = false;
+    ArrayList<Integer> line = new ArrayList<Integer>();
+    int node = 0;
+
+    // The most visited move is the one the search trusts most
+    while (getFirstChild(node) >= 0) {
+      int best = getFirstChild(node);
+
+      for (int child = best + 1; child < getFirstChild(node) + getChildCount(node); child++) {
+        if (getVisits(child) > getVisits(best)) {
+          best = child;
+        }
+      }
+
+      if (getVisits(best) == 0) {
+        break;
+      }
+
+      if (node == 0) {
+        result.score = (int) (rewards[best] * 1000 / ((long) getVisits(best) * SCALE));
+      }
+
+      line.add(getMove(best));
+      node = best;
+    }
+
+    result.principalVariation = new int[line.size()];
+
+    for (int i = 0; i < line.size(); i++) {
+      result.principalVariation[i] = line.get(i);
+    }
+
+    result.bestMove = line.isEmpty() ? -1 : line.get(0);
+    result.depth = line.size();
+    result.nodes = playouts.get();
+    result.time = (System.nanoTime() - start) / 1000000;
+    return result;
+  }
+
+  /**
+   * Sets the seed for the random moves, so that a single thread
+   * with a playout limit always picks the same moves
+   *
+   * @param seed the seed
+   */
+  public void setSeed(long seed) {
+    seeds = new SplittableRandom(seed);
+  }
+
+  /**
+   * Gets the number of nodes in the tree
+   *
+   * @return the number of nodes
+   */
+  public int getNodeCount() {
+    return Math.min(nodeCount.get(), rewards.length);
+  }
+
+  /**
+   * Gets how much memory the tree takes up
+   *
+   * @return the number of bytes in use, not counting the spare arrays
+   */
+  public long getMemory() {
+    return (long) getNodeCount() * NODE_BYTES;
+  }
+
+  /**
+   * Stops the threads once they are no longer needed
+   */
+  public void shutdown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Moves the root of the tree to the current position,
+   * keeping whatever part of the old tree is still reachable
+   */
+  private void setRoot() {
+    int root = -1;
+
+    if (rootPosition != null) {
+      root = findNode(0, rootPosition, othello.getHash(), REUSE_DEPTH);
+    }
+
+    if (root == -1) {
+      nodeCount.set(1);
+      nodes[MOVE] = 0;
+      nodes[FIRST_CHILD] = UNEXPANDED;
+      nodes[CHILD_COUNT] = 0;
+      nodes[VISITS] = 0;
+      rewards[0] = 0;
+    } else if (root != 0) {
+      trim(root);
+    }
+
+    rootPosition = othello.copy();
+  }
+
+  /**
+   * Looks for the node of a position below a node
+   *
+   * @param node the node
+   * @param position the position of the node (put back the way it was)
+   * @param hash the hash of the position to look for
+   * @param depth the number of moves left to look through
+   * @return the node, or -1 if it isn't in the tree
+   */
+  private int findNode(int node, Othello position, long hash, int depth) {
+    if (position.getHash() == hash) {
+      return node;
+    }
+
+    int first = getFirstChild(node);
+
+    if (depth == 0 || first < 0) {
+      return -1;
+    }
+
+    for (int child = first; child < first + getChildCount(node); child++) {
+      position.makeMove(getMove(child));
+      int found = findNode(child, position, hash, depth - 1);
+      position.undo();
+
+      if (found != -1) {
+        return found;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Copies everything below a node into the spare arrays, with the node as the new root
+   *
+   * The children of each node stay next to each other, so they're copied
+   * a whole block at a time, in the order they're reached
+   *
+   * @param root the new root
+   */
+  private void trim(int root) {
+    int count = 1;
+    System.arraycopy(nodes, root * NODE_INTS, spareNodes, 0, NODE_INTS);
+    spareRewards[0] = rewards[root];
+
+    // Every node that has been copied but whose children haven't been
+    // lies between next and count, so the copy itself is the queue
+    for (int next = 0; next < count; next++) {
+      int first = spareNodes[next * NODE_INTS + FIRST_CHILD];
+
+      if (first < 0) {
+        if (first == EXPANDING) {
+          spareNodes[next * NODE_INTS + FIRST_CHILD] = UNEXPANDED;
+        }
+
+        continue;
+      }
+
+      int children = spareNodes[next * NODE_INTS + CHILD_COUNT];
+      System.arraycopy(nodes, first * NODE_INTS, spareNodes, count * NODE_INTS, children * NODE_INTS);
+      System.arraycopy(rewards, first, spareRewards, count, children);
+      spareNodes[next * NODE_INTS + FIRST_CHILD] = count;
+      count += children;
+    }
+
+    int[] oldNodes = nodes;
+    long[] oldRewards = rewards;
+    nodes = spareNodes;
+    rewards = spareRewards;
+    spareNodes = oldNodes;
+    spareRewards = oldRewards;
+    nodeCount.set(count);
+  }
+
+  /**
+   * Plays out games until the search is over
+   *
+   * @param position this thread's own copy of the root position
+   * @param seed the seed for the random moves
+   * @param deadline the time to stop at
+   * @param playoutLimit the number of playouts to stop at
+   */
+  private void run(Othello position, long seed, long deadline, long playoutLimit) {
+    SplittableRandom random = new SplittableRandom(seed);
+    int playerCount = position.getPlayerCount();
+    int[] path = new int[position.getSize() + 2];
+    int[] moves = new int[position.getSize()];
+    int[] scores = new int[playerCount];
+    int start = position.getLogSize();
+
+    while (!isStopped) {
+      playout(position, random, path, moves, scores);
+      position.revert(start);
+      long count = playouts.incrementAndGet();
+
+      if (count >= playoutLimit || ((count & 63) == 0 && System.nanoTime() > deadline)) {
+        isStopped = true;
+      }
+    }
+  }
+
+  /**
+   * Walks down the tree, plays a random game, and credits the winner on the way back
+   *
+   * @param position the root position (left wherever the playout ended)
+   * @param random where the random moves come from
+   * @param path a buffer for the nodes on the way down
+   * @param moves a buffer for the moves
+   * @param scores a buffer for what each player earned
+   */
+  private void playout(Othello position, SplittableRandom random, int[] path, int[] moves, int[] scores) {
+    int node = 0;
+    int length = 0;
+    INTS.getAndAdd(nodes, VISITS, 1);
+    path[length++] = node;
+
+    while (true) {
+      int first = (int) INTS.getAcquire(nodes, node * NODE_INTS + FIRST_CHILD);
+
+      if (first == UNEXPANDED) {
+        first = expand(node, position, moves);
+      }
+
+      // If another thread is adding the children, or there's no room,
+      // we just play out from here
+      if (first < 0) {
+        break;
+      }
+
+      int child = select(node, first);
+      int visits = (int) INTS.getAndAdd(nodes, child * NODE_INTS + VISITS, 1);
+      position.makeMove(getMove(child));
+      path[length++] = child;
+      node = child;
+
+      // Each playout only adds one new node to the path
+      if (visits == 0) {
+        break;
+      }
+    }
+
+    while (position.getTurn() != -1) {
+      int count = position.getMoves(position.getTurn() + 1, moves);
+      position.makeMove(moves[random.nextInt(count)]);
+    }
+
+    getScores(position, scores);
+
+    for (int i = 1; i < length; i++) {
+      int mover = nodes[path[i] * NODE_INTS + MOVE] & 7;
+      LONGS.getAndAdd(rewards, path[i], (long) scores[mover]);
+    }
+  }
+
+  /**
+   * Adds the children of a node, unless another thread got there first
+   *
+   * @param node the node
+   * @param position the position of the node
+   * @param moves a buffer for the moves
+   * @return the first child, or a negative number if there are no children to pick from
+   */
+  private int expand(int node, Othello position, int[] moves) {
+    int index = node * NODE_INTS + FIRST_CHILD;
+
+    if (!INTS.compareAndSet(nodes, index, UNEXPANDED, EXPANDING)) {
+      return -1;
+    }
+
+    int turn = position.getTurn();
+
+    if (turn == -1) {
+      INTS.setRelease(nodes, index, TERMINAL);
+      return TERMINAL;
+    }
+
+    int count = position.getMoves(turn + 1, moves);
+    // Checking first means the count can't keep growing once the tree is full
+    int first = nodeCount.get() + count > rewards.length ? rewards.length : nodeCount.getAndAdd(count);
+
+    if (first + count > rewards.length) {
+      // The tree is full, so this node stays a leaf
+      INTS.setRelease(nodes, index, UNEXPANDED);
+      return -1;
+    }
+
+    for (int i = 0; i < count; i++) {
+      int child = (first + i) * NODE_INTS;
+      nodes[child + MOVE] = moves[i] << 3 | turn;
+      nodes[child + FIRST_CHILD] = UNEXPANDED;
+      nodes[child + CHILD_COUNT] = 0;
+      nodes[child + VISITS] = 0;
+      rewards[first + i] = 0;
+    }
+
+    nodes[node * NODE_INTS + CHILD_COUNT] = count;
+    // Everything above has to be visible before other threads can see the children
+    INTS.setRelease(nodes, index, first);
+    return first;
+  }
+
+  /**
+   * Picks the child with the best upper confidence bound
+   *
+   * @param node the node
+   * @param first the first child
+   * @return the child
+   */
+  private int select(int node, int first) {
+    int count = nodes[node * NODE_INTS + CHILD_COUNT];
+    double logVisits = Math.log(Math.max(1, getVisits(node)));
+    int best = first;
+    double bestValue = -1;
+
+    for (int child = first; child < first + count; child++) {
+      int visits = getVisits(child);
+
+      if (visits == 0) {
+        return child;
+      }
+
+      double value = (double) (long) LONGS.getOpaque(rewards, child) / ((long) visits * SCALE)
+        + EXPLORATION * Math.sqrt(logVisits / visits);
+
+      if (value > bestValue) {
+        best = child;
+        bestValue = value;
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Works out what each player earned from a finished game
+   *
+   * @param position the finished game
+   * @param scores where the scores are written: SCALE split between
+   *   everyone tied for the most tiles, and 0 for everyone else
+   */
+  private static void getScores(Othello position, int[] scores) {
+    Statistics statistics = position.getStatistics();
+    int top = 0;
+    int leaders = 0;
+
+    for (int i = 0; i < scores.length; i++) {
+      int count = statistics.getCount(i);
+
+      if (count > top) {
+        top = count;
+        leaders = 1;
+      } else if (count == top) {
+        leaders++;
+      }
+    }
+
+    for (int i = 0; i < scores.length; i++) {
+      scores[i] = statistics.getCount(i) == top ? SCALE / leaders : 0;
+    }
+  }
+
+  /**
+   * Gets the move of a node
+   *
+   * @param node the node
+   * @return the square of the move
+   */
+  private int getMove(int node) {
+    return nodes[node * NODE_INTS + MOVE] >> 3;
+  }
+
+  /**
+   * Gets the first child of a node
+   *
+   * @param node the node
+   * @return the first child, or a negative number if it has no children
+   */
+  private int getFirstChild(int node) {
+    return (int) INTS.getAcquire(nodes, node * NODE_INTS + FIRST_CHILD);
+  }
+
+  /**
+   * Gets the number of children of a node
+   *
+   * @param node the node
+   * @return the number of children
+   */
+  private int getChildCount(int node) {
+    return nodes[node * NODE_INTS + CHILD_COUNT];
+  }
+
+  /**
+   * Gets the number of visits of a node
+   *
+   * @param node the node
+   * @return the number of visits
+   */
+  private int getVisits(int node) {
+    return (int) INTS.getOpaque(nodes, node * NODE_INTS + VISITS);
+  }
+
+  /**
+   * Searches a position a few times and prints the playouts per second
+   *
+   * @param args --players, --width, --height, --threads, --time and --nodes
+   */
+  public static void main(String[] args) {
+    int playerCount = 2;
+    int width = 8;
+    int height = 8;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int time = 1000;
+    int capacity = 1 << 20;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--players".equals(args[i])) {
+        playerCount = value;
+      } else if ("--width".equals(args[i])) {
+        width = value;
+      } else if ("--height".equals(args[i])) {
+        height = value;
+      } else if ("--threads".equals(args[i])) {
+        threads = value;
+      } else if ("--time".equals(args[i])) {
+        time = value;
+      } else if ("--nodes".equals(args[i])) {
+        capacity = value;
+      }
+    }
+
+    Othello othello = new Othello(width, height, playerCount);
+    othello.setInitialBoard();
+    MonteCarlo search = new MonteCarlo(othello, capacity, threads);
+
+    // Playing the chosen moves shows how much of the tree is kept each time
+    for (int i = 0; i < 5 && othello.getTurn() != -1; i++) {
+      SearchResult result = search.search(time, Long.MAX_VALUE);
+      System.out.println(String.format("move %3d score %4d %,12d playouts %,10d playouts/s %,10d nodes %,8d KB",
+        result.bestMove, result.score, result.nodes, result.getNodesPerSecond(),
+        search.getNodeCount(), search.getMemory() / 1024));
+      othello.makeMove(result.bestMove);
+    }
+
+    search.shutdown();
+  }
+}
@@ -0,0 +1,182 @@
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import javax.swing.*;
+
+/**
+ * Highlights the legal moves on a BoardView without holding up the event dispatch thread
+ *
+ * The moves of each position are worked out on a thread of their own
+ * and remembered by the position's hash, so going back to a position
+ * (by undoing a move, say) shows them straight away. Only the squares
+ * whose highlight actually changed are handed back to the board, so
+ * a move on a 100x100 board repaints a handful of squares, not all of them.
+ *
+ * If positions come in faster than they can be worked out, only the
+ * newest one matters, so anything older is skipped or thrown away.
+ *
+ * Everything except the worker must be called on the event dispatch thread.
+ *
+ * @version 2026-10-18
+ */
+public class MoveHighlighter {
+  /**
+   * The most positions to remember
+   */
+  private static final int CACHE_SIZE = 4096;
+  /**
+   * The moves of a position where nobody can move
+   */
+  private static final int[] NONE = new int[0];
+
+  /**
+   * The board to highlight
+   */
+  private final BoardView board;
+  /**
+   * The thread that works out the moves
+   */
+  private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+    Thread thread = new Thread(runnable, "move-highlighter");
+    thread.setDaemon(true);
+    return thread;
+  });
+  /**
+   * The legal moves of each position (in order), by hash,
+   * dropping whichever was used longest ago when it's full
+   */
+  private final Map<Long, int[]> cache = Collections.synchronizedMap(
+    new LinkedHashMap<Long, int[]>(16, 0.75f, true) {
+      protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+        return size() > CACHE_SIZE;
+      }
+    });
+  /**
+   * Goes up every time the position changes, so old answers can be told apart
+   */
+  private final AtomicInteger generation = new AtomicInteger();
+  /**
+   * The squares that are highlighted right now (in order)
+   */
+  private int[] shown = NONE;
+  /**
+   * The worker's own game, which is moved to each position it's asked about
+   * (only the worker may touch it)
+   */
+  private Othello scratch = null;
+
+  /**
+   * Creates a highlighter for a board
+   *
+   * @param board the board
+   */
+  public MoveHighlighter(BoardView board) {
+    this.board = board;
+  }
+
+  /**
+   * Forgets everything, for when the board starts showing a different game
+   *
+   * The board must already be showing the new game, since that
+   * clears its highlights too
+   */
+  public void reset() {
+    generation.incrementAndGet();
+    cache.clear();
+    shown = NONE;
+  }
+
+  /**
+   * Highlights the legal moves of the position a game is in now
+   *
+   * @param othello the game
+   */
+  public void update(Othello othello) {
+    int token = generation.incrementAndGet();
+    int turn = othello.getTurn();
+
+    if (turn == -1) {
+      show(NONE);
+      return;
+    }
+
+    long hash = othello.getHash();
+    int[] moves = cache.get(hash);
+
+    if (moves != null) {
+      show(moves);
+      return;
+    }
+
+    // Copying the values is far cheaper than Othello.copy(),
+    // and the worker's game only has to change the squares that differ
+    int[] values = othello.getValues();
+    int width = othello.getWidth();
+    int height = othello.getHeight();
+    int playerCount = othello.getPlayerCount();
+
+    worker.execute(() -> {
+      // A newer position came in while this one was waiting
+      if (generation.get() != token) {
+        return;
+      }
+
+      int[] found = findMoves(values, turn, width, height, playerCount);
+      cache.put(hash, found);
+
+      SwingUtilities.invokeLater(() -> {
+        if (generation.get() == token) {
+          show(found);
+        }
+      });
+    });
+  }
+
+  /**
+   * Works out the legal moves of a position (on the worker)
+   *
+   * @param values the value of every square
+   * @param turn the turn
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @return the legal moves, in order
+   */
+  private int[] findMoves(int[] values, int turn, int width, int height, int playerCount) {
+    if (scratch == null || scratch.getWidth() != width || scratch.getHeight() != height
+        || scratch.getPlayerCount() != playerCount) {
+      scratch = new Othello(width, height, playerCount);
+    }
+
+    scratch.setPosition(values, turn);
+    int[] moves = new int[values.length];
+    int count = scratch.getMoves(turn + 1, moves);
+    moves = Arrays.copyOf(moves, count);
+    Arrays.sort(moves);
+    return moves;
+  }
+
+  /**
+   * Changes the highlights to a new set of moves, touching only the squares that differ
+   *
+   * @param moves the moves, in order
+   */
+  private void show(int[] moves) {
+    int i = 0;
+    int j = 0;
+
+    // Both are in order, so walk through them together like a merge
+    while (i < shown.length || j < moves.length) {
+      if (j == moves.length || (i < shown.length && shown[i] < moves[j])) {
+        board.setHighlighted(shown[i++], false);
+      } else if (i == shown.length || moves[j] < shown[i]) {
+        board.setHighlighted(moves[j++], true);
+      } else {
+        i++;
+        j++;
+      }
+    }
+
+    shown = moves;
+  }
+}
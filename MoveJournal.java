@@ -0,0 +1,765 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.*;
+import java.util.zip.*;
+
+/**
+ * A write-ahead log of every move in every game, so games survive a crash
+ *
+ * Every game (a session) has its own journal, but they're all written
+ * into the same file, one after another, so that one fsync covers every
+ * session at once. Appending a record only copies it into a buffer and
+ * returns a sequence number. A single writer thread takes whatever has
+ * piled up, writes it as one batch and fsyncs it, and then wakes everyone
+ * waiting in sync() for a sequence number up to the end of that batch.
+ * The more sessions there are, the bigger the batches get, so the fsyncs
+ * don't get any more frequent.
+ *
+ * Each batch is an int with its length and an int with its CRC-32C,
+ * followed by its records. A record is the session (a varint), a type
+ * byte and then, for START, the width, height and player count (a varint
+ * each), or for MOVE, the square (a varint). UNDO and END have nothing else.
+ * A batch that was only partly written when the process died fails its
+ * check, so recovery stops there and cuts it off.
+ *
+ * Sessions that ended stay in the file until it's compacted, so recovery
+ * gets slower as the history grows. compact() rewrites the file with only
+ * the sessions that are still going (and only the moves that weren't undone),
+ * so starting up with compact() instead of recover() keeps the file (and
+ * the next recovery) about as big as the games that are actually open.
+ *
+ * @version 2026-10-18
+ */
+public class MoveJournal implements Closeable {
+  /**
+   * A session started from the initial board
+   */
+  public static final byte START = 1;
+  /**
+   * A move was made
+   */
+  public static final byte MOVE = 2;
+  /**
+   * The last move was undone
+   */
+  public static final byte UNDO = 3;
+  /**
+   * A session ended and doesn't need to be recovered
+   */
+  public static final byte END = 4;
+  /**
+   * The size of a batch header
+   */
+  private static final int HEADER_SIZE = 8;
+  /**
+   * The size of each buffer (the largest a batch can be)
+   */
+  private static final int BUFFER_SIZE = 1 << 20;
+  /**
+   * The largest a record can be
+   */
+  private static final int MAX_RECORD = 32;
+
+  /**
+   * The file
+   */
+  private final FileChannel channel;
+  /**
+   * Guards everything below
+   */
+  private final ReentrantLock lock = new ReentrantLock();
+  /**
+   * Signalled when there's something for the writer to write
+   */
+  private final Condition hasRecords = lock.newCondition();
+  /**
+   * Signalled when the writer has made room in the buffer
+   */
+  private final Condition hasRoom = lock.newCondition();
+  /**
+   * Signalled when a batch is on disk
+   */
+  private final Condition flushed = lock.newCondition();
+  /**
+   * Where new records go, after room for the batch header
+   */
+  private ByteBuffer pending = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  /**
+   * The buffer being written, which is swapped with pending for each batch
+   */
+  private ByteBuffer writing = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  /**
+   * The sequence number of the last record appended
+   */
+  private long appended = 0;
+  /**
+   * The sequence number of the last record on disk
+   */
+  private long durable = 0;
+  /**
+   * The number of batches written
+   */
+  private long batches = 0;
+  /**
+   * What went wrong in the writer, if anything
+   */
+  private IOException failure = null;
+  /**
+   * Whether the journal has been closed
+   */
+  private boolean closed = false;
+  /**
+   * The writer thread
+   */
+  private final Thread writer;
+
+  /**
+   * Opens a journal to add to
+   *
+   * Call recover() first if the file might already have games in it,
+   * since that also cuts off anything left half-written by a crash
+   *
+   * @param path the file
+   * @throws IOException if the file can't be opened
+   */
+  public MoveJournal(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    channel.position(channel.size());
+    pending.position(HEADER_SIZE);
+    writer = new Thread(this::write, "move-journal");
+    writer.setDaemon(true);
+    writer.start();
+  }
+
+  /**
+   * Records that a session started from the initial board
+   *
+   * @param session the session
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @return the sequence number to pass to sync()
+   * @throws IOException if the journal can't be written
+   */
+  public long start(int session, int width, int height, int playerCount) throws IOException {
+    lock.lock();
+
+    try {
+      ByteBuffer buffer = reserve();
+      putVarint(buffer, session);
+      buffer.put(START);
+      // A byte each would be enough for most boards, but not for all of them
+      putVarint(buffer, width);
+      putVarint(buffer, height);
+      putVarint(buffer, playerCount);
+      return finish();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Records a move
+   *
+   * @param session the session
+   * @param square the square of the move
+   * @return the sequence number to pass to sync()
+   * @throws IOException if the journal can't be written
+   */
+  public long move(int session, int square) throws IOException {
+    lock.lock();
+
+    try {
+      ByteBuffer buffer = reserve();
+      putVarint(buffer, session);
+      buffer.put(MOVE);
+      putVarint(buffer, square);
+      return finish();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Records that the last move was undone
+   *
+   * @param session the session
+   * @return the sequence number to pass to sync()
+   * @throws IOException if the journal can't be written
+   */
+  public long undo(int session) throws IOException {
+    return append(session, UNDO);
+  }
+
+  /**
+   * Records that a session ended
+   *
+   * @param session the session
+   * @return the sequence number to pass to sync()
+   * @throws IOException if the journal can't be written
+   */
+  public long end(int session) throws IOException {
+    return append(session, END);
+  }
+
+  /**
+   * Appends a record with nothing but a type
+   *
+   * @param session the session
+   * @param type the type
+   * @return the sequence number
+   * @throws IOException if the journal can't be written
+   */
+  private long append(int session, byte type) throws IOException {
+    lock.lock();
+
+    try {
+      ByteBuffer buffer = reserve();
+      putVarint(buffer, session);
+      buffer.put(type);
+      return finish();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Waits for room for a record (the lock must be held)
+   *
+   * @return the buffer to put the record in
+   * @throws IOException if the journal is closed or broken
+   */
+  private ByteBuffer reserve() throws IOException {
+    while (true) {
+      if (failure != null) {
+        throw failure;
+      } else if (closed) {
+        throw new IOException("The journal is closed");
+      } else if (pending.remaining() >= MAX_RECORD) {
+        return pending;
+      }
+
+      hasRoom.awaitUninterruptibly();
+    }
+  }
+
+  /**
+   * Counts a record that was just put in the buffer (the lock must be held)
+   *
+   * @return its sequence number
+   */
+  private long finish() {
+    appended++;
+    hasRecords.signal();
+    return appended;
+  }
+
+  /**
+   * Waits until a record and everything before it is on disk
+   *
+   * @param sequence the sequence number of the record
+   * @throws IOException if the journal couldn't be written
+   */
+  public void sync(long sequence) throws IOException {
+    lock.lock();
+
+    try {
+      while (durable < sequence) {
+        if (failure != null) {
+          throw failure;
+        }
+
+        flushed.awaitUninterruptibly();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Gets the number of batches written so far
+   *
+   * @return the number of batches
+   */
+  public long getBatchCount() {
+    lock.lock();
+
+    try {
+      return batches;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Writes batches until the journal is closed
+   */
+  private void write() {
+    CRC32C crc = new CRC32C();
+
+    while (true) {
+      long end;
+
+      lock.lock();
+
+      try {
+        while (pending.position() == HEADER_SIZE && !closed) {
+          hasRecords.awaitUninterruptibly();
+        }
+
+        if (pending.position() == HEADER_SIZE) {
+          return;
+        }
+
+        // Swap the buffers, so new records can go in while this batch is written
+        ByteBuffer full = pending;
+        pending = writing;
+        writing = full;
+        pending.clear().position(HEADER_SIZE);
+        end = appended;
+        hasRoom.signalAll();
+      } finally {
+        lock.unlock();
+      }
+
+      IOException error = null;
+
+      try {
+        writing.flip();
+        int length = writing.limit() - HEADER_SIZE;
+        crc.reset();
+        crc.update(writing.slice(HEADER_SIZE, length));
+        writing.putInt(0, length).putInt(4, (int) crc.getValue());
+
+        while (writing.hasRemaining()) {
+          channel.write(writing);
+        }
+
+        // The data is all that matters, so there's no need to flush the file's metadata too
+        channel.force(false);
+      } catch (IOException e) {
+        error = e;
+      }
+
+      lock.lock();
+
+      try {
+        if (error != null) {
+          failure = error;
+        } else {
+          durable = end;
+          batches++;
+        }
+
+        flushed.signalAll();
+        hasRoom.signalAll();
+
+        if (error != null) {
+          return;
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /**
+   * Writes out everything that has been appended and closes the file
+   *
+   * @throws IOException if the file can't be closed
+   */
+  public void close() throws IOException {
+    lock.lock();
+
+    try {
+      closed = true;
+      hasRecords.signal();
+    } finally {
+      lock.unlock();
+    }
+
+    try {
+      writer.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    channel.close();
+  }
+
+  /**
+   * Writes a varint
+   *
+   * @param buffer the buffer
+   * @param value the number, which must not be negative
+   */
+  private static void putVarint(ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) (value & 0x7F | 0x80));
+      value >>>= 7;
+    }
+
+    buffer.put((byte) value);
+  }
+
+  /**
+   * Reads a varint
+   *
+   * @param buffer the buffer
+   * @return the number
+   */
+  private static int getVarint(ByteBuffer buffer) {
+    int value = 0;
+
+    for (int shift = 0; ; shift += 7) {
+      byte b = buffer.get();
+      value |= (b & 0x7F) << shift;
+
+      if (b >= 0) {
+        return value;
+      }
+    }
+  }
+
+  /**
+   * Rebuilds every session that hadn't ended from a journal
+   *
+   * The file is read once, from front to back, sorting each record into
+   * its session, and then the sessions are replayed on every thread at once.
+   * If the end of the file was only partly written, it's cut off.
+   *
+   * @param path the file
+   * @param threads the number of threads replaying sessions
+   * @return every session that hadn't ended, by number, with its whole log
+   * @throws Exception if the file can't be read or a session can't be replayed
+   */
+  public static ConcurrentHashMap<Integer, Othello> recover(Path path, int threads) throws Exception {
+    ConcurrentHashMap<Integer, Othello> games = new ConcurrentHashMap<Integer, Othello>();
+
+    if (!Files.exists(path)) {
+      return games;
+    }
+
+    // Each session's size and player count, and its moves (with -1 for an undo)
+    HashMap<Integer, int[]> starts = new HashMap<Integer, int[]>();
+    HashMap<Integer, int[]> moves = new HashMap<Integer, int[]>();
+    HashMap<Integer, Integer> moveCounts = new HashMap<Integer, Integer>();
+    CRC32C crc = new CRC32C();
+    long good = 0;
+
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      ByteBuffer batch = ByteBuffer.allocate(BUFFER_SIZE);
+
+      while (true) {
+        header.clear();
+
+        if (readFully(channel, header, good) < HEADER_SIZE) {
+          break;
+        }
+
+        int length = header.getInt(0);
+
+        if (length < 0 || length > BUFFER_SIZE - HEADER_SIZE) {
+          break;
+        }
+
+        batch.clear().limit(length);
+
+        if (readFully(channel, batch, good + HEADER_SIZE) < length) {
+          break;
+        }
+
+        batch.flip();
+        crc.reset();
+        crc.update(batch.duplicate());
+
+        if ((int) crc.getValue() != header.getInt(4)) {
+          break;
+        }
+
+        while (batch.hasRemaining()) {
+          int session = getVarint(batch);
+          byte type = batch.get();
+
+          if (type == START) {
+            starts.put(session, new int[] {getVarint(batch), getVarint(batch), getVarint(batch)});
+            moves.put(session, new int[16]);
+            moveCounts.put(session, 0);
+          } else if (type == MOVE || type == UNDO) {
+            int move = type == MOVE ? getVarint(batch) : -1;
+            int[] list = moves.get(session);
+
+            if (list == null) {
+              continue;
+            }
+
+            int count = moveCounts.get(session);
+
+            if (count == list.length) {
+              list = Arrays.copyOf(list, count * 2);
+              moves.put(session, list);
+            }
+
+            list[count] = move;
+            moveCounts.put(session, count + 1);
+          } else if (type == END) {
+            starts.remove(session);
+            moves.remove(session);
+            moveCounts.remove(session);
+          }
+        }
+
+        good += HEADER_SIZE + length;
+      }
+
+      // Whatever comes after the last good batch never finished being written
+      if (good < channel.size()) {
+        channel.truncate(good);
+        channel.force(true);
+      }
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+
+    try {
+      for (int session : starts.keySet()) {
+        int[] start = starts.get(session);
+        int[] list = moves.get(session);
+        int count = moveCounts.get(session);
+        results.add(pool.submit(() -> {
+          Othello othello = new Othello(start[0], start[1], start[2]);
+          othello.setInitialBoard();
+
+          for (int i = 0; i < count; i++) {
+            if (list[i] == -1) {
+              othello.undo();
+            } else if (othello.getTurn() != -1 && othello.isLegal(list[i], othello.getTurn() + 1)) {
+              othello.makeMove(list[i]);
+            } else {
+              throw new IOException("Session " + session + " has an illegal move " + list[i]);
+            }
+          }
+
+          games.put(session, othello);
+          return null;
+        }));
+      }
+
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    return games;
+  }
+
+  /**
+   * Rebuilds every session that hadn't ended, and rewrites the journal with only those
+   *
+   * Each session is written as its start and the moves in its log, so ended
+   * sessions and undone moves are left out. The new journal is written to
+   * a temporary file and moved over the old one, so a crash part of the way
+   * through leaves one or the other, never a mix. Nothing may be writing to
+   * the journal while it's compacted.
+   *
+   * @param path the file
+   * @param threads the number of threads replaying sessions
+   * @return every session that hadn't ended, by number, with its whole log
+   * @throws Exception if the file can't be read or written or a session can't be replayed
+   */
+  public static ConcurrentHashMap<Integer, Othello> compact(Path path, int threads) throws Exception {
+    ConcurrentHashMap<Integer, Othello> games = recover(path, threads);
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    Files.deleteIfExists(temporary);
+
+    try (MoveJournal journal = new MoveJournal(temporary)) {
+      for (Map.Entry<Integer, Othello> entry : games.entrySet()) {
+        Othello othello = entry.getValue();
+        journal.start(entry.getKey(), othello.getWidth(), othello.getHeight(), othello.getPlayerCount());
+
+        for (int i = 0; i < othello.getLogSize(); i++) {
+          journal.move(entry.getKey(), othello.getMove(i));
+        }
+      }
+    }
+
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    Path directory = path.toAbsolutePath().getParent();
+
+    // The move itself only lasts once the directory is on disk too
+    try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+      channel.force(true);
+    } catch (IOException e) {
+      // Some systems can't open a directory, and there's nothing more to be done there
+    }
+
+    return games;
+  }
+
+  /**
+   * Reads from a file until the buffer is full or the file ends
+   *
+   * @param channel the file
+   * @param buffer the buffer
+   * @param position where to start reading
+   * @return the number of bytes read
+   * @throws IOException if the file can't be read
+   */
+  private static int readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+    int total = 0;
+
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + total);
+
+      if (read == -1) {
+        break;
+      }
+
+      total += read;
+    }
+
+    return total;
+  }
+
+  /**
+   * Plays random moves in lots of sessions at once, journalling them,
+   * then recovers every session and checks it against the real thing,
+   * and then does the same again after compacting the journal
+   *
+   * Each thread plays like an event loop: it makes one move in each of its
+   * sessions, then waits for all of them to be on disk before the next round
+   *
+   * @param args --journal, --sessions, --threads and --rounds
+   * @throws Exception if the journal can't be written or doesn't recover
+   */
+  public static void main(String[] args) throws Exception {
+    Path path = Paths.get("moves.journal");
+    int sessions = 10000;
+    int threads = 4;
+    int rounds = 20;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--journal".equals(args[i])) {
+        path = Paths.get(args[i + 1]);
+        continue;
+      }
+
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--sessions".equals(args[i])) {
+        sessions = value;
+      } else if ("--threads".equals(args[i])) {
+        threads = value;
+      } else if ("--rounds".equals(args[i])) {
+        rounds = value;
+      }
+    }
+
+    Files.deleteIfExists(path);
+    Othello[] games = new Othello[sessions];
+    MoveJournal journal = new MoveJournal(path);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    ArrayList<Future<Long>> results = new ArrayList<Future<Long>>();
+    long start = System.nanoTime();
+
+    for (int t = 0; t < threads; t++) {
+      int first = t;
+      int step = threads;
+      int roundCount = rounds;
+      results.add(pool.submit(() -> {
+        Random random = new Random(first);
+        int[] moves = new int[64];
+        long count = 0;
+        long last = 0;
+
+        for (int session = first; session < games.length; session += step) {
+          games[session] = new Othello(8, 8, 2);
+          games[session].setInitialBoard();
+          last = journal.start(session, 8, 8, 2);
+        }
+
+        for (int round = 0; round < roundCount; round++) {
+          for (int session = first; session < games.length; session += step) {
+            Othello othello = games[session];
+
+            if (othello.getTurn() != -1) {
+              int move = moves[random.nextInt(othello.getMoves(othello.getTurn() + 1, moves))];
+              othello.makeMove(move);
+              last = journal.move(session, move);
+              count++;
+
+              // Finished games are ended, so compacting has something to drop
+              if (othello.getTurn() == -1) {
+                last = journal.end(session);
+              }
+            }
+          }
+
+          journal.sync(last);
+        }
+
+        return count;
+      }));
+    }
+
+    long moves = 0;
+
+    for (Future<Long> result : results) {
+      moves += result.get();
+    }
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    pool.shutdown();
+    long batches = journal.getBatchCount();
+    journal.close();
+    System.out.println(String.format("%d moves in %.2f s (%.0f moves/s) in %d batches, %d bytes",
+      moves, seconds, moves / seconds, batches, Files.size(path)));
+
+    int cores = Runtime.getRuntime().availableProcessors();
+    start = System.nanoTime();
+    ConcurrentHashMap<Integer, Othello> recovered = recover(path, cores);
+    seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("%d sessions recovered in %.2f s, %d wrong",
+      recovered.size(), seconds, countWrong(recovered, games)));
+
+    long size = Files.size(path);
+    start = System.nanoTime();
+    compact(path, cores);
+    seconds = (System.nanoTime() - start) / 1e9;
+    recovered = recover(path, cores);
+    System.out.println(String.format("Compacted from %d to %d bytes in %.2f s, %d sessions recovered, %d wrong",
+      size, Files.size(path), seconds, recovered.size(), countWrong(recovered, games)));
+  }
+
+  /**
+   * Counts the sessions that didn't recover as they really were
+   *
+   * @param recovered the sessions that were recovered
+   * @param games the real games, where a finished game should not have been recovered
+   * @return the number of sessions that are missing, extra or different
+   */
+  private static int countWrong(Map<Integer, Othello> recovered, Othello[] games) {
+    int wrong = 0;
+
+    for (int session = 0; session < games.length; session++) {
+      Othello othello = recovered.get(session);
+
+      if (games[session].getTurn() == -1) {
+        wrong += othello == null ? 0 : 1;
+      } else if (othello == null || othello.getHash() != games[session].getHash()
+          || othello.getLogSize() != games[session].getLogSize()) {
+        wrong++;
+      }
+    }
+
+    return wrong;
+  }
+}
@@ -0,0 +1,161 @@
+import java.util.*;
+
+/**
+ * A log of moves that only remembers what changed
+ *
+ * Every entry is the square where a tile was placed, the turn before it
+ * was placed, and each captured square along with its previous value.
+ * Everything lives in int arrays that grow as needed, so undoing a move
+ * only touches the squares that it changed.
+ *
+ * @version 2026-10-18
+ */
+public class MoveLog {
+  /**
+   * The square where each tile was placed
+   */
+  private int[] squares = new int[64];
+  /**
+   * The turn before each move was made
+   */
+  private int[] turns = new int[64];
+  /**
+   * Where the captures of each move start in flips
+   * (the captures of the last move end at flipCount)
+   */
+  private int[] flipStarts = new int[64];
+  // The previous value of a square always fits in 4 bits,
+  // so it is stored in the same int as the square
+  /**
+   * The captured squares of every move, one after another
+   */
+  private int[] flips = new int[256];
+  /**
+   * The number of moves in the log
+   */
+  private int size = 0;
+  /**
+   * The number of captures in the log
+   */
+  private int flipCount = 0;
+
+  public MoveLog() {}
+
+  /**
+   * Gets the number of moves in the log
+   *
+   * @return the number of moves
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Starts a new entry for a move
+   *
+   * @param square the square where the tile was placed
+   * @param turn the turn before the move was made
+   */
+  public void push(int square, int turn) {
+    if (size == squares.length) {
+      squares = Arrays.copyOf(squares, size * 2);
+      turns = Arrays.copyOf(turns, size * 2);
+      flipStarts = Arrays.copyOf(flipStarts, size * 2);
+    }
+
+    squares[size] = square;
+    turns[size] = turn;
+    flipStarts[size] = flipCount;
+    size++;
+  }
+
+  /**
+   * Adds a captured square to the latest move
+   *
+   * @param square the captured square
+   * @param value the value of the square before it was captured
+   */
+  public void addFlip(int square, int value) {
+    if (flipCount == flips.length) {
+      flips = Arrays.copyOf(flips, flipCount * 2);
+    }
+
+    flips[flipCount++] = (square << 4) | value;
+  }
+
+  /**
+   * Removes the latest move
+   */
+  public void pop() {
+    size--;
+    flipCount = flipStarts[size];
+  }
+
+  /**
+   * Removes every move
+   */
+  public void clear() {
+    size = 0;
+    flipCount = 0;
+  }
+
+  /**
+   * Gets the square where a tile was placed
+   *
+   * @param index the index of the move
+   * @return the square
+   */
+  public int getSquare(int index) {
+    return squares[index];
+  }
+
+  /**
+   * Gets the turn before a move was made
+   *
+   * @param index the index of the move
+   * @return the turn
+   */
+  public int getTurn(int index) {
+    return turns[index];
+  }
+
+  /**
+   * Gets where the captures of a move start
+   *
+   * @param index the index of the move
+   * @return the index of the first capture
+   */
+  public int getFlipStart(int index) {
+    return flipStarts[index];
+  }
+
+  /**
+   * Gets where the captures of a move end
+   *
+   * @param index the index of the move
+   * @return the index after the last capture
+   */
+  public int getFlipEnd(int index) {
+    return index + 1 < size ? flipStarts[index + 1] : flipCount;
+  }
+
+  /**
+   * Gets a captured square
+   *
+   * @param flip the index of the capture
+   * @return the captured square
+   */
+  public int getFlipSquare(int flip) {
+    return flips[flip] >>> 4;
+  }
+
+  /**
+   * Gets the value that a captured square had before it was captured
+   *
+   * @param flip the index of the capture
+   * @return the previous value
+   */
+  public int getFlipValue(int flip) {
+    return flips[flip] & 15;
+  }
+}
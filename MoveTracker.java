@@ -0,0 +1,264 @@
+/**
+ * Keeps track of every player's legal moves as the board changes
+ *
+ * A move can only become legal or illegal if something changed
+ * along one of its rays. So whenever a square changes, we walk outwards
+ * from it over occupied squares, and the first empty square in each
+ * direction is the only one that needs to be checked again.
+ * Everything else stays exactly as it was.
+ *
+ * @version 2026-10-18
+ */
+public class MoveTracker {
+  /**
+   * The game being tracked
+   */
+  private Othello othello;
+  /**
+   * The number of players
+   */
+  private int playerCount;
+  /**
+   * The rays of squares for the board
+   */
+  private Rays rays;
+  /**
+   * Every empty square next to at least one tile,
+   * since those are the only squares that could ever be moves
+   */
+  private SquareSet frontier;
+  /**
+   * The legal moves of each player
+   */
+  private SquareSet[] legal;
+  /**
+   * The squares that must be checked again
+   */
+  private int[] dirty;
+  /**
+   * The number of squares that must be checked again
+   */
+  private int dirtyCount = 0;
+  // Instead of clearing a boolean array after every refresh,
+  // a square is marked if its stamp matches the current one
+  /**
+   * The stamp of the last refresh that marked each square
+   */
+  private int[] stamps;
+  /**
+   * The current stamp
+   */
+  private int stamp = 1;
+
+  /**
+   * Creates a tracker for an empty board
+   *
+   * @param othello the game to track
+   */
+  public MoveTracker(Othello othello) {
+    int size = othello.getSize();
+    this.othello = othello;
+    this.playerCount = othello.getPlayerCount();
+    this.rays = Rays.get(othello.getWidth(), othello.getHeight());
+    this.frontier = new SquareSet(size);
+    this.legal = new SquareSet[playerCount];
+
+    for (int i = 0; i < playerCount; i++) {
+      legal[i] = new SquareSet(size);
+    }
+
+    this.dirty = new int[size];
+    this.stamps = new int[size];
+  }
+
+  /**
+   * Records that a square has changed
+   *
+   * Nothing is checked until the moves are asked for,
+   * so a whole move (or several undos) is handled in one go
+   *
+   * @param square the square that changed
+   */
+  public void markChanged(int square) {
+    mark(square);
+    int[] starts = rays.starts;
+    int[] squares = rays.squares;
+    int base = square * Rays.DIRECTIONS;
+
+    for (int dir = 0; dir < Rays.DIRECTIONS; dir++) {
+      int end = starts[base + dir + 1];
+
+      for (int i = starts[base + dir]; i < end; i++) {
+        if (othello.getValue(squares[i]) == 0) {
+          mark(squares[i]);
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Takes on the moves of another tracker, for when its whole board
+   * has been copied into this one's
+   *
+   * The other tracker catches up first, so that what's copied is right
+   * and nothing here has to be checked again
+   *
+   * @param other the tracker to copy from
+   */
+  public void copyFrom(MoveTracker other) {
+    other.refresh();
+    frontier.copyFrom(other.frontier);
+
+    for (int player = 0; player < playerCount; player++) {
+      legal[player].copyFrom(other.legal[player]);
+    }
+  }
+
+  /**
+   * Adds a square to the ones that must be checked again
+   *
+   * @param square the square
+   */
+  private void mark(int square) {
+    if (stamps[square] != stamp) {
+      stamps[square] = stamp;
+      dirty[dirtyCount++] = square;
+    }
+  }
+
+  /**
+   * Checks every square that might have changed
+   */
+  private void refresh() {
+    if (dirtyCount == 0) {
+      return;
+    }
+
+    for (int i = 0; i < dirtyCount; i++) {
+      int square = dirty[i];
+      boolean isCandidate = othello.getValue(square) == 0 && hasNeighbour(square);
+      int players = 0;
+
+      if (isCandidate) {
+        frontier.add(square);
+        players = getLegalPlayers(square);
+      } else {
+        frontier.remove(square);
+      }
+
+      for (int player = 0; player < playerCount; player++) {
+        if ((players & (1 << player)) != 0) {
+          legal[player].add(square);
+        } else {
+          legal[player].remove(square);
+        }
+      }
+    }
+
+    dirtyCount = 0;
+    stamp++;
+  }
+
+  /**
+   * Finds every player who could move on an empty square
+   *
+   * Walking each ray once is enough for every player at the same time.
+   * A player can capture along a ray if the first tile isn't theirs
+   * and one of their tiles shows up later on, before any empty square.
+   *
+   * @param square the square
+   * @return a bitmask where bit k is set if player k could move there
+   */
+  private int getLegalPlayers(int square) {
+    int[] starts = rays.starts;
+    int[] squares = rays.squares;
+    int base = square * Rays.DIRECTIONS;
+    int players = 0;
+
+    for (int dir = 0; dir < Rays.DIRECTIONS; dir++) {
+      int start = starts[base + dir];
+      int end = starts[base + dir + 1];
+
+      if (start == end) {
+        continue;
+      }
+
+      int first = othello.getValue(squares[start]);
+
+      if (first == 0) {
+        continue;
+      }
+
+      int seen = 0;
+
+      for (int i = start + 1; i < end; i++) {
+        int value = othello.getValue(squares[i]);
+
+        if (value == 0) {
+          break;
+        }
+
+        seen |= 1 << (value - 1);
+      }
+
+      players |= seen & ~(1 << (first - 1));
+    }
+
+    return players;
+  }
+
+  /**
+   * Checks if a square has a tile right next to it
+   *
+   * @param square the square
+   * @return whether or not there is a neighbouring tile
+   */
+  private boolean hasNeighbour(int square) {
+    int[] starts = rays.starts;
+    int base = square * Rays.DIRECTIONS;
+
+    for (int dir = 0; dir < Rays.DIRECTIONS; dir++) {
+      int start = starts[base + dir];
+
+      if (start < starts[base + dir + 1] && othello.getValue(rays.squares[start]) != 0) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Gets the number of legal moves of an attacker
+   *
+   * @param attacker the attacker
+   * @return the number of legal moves
+   */
+  public int getMoveCount(int attacker) {
+    refresh();
+    return legal[attacker - 1].size();
+  }
+
+  /**
+   * Writes every legal move of an attacker into a buffer
+   *
+   * @param attacker the attacker
+   * @param moves the buffer that the moves are written to
+   * @return the number of moves
+   */
+  public int getMoves(int attacker, int[] moves) {
+    refresh();
+    return legal[attacker - 1].copyInto(moves);
+  }
+
+  /**
+   * Gets the empty squares next to at least one tile
+   *
+   * @return the frontier
+   */
+  public SquareSet getFrontier() {
+    refresh();
+    return frontier;
+  }
+}
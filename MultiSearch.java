@@ -0,0 +1,713 @@
+import java.util.*;
+
+/**
+ * A computer player for games with any number of players
+ *
+ * Alpha-beta only works when one player's gain is the other's loss,
+ * so it can't be used directly when there are three or four players.
+ * There are two ways around that here:
+ *
+ * Max^n scores every position for every player at once, as shares of
+ * a fixed total, and each player picks the move that's best for themselves.
+ * Because the shares always add up to the same total, a player who
+ * already has more than what's left over for the player before them
+ * can stop looking (shallow pruning).
+ *
+ * Paranoid assumes that everyone else is working together against us,
+ * which turns the game back into a two sided one where alpha-beta works.
+ *
+ * Either way, the player to move is always whoever Othello says it is,
+ * so skipped turns are handled for free.
+ *
+ * @version 2026-10-18
+ */
+public class MultiSearch {
+  /**
+   * Every player looks out for themselves
+   */
+  public static final int MAX_N = 0;
+  /**
+   * Everyone else is against the player at the root
+   */
+  public static final int PARANOID = 1;
+  /**
+   * The total that every player's shares add up to in max^n
+   */
+  public static final int TOTAL = 1000000;
+  /**
+   * The limits are checked whenever the node count is a multiple of this plus one
+   */
+  private static final int CHECK_INTERVAL = 1023;
+
+  /**
+   * The game being searched (always put back the way it was)
+   */
+  private Othello othello;
+  /**
+   * Scores positions when there's no time to look any further
+   */
+  private Evaluator evaluator;
+  /**
+   * MAX_N or PARANOID
+   */
+  private int mode;
+  /**
+   * The number of players
+   */
+  private int playerCount;
+  /**
+   * The player at the root
+   */
+  private int root;
+  /**
+   * The moves at each ply
+   */
+  private int[][] moves;
+  /**
+   * The ordering score of each move at each ply
+   */
+  private int[][] orders;
+  /**
+   * The best score for every player at each ply (only for max^n)
+   */
+  private int[][] vectors;
+  /**
+   * The raw evaluations of every player, before they're turned into shares
+   */
+  private int[] evaluations;
+  /**
+   * The best line found from each ply
+   */
+  private int[][] pv;
+  /**
+   * Where the best line from each ply ends
+   */
+  private int[] pvLength;
+  /**
+   * The best line from the last completed pass
+   */
+  private int[] previousPv = new int[0];
+  /**
+   * Whether the current node is on the best line from the last pass
+   */
+  private boolean isFollowingPv;
+  /**
+   * How often each move was the best, by player and then square
+   */
+  private int[][] history;
+  /**
+   * The number of positions searched
+   */
+  private long nodes;
+  /**
+   * The number of positions to stop at
+   */
+  private long nodeLimit;
+  /**
+   * The time to stop at
+   */
+  private long deadline;
+  /**
+   * Whether the search should stop as soon as possible
+   */
+  private volatile boolean isStopped;
+
+  /**
+   * Creates a search for a game
+   *
+   * @param othello the game to search (it is changed while searching)
+   * @param evaluator the evaluation to use
+   * @param mode MAX_N or PARANOID
+   */
+  public MultiSearch(Othello othello, Evaluator evaluator, int mode) {
+    int size = othello.getSize();
+    int plies = Math.min(size, Search.MAX_PLY) + 1;
+    this.othello = othello;
+    this.evaluator = evaluator;
+    this.mode = mode;
+    this.playerCount = othello.getPlayerCount();
+    this.moves = new int[plies][size];
+    this.orders = new int[plies][size];
+    this.vectors = new int[plies + 1][playerCount];
+    this.evaluations = new int[playerCount];
+    this.pv = new int[plies][plies];
+    this.pvLength = new int[plies + 1];
+    this.history = new int[playerCount][size];
+  }
+
+  /**
+   * Searches for the best move within a time limit
+   *
+   * @param time the time limit, in milliseconds
+   * @return the result of the search
+   */
+  public SearchResult search(long time) {
+    return search(time, Long.MAX_VALUE, othello.getSize());
+  }
+
+  /**
+   * Searches for the best move
+   *
+   * The result's scores hold a score for every player. In max^n, they are
+   * shares of TOTAL. In paranoid mode, they are the evaluation of each
+   * player at the end of the best line.
+   *
+   * @param time the time limit, in milliseconds
+   * @param nodeLimit the number of positions to stop at
+   * @param maxDepth the deepest pass to make
+   * @return the result of the search
+   */
+  public SearchResult search(long time, long nodeLimit, int maxDepth) {
+    long start = System.nanoTime();
+    SearchResult result = new SearchResult();
+    this.deadline = start + time * 1000000;
+    this.nodeLimit = nodeLimit;
+    this.nodes = 0;
+    this.previousPv = new int[0];
+    this.root = othello.getTurn();
+
+    if (root == -1 || !othello.hasMoves(root + 1)) {
+      isStopped = false;
+      return result;
+    }
+
+    othello.getMoves(root + 1, moves[0]);
+    result.bestMove = moves[0][0];
+    result.principalVariation = new int[] {result.bestMove};
+    result.scores = new int[playerCount];
+    int empty = othello.getStatistics().getEmptyCount();
+    maxDepth = Math.min(maxDepth, Math.min(empty, Search.MAX_PLY));
+
+    for (int depth = 1; depth <= maxDepth; depth++) {
+      isFollowingPv = true;
+      int score;
+
+      if (mode == PARANOID) {
+        score = paranoid(depth, 0, -Search.INFINITY, Search.INFINITY);
+      } else {
+        maxn(depth, 0, -1, -1);
+        score = vectors[0][root];
+      }
+
+      if (isStopped) {
+        break;
+      }
+
+      result.depth = depth;
+      result.score = score;
+      result.principalVariation = Arrays.copyOf(pv[0], pvLength[0]);
+      result.bestMove = result.principalVariation[0];
+      previousPv = result.principalVariation;
+
+      if (mode == PARANOID) {
+        result.scores = evaluateLine(result.principalVariation);
+      } else {
+        result.scores = vectors[0].clone();
+      }
+
+      if (System.nanoTime() - start > (deadline - start) / 2) {
+        break;
+      }
+    }
+
+    result.nodes = nodes;
+    result.time = (System.nanoTime() - start) / 1000000;
+    isStopped = false;
+    return result;
+  }
+
+  /**
+   * Stops a search that is running on another thread,
+   * or the next one to start if none is running
+   */
+  public void stop() {
+    isStopped = true;
+  }
+
+  /**
+   * Finds the best scores for every player, assuming each looks out for themselves
+   *
+   * The result is left in vectors[ply]
+   *
+   * @param depth the number of moves left to look at
+   * @param ply the number of moves from the root
+   * @param parent the player who moved into this position, or -1 at the root
+   * @param parentBest the best share the parent already has, or -1 if none
+   */
+  private void maxn(int depth, int ply, int parent, int parentBest) {
+    pvLength[ply] = ply;
+    int[] vector = vectors[ply];
+
+    if (countNode()) {
+      return;
+    }
+
+    int player = othello.getTurn();
+
+    if (depth == 0) {
+      getShares(vector);
+      return;
+    }
+
+    int[] list = moves[ply];
+    int count = orderMoves(ply, player);
+    boolean isOnPv = isFollowingPv;
+    int pvMove = isOnPv && ply < previousPv.length ? previousPv[ply] : -1;
+    int best = -1;
+    int[] child = vectors[ply + 1];
+
+    for (int i = 0; i < count; i++) {
+      pickNext(list, orders[ply], i, count);
+      int move = list[i];
+      isFollowingPv = isOnPv && move == pvMove;
+      pvLength[ply + 1] = ply + 1;
+
+      if (othello.makeMove(move) == -1) {
+        getFinalShares(child);
+      } else {
+        maxn(depth - 1, ply + 1, player, best);
+      }
+
+      othello.undo();
+
+      if (isStopped) {
+        return;
+      }
+
+      if (child[player] > best) {
+        best = child[player];
+        System.arraycopy(child, 0, vector, 0, playerCount);
+        updatePv(ply, move);
+        history[player][move] += depth * depth;
+
+        // Whatever we end up with, the player before us can get at most
+        // what's left, which isn't better than what they already have
+        if (parent != -1 && parent != player && parentBest != -1 && best >= TOTAL - parentBest) {
+          return;
+        }
+      }
+    }
+  }
+
+  /**
+   * Scores the position for the root player, assuming everyone else is against them
+   *
+   * @param depth the number of moves left to look at
+   * @param ply the number of moves from the root
+   * @param alpha the score the root player already knows they can get
+   * @param beta the score the others already know they can hold the root player to
+   * @return the score for the root player
+   */
+  private int paranoid(int depth, int ply, int alpha, int beta) {
+    pvLength[ply] = ply;
+
+    if (countNode()) {
+      return 0;
+    }
+
+    int player = othello.getTurn();
+
+    if (depth == 0) {
+      return evaluator.evaluate(othello, root);
+    }
+
+    int[] list = moves[ply];
+    int count = orderMoves(ply, player);
+    boolean isOnPv = isFollowingPv;
+    int pvMove = isOnPv && ply < previousPv.length ? previousPv[ply] : -1;
+    boolean isMaximizing = player == root;
+    int best = isMaximizing ? -Search.INFINITY : Search.INFINITY;
+
+    for (int i = 0; i < count; i++) {
+      pickNext(list, orders[ply], i, count);
+      int move = list[i];
+      isFollowingPv = isOnPv && move == pvMove;
+      pvLength[ply + 1] = ply + 1;
+      int score;
+
+      if (othello.makeMove(move) == -1) {
+        score = getFinalScore();
+      } else {
+        score = paranoid(depth - 1, ply + 1, alpha, beta);
+      }
+
+      othello.undo();
+
+      if (isStopped) {
+        return 0;
+      }
+
+      if (isMaximizing ? score > best : score < best) {
+        best = score;
+        updatePv(ply, move);
+
+        if (isMaximizing) {
+          alpha = Math.max(alpha, score);
+        } else {
+          beta = Math.min(beta, score);
+        }
+
+        if (alpha >= beta) {
+          history[player][move] += depth * depth;
+          break;
+        }
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Counts a node and checks the limits every so often
+   *
+   * @return whether the search has been stopped
+   */
+  private boolean countNode() {
+    nodes++;
+
+    if ((nodes & CHECK_INTERVAL) == 0
+        && (nodes >= nodeLimit || System.nanoTime() > deadline)) {
+      isStopped = true;
+    }
+
+    return isStopped;
+  }
+
+  /**
+   * Generates the moves at a ply and gives each one an ordering score
+   *
+   * @param ply the ply
+   * @param player the player who is moving
+   * @return the number of moves
+   */
+  private int orderMoves(int ply, int player) {
+    int[] list = moves[ply];
+    int[] order = orders[ply];
+    int count = othello.getMoves(player + 1, list);
+    int pvMove = isFollowingPv && ply < previousPv.length ? previousPv[ply] : -1;
+
+    for (int i = 0; i < count; i++) {
+      order[i] = list[i] == pvMove ? Integer.MAX_VALUE : history[player][list[i]];
+    }
+
+    return count;
+  }
+
+  /**
+   * Moves the best remaining move to the front of what's left
+   *
+   * @param list the moves
+   * @param order the ordering score of each move
+   * @param from the first move that hasn't been searched
+   * @param count the number of moves
+   */
+  private static void pickNext(int[] list, int[] order, int from, int count) {
+    int best = from;
+
+    for (int i = from + 1; i < count; i++) {
+      if (order[i] > order[best]) {
+        best = i;
+      }
+    }
+
+    int move = list[from];
+    list[from] = list[best];
+    list[best] = move;
+    int score = order[from];
+    order[from] = order[best];
+    order[best] = score;
+  }
+
+  /**
+   * Makes a move the start of the best line from a ply
+   *
+   * @param ply the ply
+   * @param move the move
+   */
+  private void updatePv(int ply, int move) {
+    pv[ply][ply] = move;
+    int length = pvLength[ply + 1];
+
+    for (int i = ply + 1; i < length; i++) {
+      pv[ply][i] = pv[ply + 1][i];
+    }
+
+    pvLength[ply] = Math.max(length, ply + 1);
+  }
+
+  /**
+   * Turns the evaluation of every player into shares of TOTAL
+   *
+   * Only the differences between the evaluations matter,
+   * so the worst player is given a share of almost nothing
+   *
+   * @param shares the array that the shares are written to
+   */
+  private void getShares(int[] shares) {
+    int lowest = Integer.MAX_VALUE;
+
+    for (int i = 0; i < playerCount; i++) {
+      evaluations[i] = evaluator.evaluate(othello, i);
+      lowest = Math.min(lowest, evaluations[i]);
+    }
+
+    long sum = 0;
+
+    for (int i = 0; i < playerCount; i++) {
+      evaluations[i] = evaluations[i] - lowest + 1;
+      sum += evaluations[i];
+    }
+
+    divide(shares, sum);
+  }
+
+  /**
+   * Turns the tile counts of a finished game into shares of TOTAL
+   *
+   * @param shares the array that the shares are written to
+   */
+  private void getFinalShares(int[] shares) {
+    Statistics statistics = othello.getStatistics();
+    long sum = 0;
+
+    for (int i = 0; i < playerCount; i++) {
+      evaluations[i] = statistics.getCount(i);
+      sum += evaluations[i];
+    }
+
+    divide(shares, sum);
+  }
+
+  /**
+   * Splits TOTAL in proportion to the evaluations
+   *
+   * @param shares the array that the shares are written to
+   * @param sum the sum of the evaluations
+   */
+  private void divide(int[] shares, long sum) {
+    int remaining = TOTAL;
+
+    for (int i = 0; i < playerCount; i++) {
+      shares[i] = (int) ((long) evaluations[i] * TOTAL / sum);
+      remaining -= shares[i];
+    }
+
+    // Rounding leaves a little over, which must go somewhere
+    // so that the shares always add up to exactly TOTAL
+    shares[0] += remaining;
+  }
+
+  /**
+   * Scores a finished game for the root player
+   *
+   * @return WIN plus the lead over the best other player for a win,
+   *   and the negative of that for a loss
+   */
+  private int getFinalScore() {
+    Statistics statistics = othello.getStatistics();
+    int best = 0;
+
+    for (int i = 0; i < playerCount; i++) {
+      if (i != root) {
+        best = Math.max(best, statistics.getCount(i));
+      }
+    }
+
+    int difference = statistics.getCount(root) - best;
+    return Integer.signum(difference) * Search.WIN + difference;
+  }
+
+  /**
+   * Evaluates every player at the end of a line of moves
+   *
+   * @param line the moves
+   * @return the evaluation of every player
+   */
+  private int[] evaluateLine(int[] line) {
+    int[] scores = new int[playerCount];
+    int played = 0;
+
+    while (played < line.length && othello.makeMove(line[played]) != -1) {
+      played++;
+    }
+
+    // If the line ended the game, we still made that last move
+    if (played < line.length) {
+      played++;
+    }
+
+    for (int i = 0; i < playerCount; i++) {
+      scores[i] = evaluator.evaluate(othello, i);
+    }
+
+    for (int i = 0; i < played; i++) {
+      othello.undo();
+    }
+
+    return scores;
+  }
+
+  /**
+   * Scores the position the slow way for paranoid, trying every move with nothing cut off
+   *
+   * @param depth the number of moves left to look at
+   * @return the score for the root player
+   */
+  private int paranoidBruteForce(int depth) {
+    if (depth == 0) {
+      return evaluator.evaluate(othello, root);
+    }
+
+    int player = othello.getTurn();
+    int[] list = new int[othello.getSize()];
+    int count = othello.getMoves(player + 1, list);
+    int best = player == root ? -Search.INFINITY : Search.INFINITY;
+
+    for (int i = 0; i < count; i++) {
+      int score = othello.makeMove(list[i]) == -1 ? getFinalScore() : paranoidBruteForce(depth - 1);
+      othello.undo();
+      best = player == root ? Math.max(best, score) : Math.min(best, score);
+    }
+
+    return best;
+  }
+
+  /**
+   * Scores the position the slow way for max^n, trying every move with nothing cut off
+   *
+   * Max^n doesn't say which of two moves a player picks when they're worth
+   * the same to them but not to everyone else, and search() and this might
+   * pick differently, so any such tie is reported instead of guessed at
+   *
+   * @param depth the number of moves left to look at
+   * @param vector the array that the scores of every player are written to
+   * @return whether some player had to pick between moves like that
+   */
+  private boolean maxnBruteForce(int depth, int[] vector) {
+    if (depth == 0) {
+      getShares(vector);
+      return false;
+    }
+
+    int player = othello.getTurn();
+    int[] list = new int[othello.getSize()];
+    int count = othello.getMoves(player + 1, list);
+    int[] child = new int[playerCount];
+    boolean isTied = false;
+    vector[player] = -1;
+
+    for (int i = 0; i < count; i++) {
+      if (othello.makeMove(list[i]) == -1) {
+        getFinalShares(child);
+      } else {
+        isTied |= maxnBruteForce(depth - 1, child);
+      }
+
+      othello.undo();
+
+      if (child[player] > vector[player]) {
+        System.arraycopy(child, 0, vector, 0, playerCount);
+      } else if (child[player] == vector[player] && !Arrays.equals(child, vector)) {
+        isTied = true;
+      }
+    }
+
+    return isTied;
+  }
+
+  /**
+   * Checks search() against a search with nothing cut off, on random positions
+   *
+   * @param positions the number of positions for each player count
+   * @param maxDepth the deepest search to check
+   * @param seed the seed for the positions
+   * @return {the number of searches checked, the number that didn't match,
+   *   the number of max^n searches skipped because of a tie}
+   */
+  public static long[] verify(int positions, int maxDepth, long seed) {
+    Random random = new Random(seed);
+    long checked = 0;
+    long different = 0;
+    long skipped = 0;
+    int[][] sizes = {{8, 8}, {10, 10}, {10, 8}};
+
+    for (int playerCount = 3; playerCount <= 4; playerCount++) {
+      for (int n = 0; n < positions; n++) {
+        int[] size = sizes[n % sizes.length];
+        Othello othello = new Othello(size[0], size[1], playerCount);
+        othello.setInitialBoard();
+        int[] moves = new int[othello.getSize()];
+
+        // Anywhere from the start to the middle of the game
+        for (int ply = random.nextInt(40); ply > 0 && othello.getTurn() != -1; ply--) {
+          othello.makeMove(moves[random.nextInt(othello.getMoves(othello.getTurn() + 1, moves))]);
+        }
+
+        if (othello.getTurn() == -1) {
+          continue;
+        }
+
+        long hash = othello.getHash();
+
+        for (int depth = 1; depth <= maxDepth; depth++) {
+          for (int mode = MAX_N; mode <= PARANOID; mode++) {
+            MultiSearch search = new MultiSearch(othello, new SimpleEvaluator(), mode);
+            SearchResult result = search.search(Long.MAX_VALUE / 2000000, Long.MAX_VALUE, depth);
+            search.root = othello.getTurn();
+            int expected;
+
+            if (mode == PARANOID) {
+              expected = search.paranoidBruteForce(Math.min(depth, result.depth));
+            } else {
+              int[] vector = new int[playerCount];
+
+              if (search.maxnBruteForce(Math.min(depth, result.depth), vector)) {
+                skipped++;
+                continue;
+              }
+
+              expected = vector[search.root];
+            }
+
+            checked++;
+
+            if (result.score != expected || othello.getHash() != hash) {
+              different++;
+            }
+          }
+        }
+      }
+    }
+
+    return new long[] {checked, different, skipped};
+  }
+
+  /**
+   * Checks max^n and paranoid against searches with nothing cut off
+   *
+   * @param args --verify (the number of positions for each player count)
+   *   and --depth (the deepest search to check)
+   */
+  public static void main(String[] args) {
+    int positions = 20;
+    int maxDepth = 4;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--verify".equals(args[i])) {
+        positions = value;
+      } else if ("--depth".equals(args[i])) {
+        maxDepth = value;
+      }
+    }
+
+    long[] result = verify(positions, maxDepth, 1);
+    System.out.println(String.format("%d searches checked against brute force, %d different, %d max^n ties skipped %s",
+      result[0], result[1], result[2], result[1] == 0 ? "ok" : "FAILED"));
+
+    if (result[1] != 0) {
+      System.exit(1);
+    }
+  }
+}
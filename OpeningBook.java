@@ -0,0 +1,251 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Moves that have worked well from the first positions of the game
+ *
+ * Every game starts from the same layout, so the first few moves get
+ * searched over and over. The book remembers how each move did instead.
+ *
+ * The file starts with a header of six ints: MAGIC, the width, the height,
+ * the number of players, the number of entries and a spare one. Each entry
+ * is a long and four ints: the canonical hash of the position (see Symmetry),
+ * the move (in the canonical position) and its games, wins and draws.
+ * The entries are sorted by hash and then by move, so the book is searched
+ * in place with a binary search on a memory-mapped file. Nothing is read
+ * until it's needed, so even a huge book opens instantly.
+ *
+ * @version 2026-10-18
+ */
+public class OpeningBook {
+  /**
+   * The first int of every book ("OBK1")
+   */
+  public static final int MAGIC = 0x4F424B31;
+  /**
+   * The size of the header, in bytes
+   */
+  public static final int HEADER_SIZE = 24;
+  /**
+   * The size of each entry, in bytes
+   */
+  public static final int ENTRY_SIZE = 24;
+
+  /**
+   * The file, mapped into memory
+   */
+  private final MappedByteBuffer buffer;
+  /**
+   * The width of the board
+   */
+  private final int width;
+  /**
+   * The height of the board
+   */
+  private final int height;
+  /**
+   * The number of players
+   */
+  private final int playerCount;
+  /**
+   * The number of entries
+   */
+  private final int entryCount;
+
+  /**
+   * Opens a book
+   *
+   * @param path the file
+   * @throws IOException if the file can't be read or isn't a book
+   */
+  public OpeningBook(Path path) throws IOException {
+    // The mapping stays valid after the channel is closed
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException(path + " is not an opening book");
+    }
+
+    width = buffer.getInt(4);
+    height = buffer.getInt(8);
+    playerCount = buffer.getInt(12);
+    entryCount = buffer.getInt(16);
+
+    if ((long) HEADER_SIZE + (long) entryCount * ENTRY_SIZE > buffer.capacity()) {
+      throw new IOException(path + " is too short for " + entryCount + " entries");
+    }
+  }
+
+  /**
+   * Gets the width of the board the book is for
+   *
+   * @return the width
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Gets the height of the board the book is for
+   *
+   * @return the height
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Gets the number of players the book is for
+   *
+   * @return the number of players
+   */
+  public int getPlayerCount() {
+    return playerCount;
+  }
+
+  /**
+   * Gets the number of entries
+   *
+   * @return the number of entries
+   */
+  public int getEntryCount() {
+    return entryCount;
+  }
+
+  /**
+   * Gets the canonical hash of an entry
+   *
+   * @param index the index of the entry
+   * @return the hash
+   */
+  public long getHash(int index) {
+    return buffer.getLong(HEADER_SIZE + index * ENTRY_SIZE);
+  }
+
+  /**
+   * Gets the move of an entry, in the canonical position
+   *
+   * @param index the index of the entry
+   * @return the move
+   */
+  public int getMove(int index) {
+    return buffer.getInt(HEADER_SIZE + index * ENTRY_SIZE + 8);
+  }
+
+  /**
+   * Gets the number of games of an entry
+   *
+   * @param index the index of the entry
+   * @return the number of games
+   */
+  public int getGames(int index) {
+    return buffer.getInt(HEADER_SIZE + index * ENTRY_SIZE + 12);
+  }
+
+  /**
+   * Gets the number of wins of an entry
+   *
+   * @param index the index of the entry
+   * @return the number of wins
+   */
+  public int getWins(int index) {
+    return buffer.getInt(HEADER_SIZE + index * ENTRY_SIZE + 16);
+  }
+
+  /**
+   * Gets the number of draws of an entry
+   *
+   * @param index the index of the entry
+   * @return the number of draws
+   */
+  public int getDraws(int index) {
+    return buffer.getInt(HEADER_SIZE + index * ENTRY_SIZE + 20);
+  }
+
+  /**
+   * Finds the first entry whose hash is at least a hash
+   *
+   * @param hash the hash
+   * @return the index of the entry, or the number of entries if there isn't one
+   */
+  private int findFirst(long hash) {
+    int low = 0;
+    int high = entryCount;
+
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+
+      if (getHash(middle) < hash) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+
+    return low;
+  }
+
+  /**
+   * Gets every move the book knows for a position
+   *
+   * @param othello the position
+   * @return the moves, turned to match the position (empty if there are none)
+   */
+  public ArrayList<BookMove> getMoves(Othello othello) {
+    ArrayList<BookMove> moves = new ArrayList<BookMove>();
+
+    if (othello.getWidth() != width || othello.getHeight() != height
+        || othello.getPlayerCount() != playerCount || othello.getTurn() == -1) {
+      return moves;
+    }
+
+    Symmetry symmetry = Symmetry.get(width, height);
+    int symmetries = symmetry.getCanonicalSymmetries(othello);
+    long hash = symmetry.hash(othello, Integer.numberOfTrailingZeros(symmetries));
+    int first = findFirst(hash);
+    int[] legal = new int[othello.getSize()];
+    int legalCount = othello.getMoves(othello.getTurn() + 1, legal);
+
+    // Every legal move is turned into the canonical position and looked up there,
+    // since a move and its mirror image share an entry when the position is
+    // symmetric to itself (and a hash collision can't give us a move that isn't legal)
+    for (int i = 0; i < legalCount; i++) {
+      int move = symmetry.getCanonicalMove(legal[i], symmetries);
+
+      for (int j = first; j < entryCount && getHash(j) == hash; j++) {
+        if (getMove(j) == move) {
+          moves.add(new BookMove(legal[i], getGames(j), getWins(j), getDraws(j)));
+          break;
+        }
+      }
+    }
+
+    return moves;
+  }
+
+  /**
+   * Gets the move that has done best in a position
+   *
+   * @param othello the position
+   * @param minGames the number of games a move needs before it's trusted
+   * @return the move, or -1 if the book doesn't know one
+   */
+  public int getBestMove(Othello othello, int minGames) {
+    int best = -1;
+    double bestScore = -1;
+
+    for (BookMove move : getMoves(othello)) {
+      if (move.games >= minGames && move.getScore() > bestScore) {
+        best = move.move;
+        bestScore = move.getScore();
+      }
+    }
+
+    return best;
+  }
+}
@@ -7,6 +7,11 @@ import java.util.*;
  * @version 2019-01-14
  */
 public class Othello {
+  /**
+   * The most players a game may have, since a square's value
+   * (0 to playerCount) has to fit in the 4 bits that PackedBoard and MoveLog give it
+   */
+  public static final int MAX_PLAYER_COUNT = 15;
   /**
    * The turn number
    */
@@ -30,46 +35,185 @@ public class Othello {
   // This is just because the board is, by default, filled with 0s,
   // so we have to make do
   /**
-   * A 2D array of all spcaes on the board
+   * All spaces on the board, packed into as few bits as possible
+   */
+  private PackedBoard board;
+  /**
+   * A bitboard used instead of the array for the standard 8x8 two player game
+   */
+  private Bitboard bitboard = null;
+  /**
+   * The rays of squares used to find captures on the packed board
+   */
+  private Rays rays;
+  /**
+   * Keeps the legal moves of the packed board up to date
+   */
+  private MoveTracker tracker;
+  /**
+   * Statistics about the position that are kept up to date as tiles change
    */
-  private int[][] board;
-  private ArrayList<Entry> log = new ArrayList<Entry>();
+  private Statistics statistics;
+  /**
+   * The pattern indices of the position, which are only read
+   * (and then kept up to date) once something asks for them
+   */
+  private Patterns patterns = null;
+  /**
+   * The random keys used to hash positions
+   */
+  private Zobrist zobrist;
+  /**
+   * The hash of the position, kept up to date as tiles and turns change
+   */
+  private long hash;
+  /**
+   * Scratch space for the methods that still return lists
+   */
+  private int[] buffer;
+  /**
+   * Everything needed to undo each move
+   */
+  private MoveLog log = new MoveLog();
 
   public Othello(int width, int height) {
-    this.width = width;
-    this.height = height;
-    this.board = new int[width][height];
+    this(width, height, 2);
   }
 
   public Othello(int width, int height, int playerCount) {
+    if (playerCount > MAX_PLAYER_COUNT) {
+      throw new IllegalArgumentException("At most " + MAX_PLAYER_COUNT + " players can play");
+    }
+
     this.width = width;
     this.height = height;
     this.playerCount = playerCount;
-    this.board = new int[width][height];
+
+    // The standard game is by far the most common one,
+    // so it gets its own (much faster) representation
+    if (width == Bitboard.SIZE && height == Bitboard.SIZE && playerCount == 2) {
+      this.bitboard = new Bitboard();
+    } else {
+      this.board = new PackedBoard(width, height, playerCount);
+      this.rays = Rays.get(width, height);
+      this.tracker = new MoveTracker(this);
+    }
+
+    this.buffer = new int[width * height];
+    this.statistics = new Statistics(this);
+    this.zobrist = Zobrist.get(width * height, playerCount);
+    this.hash = zobrist.getTurnKey(turn);
+  }
+
+  /**
+   * Gets the tiles that a game starts with
+   *
+   * @param playerCount the number of players
+   * @return a list of {x, y, player} triplets
+   */
+  public static int[][] getInitialBoard(int playerCount) {
+    // We should basically define an initial board depending
+    // on the number of players manually
+    // I don't know of a mathematical way to generate symmetrical
+    // positions for all possible board sizes and player counts
+    if (playerCount == 2) {
+      return new int[][] {
+        {3, 4, 0},
+        {4, 3, 0},
+        {3, 3, 1},
+        {4, 4, 1}
+      };
+    } else if (playerCount == 3) {
+      return new int[][] {
+        {5, 1, 0}, {6, 2, 0}, {5, 2, 1}, {6, 1, 1},
+        {1, 3, 1}, {2, 4, 1}, {2, 3, 2}, {1, 4, 2},
+        {4, 5, 2}, {5, 6, 2}, {5, 5, 0}, {4, 6, 0}
+      };
+    } else {
+      return new int[][] {
+        {2, 1, 0}, {3, 2, 0}, {3, 1, 1}, {2, 2, 1},
+        {1, 4, 1}, {2, 5, 1}, {2, 4, 2}, {1, 5, 2},
+        {4, 5, 2}, {5, 6, 2}, {5, 5, 3}, {4, 6, 3},
+        {5, 2, 3}, {6, 3, 3}, {6, 2, 0}, {5, 3, 0}
+      };
+    }
+  }
+
+  /**
+   * Places the tiles that a game starts with
+   */
+  public void setInitialBoard() {
+    int[][] initialBoard = getInitialBoard(playerCount);
+
+    for (int i = 0; i < initialBoard.length; i++) {
+      int[] triplet = initialBoard[i];
+      // Since a blank space is 0 in storage (for our purposes)
+      setValue(getSquare(triplet[0], triplet[1]), triplet[2] + 1);
+    }
   }
 
   /**
-   * Reverts the instance to an earlier snapshot
+   * Creates a copy of the current position
+   *
+   * The copy starts with an empty log, so it can't undo past this point.
+   * Nothing is shared, so the copy can be used from another thread.
    *
-   * @param index the index of the entry in the log
+   * @return a copy of the position
+   */
+  public Othello copy() {
+    Othello clone = new Othello(width, height, playerCount);
+
+    // Copying the board in bulk skips updating the statistics, the moves
+    // and the hash one square at a time, so they're copied as well
+    if (bitboard != null) {
+      clone.bitboard = bitboard.copy();
+    } else {
+      clone.board.copyFrom(board);
+      clone.tracker.copyFrom(tracker);
+    }
+
+    clone.statistics.copyFrom(statistics);
+    clone.turn = turn;
+    clone.hash = hash;
+    return clone;
+  }
+
+  /**
+   * Reverts the instance to how it was before a move in the log
+   *
+   * @param index the index of the move in the log
    */
   public void revert(int index) {
-    try {
-      Entry entry = log.get(index);
-      this.turn = entry.turn;
-      this.board = entry.board;
-      log = new ArrayList<Entry>(log.subList(0, index));
-    } catch (Exception e) {
+    // Just like before, reverting to a move that doesn't exist does nothing
+    if (index < 0 || index >= log.size()) {
+      return;
+    }
 
+    // Undoing one move at a time only touches the squares that changed,
+    // which is much cheaper than restoring a whole board
+    while (log.size() > index) {
+      undo();
     }
   }
 
   /**
-   * Reverts the instance to the previous snapshot
+   * Reverts the instance to how it was before the last move
    */
   public void undo() {
-    // Revert to last entry
-    revert(log.size() - 1);
+    int index = log.size() - 1;
+
+    if (index < 0) {
+      return;
+    }
+
+    // Put back every captured tile, then take back the placed one
+    for (int flip = log.getFlipEnd(index) - 1; flip >= log.getFlipStart(index); flip--) {
+      setValue(log.getFlipSquare(flip), log.getFlipValue(flip));
+    }
+
+    setValue(log.getSquare(index), 0);
+    setTurn(log.getTurn(index));
+    log.pop();
   }
 
   /**
@@ -81,6 +225,97 @@ public class Othello {
     return log.size();
   }
 
+  /**
+   * Gets the square of a move in the log
+   *
+   * @param index the index of the move in the log
+   * @return the square where the tile was placed
+   */
+  public int getMove(int index) {
+    return log.getSquare(index);
+  }
+
+  /**
+   * Gets the value of every square, which is a lot cheaper than copy()
+   * when all that's needed is a snapshot to hand to another thread
+   *
+   * @return the value of every square
+   */
+  public int[] getValues() {
+    int[] values = new int[getSize()];
+
+    for (int square = 0; square < values.length; square++) {
+      values[square] = getValue(square);
+    }
+
+    return values;
+  }
+
+  /**
+   * Gets every square a move in the log changed
+   *
+   * @param index the index of the move in the log
+   * @return the captured squares, then the square where the tile was placed
+   */
+  public int[] getChangedSquares(int index) {
+    int start = log.getFlipStart(index);
+    int[] squares = new int[log.getFlipEnd(index) - start + 1];
+
+    for (int i = 0; i < squares.length - 1; i++) {
+      squares[i] = log.getFlipSquare(start + i);
+    }
+
+    squares[squares.length - 1] = log.getSquare(index);
+    return squares;
+  }
+
+  /**
+   * Gets the board as it was before the first move in the log
+   *
+   * @return the value of every square
+   */
+  public int[] getStartValues() {
+    int[] values = getValues();
+
+    // The same as undoing every move, but on a copy of the board
+    for (int index = log.size() - 1; index >= 0; index--) {
+      for (int flip = log.getFlipStart(index); flip < log.getFlipEnd(index); flip++) {
+        values[log.getFlipSquare(flip)] = log.getFlipValue(flip);
+      }
+
+      values[log.getSquare(index)] = 0;
+    }
+
+    return values;
+  }
+
+  /**
+   * Gets the turn as it was before the first move in the log
+   *
+   * @return the turn
+   */
+  public int getStartTurn() {
+    return log.size() == 0 ? turn : log.getTurn(0);
+  }
+
+  /**
+   * Replaces the position, and clears the log
+   *
+   * @param values the value of every square
+   * @param turn the turn, or -1 if the game is over
+   */
+  public void setPosition(int[] values, int turn) {
+    log.clear();
+
+    for (int square = 0; square < values.length; square++) {
+      if (getValue(square) != values[square]) {
+        setValue(square, values[square]);
+      }
+    }
+
+    setTurn(turn);
+  }
+
   /**
    * Gets the turn
    *
@@ -90,6 +325,70 @@ public class Othello {
     return turn;
   }
 
+  /**
+   * Gets the width of the board
+   *
+   * @return the width of the board
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Gets the height of the board
+   *
+   * @return the height of the board
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Gets the number of players
+   *
+   * @return the number of players
+   */
+  public int getPlayerCount() {
+    return playerCount;
+  }
+
+  /**
+   * Gets the number of squares on the board, which is also
+   * the largest number of moves or captures there can ever be
+   *
+   * @return the number of squares
+   */
+  public int getSize() {
+    return width * height;
+  }
+
+  /**
+   * Gets the square index of a position
+   *
+   * This is the same base-height numbering that Game uses for its tiles
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return the index of the square
+   */
+  public int getSquare(int x, int y) {
+    return x * height + y;
+  }
+
+  /**
+   * Gets the value of the board at a square
+   *
+   * @param square the index of the square
+   * @return the value at the square
+   */
+  public int getValue(int square) {
+    if (bitboard != null) {
+      return bitboard.getValue(square);
+    }
+
+    return board.get(square);
+  }
+
   /**
    * Gets the value of the board at a position
    *
@@ -97,9 +396,7 @@ public class Othello {
    * @return the value at the position
    */
   public int getBoardValue(int[] pos) {
-    int x = pos[0];
-    int y = pos[1];
-    return board[x][y];
+    return getValue(getSquare(pos[0], pos[1]));
   }
 
   /**
@@ -109,9 +406,83 @@ public class Othello {
    * @param value the value at the position
    */
   public void setBoardValue(int[] pos, int value) {
-    int x = pos[0];
-    int y = pos[1];
-    board[x][y] = value;
+    setValue(getSquare(pos[0], pos[1]), value);
+  }
+
+  /**
+   * Sets the value of the board at a square
+   *
+   * @param square the index of the square
+   * @param value the value at the square
+   */
+  private void setValue(int square, int value) {
+    int previous = getValue(square);
+
+    if (bitboard != null) {
+      bitboard.setValue(square, value);
+    } else {
+      board.set(square, value);
+      tracker.markChanged(square);
+    }
+
+    statistics.change(square, previous, value);
+
+    if (patterns != null) {
+      patterns.change(square, previous, value);
+    }
+
+    hash ^= zobrist.getSquareKey(square, previous) ^ zobrist.getSquareKey(square, value);
+  }
+
+  /**
+   * Sets the turn
+   *
+   * @param turn the turn, or -1 if the game is over
+   */
+  private void setTurn(int turn) {
+    hash ^= zobrist.getTurnKey(this.turn) ^ zobrist.getTurnKey(turn);
+    this.turn = turn;
+  }
+
+  /**
+   * Gets the hash of the position
+   *
+   * Two positions with the same tiles and the same turn
+   * always have the same hash, no matter how they were reached
+   *
+   * @return the hash
+   */
+  public long getHash() {
+    return hash;
+  }
+
+  /**
+   * Gets the statistics of the position
+   *
+   * These are kept up to date as moves are made and undone,
+   * so reading them is always cheap
+   *
+   * @return the statistics
+   */
+  public Statistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Gets the pattern indices of the position
+   *
+   * The first call reads the whole board, and after that they're
+   * kept up to date as moves are made and undone, just like the statistics
+   *
+   * @return the pattern indices
+   * @throws IllegalArgumentException if the game isn't 8x8 with two players
+   */
+  public Patterns getPatterns() {
+    if (patterns == null) {
+      patterns = new Patterns(this);
+    }
+
+    return patterns;
   }
 
   /**
@@ -122,31 +493,24 @@ public class Othello {
    */
   public State makeMove(int[] pos) {
     // We assume that the move is valid
-    log.add(new Entry(turn, getBoardClone()));
     State state = new State();
-    int attacker = turn + 1;
+    state.currentTurn = turn;
+    makeMove(getSquare(pos[0], pos[1]));
     // Returning the coordinates of the captured tiles makes
     // rendering a lot easier for the user since they know
     // exactly which tiles must be updated
-    ArrayList<int[]> updates = getCaptures(pos, attacker);
-    updates.add(pos);
+    int index = log.size() - 1;
+    ArrayList<int[]> updates = new ArrayList<int[]>();
 
-    // And now, apply the updates
-    for (int i = 0; i < updates.size(); i++) {
-      int[] update = updates.get(i);
-      int x = update[0];
-      int y = update[1];
-      // Clearly, whenever I make a move, I'm only changing claiming territory
-      // As a result, we don't actually need to check what the new board value is
-      // It must always be attacker
-      board[x][y] = attacker;
+    for (int flip = log.getFlipStart(index); flip < log.getFlipEnd(index); flip++) {
+      int square = log.getFlipSquare(flip);
+      updates.add(new int[] {square / height, square % height});
     }
 
+    updates.add(pos);
     state.updates = updates;
     // The idea is that if we know the current turn and next turn,
     // we know if any turns were skipped, and whether the game is over
-    state.currentTurn = turn;
-    turn = getNextTurn();
     state.nextTurn = turn;
     // If we cycled through all turns and no one could go,
     // getNextTurn() should have returned -1
@@ -154,12 +518,87 @@ public class Othello {
     return state;
   }
 
+  /**
+   * Places a tile on the board without building a State
+   *
+   * Nothing is allocated here (unless the log has to grow),
+   * so this is the one to use when speed matters
+   *
+   * @param square the square where a tile is to be placed
+   * @return the next turn, or -1 if the game is over
+   */
+  public int makeMove(int square) {
+    // We assume that the move is valid
+    int attacker = turn + 1;
+    log.push(square, turn);
+
+    if (bitboard != null) {
+      // On the bitboard, every captured tile must have belonged to the opponent
+      long flips = bitboard.makeMove(square, turn);
+      int defender = 2 - turn;
+
+      while (flips != 0) {
+        int flip = Long.numberOfTrailingZeros(flips);
+        log.addFlip(flip, defender);
+        statistics.change(flip, defender, attacker);
+
+        if (patterns != null) {
+          patterns.change(flip, defender, attacker);
+        }
+
+        hash ^= zobrist.getSquareKey(flip, defender) ^ zobrist.getSquareKey(flip, attacker);
+        flips &= flips - 1;
+      }
+
+      statistics.change(square, 0, attacker);
+
+      if (patterns != null) {
+        patterns.change(square, 0, attacker);
+      }
+
+      hash ^= zobrist.getSquareKey(square, attacker);
+    } else {
+      int count = getFlips(square, attacker, buffer);
+
+      // And now, apply the updates
+      for (int i = 0; i < count; i++) {
+        // Clearly, whenever I make a move, I'm only changing claiming territory
+        // As a result, we don't actually need to check what the new board value is
+        // It must always be attacker
+        log.addFlip(buffer[i], board.get(buffer[i]));
+        setValue(buffer[i], attacker);
+      }
+
+      setValue(square, attacker);
+    }
+
+    setTurn(getNextTurn());
+    return turn;
+  }
+
+  /**
+   * Converts a list of squares into a list of positions
+   *
+   * @param squares the squares
+   * @param count the number of squares in the list
+   * @return a list of the positions
+   */
+  private ArrayList<int[]> toPositions(int[] squares, int count) {
+    ArrayList<int[]> positions = new ArrayList<int[]>(count + 1);
+
+    for (int i = 0; i < count; i++) {
+      positions.add(new int[] {squares[i] / height, squares[i] % height});
+    }
+
+    return positions;
+  }
+
   /**
    * Determines the next turn depending on who has valid moves
    *
    * @return an integer representing the next turn
    */
-  private int getNextTurn() {
+  public int getNextTurn() {
     int nextTurn = turn;
 
     // Why do we iterate playerCount times?
@@ -170,7 +609,7 @@ public class Othello {
       nextTurn = (nextTurn + 1) % playerCount;
       int attacker = nextTurn + 1;
 
-      if (getValidMoves(attacker).size() > 0) {
+      if (hasMoves(attacker)) {
         return nextTurn;
       }
     }
@@ -188,71 +627,171 @@ public class Othello {
    * @return all tiles that would be captured if this move were made
    */
   public ArrayList<int[]> getCaptures(int[] start, int attacker) {
-    ArrayList<int[]> captures = new ArrayList<int[]>();
-
     // If the starting tile is not on the board,
     // the move was clearly invalid and no pieces would be captured
     if (!isInBoard(start)) {
-      return captures;
-    }
-
-    // We'll use these to search for captured stones
-    // Think of them like vectors. {-1, -1} looks for
-    // a line of stones that are to the top-left
-    int[][] directions = {
-      {-1, -1},
-      {-1, 0},
-      {-1, 1},
-      {0, -1},
-      {0, 1},
-      {1, -1},
-      {1, 0},
-      {1, 1}
-    };
-
-    for (int i = 0; i < directions.length; i++) {
-      ArrayList<int[]> temp = new ArrayList<int[]>();
-      int[] dir = directions[i];
-      int dx = dir[0];
-      int dy = dir[1];
-      // We clone so as not to mutate start for future iterations
-      int[] pos = start.clone();
-      // System.out.println("Trying " + format(dir));
-
-      // I thought about this for a long time and couldn't
-      // come up with a nice stopping condition
-      // How sad. At least for now, we just break.
-      while (true) {
-        // Walk in that direction
-        pos[0] += dx;
-        pos[1] += dy;
-
-        // If it's off the board or empty, this attempt should be discarded
-        if (!isInBoard(pos) || getBoardValue(pos) == 0) {
-          temp.clear();
-          // System.out.println("\tPsych!");
+      return new ArrayList<int[]>();
+    }
+
+    int count = getFlips(getSquare(start[0], start[1]), attacker, buffer);
+    return toPositions(buffer, count);
+  }
+
+  /**
+   * Writes every square that would be captured into a buffer
+   *
+   * Nothing is allocated here, so this is the one to use
+   * when speed matters. The buffer must have room for getSize() squares.
+   *
+   * @param square the square where a tile would be placed
+   * @param attacker the attacker
+   * @param flips the buffer that the captured squares are written to
+   * @return the number of captured squares
+   */
+  public int getFlips(int square, int attacker, int[] flips) {
+    int count = 0;
+
+    if (bitboard != null) {
+      long bits = bitboard.getFlips(square, attacker - 1);
+
+      while (bits != 0) {
+        flips[count++] = Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
+      }
+
+      return count;
+    }
+
+    int[] starts = rays.starts;
+    int[] squares = rays.squares;
+    int base = square * Rays.DIRECTIONS;
+
+    for (int dir = 0; dir < Rays.DIRECTIONS; dir++) {
+      int start = starts[base + dir];
+      int end = starts[base + dir + 1];
+      int i = start;
+
+      // Walk over the other players' tiles
+      while (i < end) {
+        int value = board.get(squares[i]);
+
+        if (value == 0 || value == attacker) {
           break;
-        // If we're back to an attacker tile, we might've found something
-        // This is fine even if we just walked one tile over because
-        } else if (getBoardValue(pos) == attacker) {
-          // System.out.println("\tSuccess.");
+        }
+
+        i++;
+      }
+
+      // If we ran off the board or into an empty space, this attempt is discarded
+      // Otherwise, we're back to an attacker tile and everything in between is captured
+      if (i < end && board.get(squares[i]) == attacker) {
+        for (int j = start; j < i; j++) {
+          flips[count++] = squares[j];
+        }
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Determines whether a move is legal
+   *
+   * Unlike getFlips(), this stops as soon as it finds a single capture
+   *
+   * @param square the square where a tile would be placed
+   * @param attacker the attacker
+   * @return whether or not the move is legal
+   */
+  public boolean isLegal(int square, int attacker) {
+    if (bitboard != null) {
+      return bitboard.getValue(square) == 0 && bitboard.getFlips(square, attacker - 1) != 0;
+    }
+
+    if (board.get(square) != 0) {
+      return false;
+    }
+
+    int[] starts = rays.starts;
+    int[] squares = rays.squares;
+    int base = square * Rays.DIRECTIONS;
+
+    for (int dir = 0; dir < Rays.DIRECTIONS; dir++) {
+      int start = starts[base + dir];
+      int end = starts[base + dir + 1];
+
+      for (int i = start; i < end; i++) {
+        int value = board.get(squares[i]);
+
+        if (value == 0) {
+          break;
+        } else if (value == attacker) {
+          // We need at least one tile in between for it to count
+          if (i > start) {
+            return true;
+          }
+
           break;
         }
+      }
+    }
 
-        // If we don't clone it, the position we mean to add will get mutated
-        // in the next iteration of the while loop
-        temp.add(pos.clone());
-        // System.out.println("\tFound " + format(pos));
+    return false;
+  }
+
+  /**
+   * Writes every legal move into a buffer
+   *
+   * The buffer must have room for getSize() squares
+   *
+   * @param attacker the attacker
+   * @param moves the buffer that the moves are written to
+   * @return the number of moves
+   */
+  public int getMoves(int attacker, int[] moves) {
+    int count = 0;
+
+    if (bitboard != null) {
+      long bits = bitboard.getMoves(attacker - 1);
+
+      while (bits != 0) {
+        moves[count++] = Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;
       }
 
-      // Finally, add everything from the temp list to the captures list
-      // regardless of how many items are in it
-      // This is okay since, if the tile was off the board of empty,
-      // it would have been emptied thereby discarding this attempt
-      captures.addAll(temp);
+      return count;
+    }
+
+    // The tracker already knows, so there's no need to look at every square
+    return tracker.getMoves(attacker, moves);
+  }
+
+  /**
+   * Gets the number of legal moves of an attacker
+   *
+   * @param attacker the attacker
+   * @return the number of legal moves
+   */
+  public int getMoveCount(int attacker) {
+    if (bitboard != null) {
+      return Long.bitCount(bitboard.getMoves(attacker - 1));
+    }
+
+    return tracker.getMoveCount(attacker);
+  }
+
+  /**
+   * Determines whether an attacker has any legal moves at all
+   *
+   * @param attacker the attacker
+   * @return whether or not the attacker can move
+   */
+  public boolean hasMoves(int attacker) {
+    if (bitboard != null) {
+      return bitboard.getMoves(attacker - 1) != 0;
     }
 
-    return captures;
+    return tracker.getMoveCount(attacker) > 0;
   }
 
   /**
@@ -277,19 +816,8 @@ public class Othello {
    * @return a list of the valid moves
    */
   public ArrayList<int[]> getValidMoves(int attacker) {
-    ArrayList<int[]> validMoves = new ArrayList<int[]>();
-
-    for (int x = 0; x < board.length; x++) {
-      for (int y = 0; y < board[x].length; y++) {
-        int[] pos = {x, y};
-
-        if (isValidMove(pos, attacker)) {
-          validMoves.add(pos);
-        }
-      }
-    }
-
-    return validMoves;
+    int count = getMoves(attacker, buffer);
+    return toPositions(buffer, count);
   }
 
   /**
@@ -300,9 +828,7 @@ public class Othello {
    * @return whether or not a move is valid
    */
   public boolean isValidMove(int[] pos, int attacker) {
-    // Only slightly inefficient since getCaptures()
-    // doesn't stop until it gets ALL the captures
-    return (getBoardValue(pos) == 0) && (getCaptures(pos, attacker).size() > 0);
+    return isLegal(getSquare(pos[0], pos[1]), attacker);
   }
 
   /*
@@ -327,38 +853,11 @@ public class Othello {
   public int[] getCounts() {
     int[] counts = new int[playerCount];
 
-    // In this case, order of iteration is irrelevant
-    for (int i = 0; i < board.length; i++) {
-      for (int j = 0; j < board[i].length; j++) {
-        int tile = board[i][j];
-
-        // Basically, count everything
-        if (tile == 0) {
-          continue;
-        } else {
-          int index = tile - 1;
-          counts[index]++;
-        }
-      }
+    // The statistics already know, so there's no need to count every tile
+    for (int i = 0; i < playerCount; i++) {
+      counts[i] = statistics.getCount(i);
     }
 
     return counts;
   }
-
-  /**
-   * Creates a clone of the board so as not to mutate the original
-   *
-   * @return a clone of the board
-   */
-  private int[][] getBoardClone() {
-    int[][] clone = new int[width][height];
-
-    for (int x = 0; x < width; x++) {
-      for (int y = 0; y < height; y++) {
-        clone[x][y] = board[x][y];
-      }
-    }
-
-    return clone;
-  }
 }
@@ -0,0 +1,145 @@
+import java.util.*;
+
+/**
+ * A board that packs its cells into a flat array of longs
+ *
+ * Each cell only ever holds a value from 0 to playerCount,
+ * so it gets 2 bits when there are at most three players
+ * and 4 bits otherwise. An 8x8 board for four players fits in 4 longs
+ * instead of 8 separate int arrays.
+ *
+ * @version 2026-10-18
+ */
+public class PackedBoard {
+  /**
+   * The width of the board
+   */
+  private int width;
+  /**
+   * The height of the board
+   */
+  private int height;
+  /**
+   * The number of bits used for each cell (2 or 4)
+   */
+  private int bitsPerCell;
+  /**
+   * log2 of the number of cells in each long
+   */
+  private int cellShift;
+  /**
+   * A mask for a single cell
+   */
+  private long cellMask;
+  /**
+   * The packed cells
+   */
+  private long[] words;
+
+  /**
+   * Creates an empty board
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   */
+  public PackedBoard(int width, int height, int playerCount) {
+    this.width = width;
+    this.height = height;
+    // Values go from 0 to playerCount, so 2 bits can hold up to 3 players
+    this.bitsPerCell = playerCount <= 3 ? 2 : 4;
+    this.cellShift = bitsPerCell == 2 ? 5 : 4;
+    this.cellMask = (1L << bitsPerCell) - 1;
+    int cellsPerWord = 1 << cellShift;
+    this.words = new long[(width * height + cellsPerWord - 1) / cellsPerWord];
+  }
+
+  /**
+   * Gets the width of the board
+   *
+   * @return the width of the board
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Gets the height of the board
+   *
+   * @return the height of the board
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Gets the number of squares on the board
+   *
+   * @return the number of squares
+   */
+  public int getSize() {
+    return width * height;
+  }
+
+  /**
+   * Gets the square index of a position
+   *
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @return the index of the square
+   */
+  public int getSquare(int x, int y) {
+    return x * height + y;
+  }
+
+  /**
+   * Gets the value of a square
+   *
+   * @param square the index of the square
+   * @return the value of the square
+   */
+  public int get(int square) {
+    int word = square >>> cellShift;
+    int shift = (square & ((1 << cellShift) - 1)) * bitsPerCell;
+    return (int) ((words[word] >>> shift) & cellMask);
+  }
+
+  /**
+   * Sets the value of a square
+   *
+   * @param square the index of the square
+   * @param value the value of the square
+   */
+  public void set(int square, int value) {
+    int word = square >>> cellShift;
+    int shift = (square & ((1 << cellShift) - 1)) * bitsPerCell;
+    words[word] = (words[word] & ~(cellMask << shift)) | ((long) value << shift);
+  }
+
+  /**
+   * Overwrites this board with the contents of another of the same size
+   *
+   * @param other the board to copy from
+   */
+  public void copyFrom(PackedBoard other) {
+    System.arraycopy(other.words, 0, words, 0, words.length);
+  }
+
+  public boolean equals(Object other) {
+    if (!(other instanceof PackedBoard)) {
+      return false;
+    }
+
+    PackedBoard board = (PackedBoard) other;
+    // Unused bits in the last word are always 0, so comparing
+    // the words directly is the same as comparing every cell
+    return width == board.width
+      && height == board.height
+      && bitsPerCell == board.bitsPerCell
+      && Arrays.equals(words, board.words);
+  }
+
+  public int hashCode() {
+    return Arrays.hashCode(words);
+  }
+}
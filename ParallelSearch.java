@@ -0,0 +1,198 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A search that uses every core
+ *
+ * This works the "lazy" way: every thread runs its own ordinary Search
+ * on its own copy of the position, and they all share one transposition
+ * table. Whatever one thread finds, the others get for free the next time
+ * they reach the same position. Half of the helpers start one pass deeper
+ * than the main thread, so they get ahead of it and fill the table
+ * with the results it's about to need.
+ *
+ * @version 2026-10-18
+ */
+public class ParallelSearch {
+  /**
+   * The evaluation every thread uses
+   */
+  private Evaluator evaluator;
+  /**
+   * The table every thread shares
+   */
+  private TranspositionTable table;
+  /**
+   * The number of threads
+   */
+  private int threadCount;
+  /**
+   * The threads the helpers run on (the main thread is whoever calls search()),
+   * or null if there are no helpers
+   */
+  private ForkJoinPool pool;
+
+  /**
+   * Creates a parallel search
+   *
+   * @param evaluator the evaluation to use
+   * @param table the transposition table to share
+   * @param threadCount the number of threads
+   */
+  public ParallelSearch(Evaluator evaluator, TranspositionTable table, int threadCount) {
+    this.evaluator = evaluator;
+    this.table = table;
+    this.threadCount = threadCount;
+    this.pool = threadCount > 1 ? new ForkJoinPool(threadCount - 1) : null;
+  }
+
+  /**
+   * Searches for the best move within a time limit
+   *
+   * @param othello the position (left as it was)
+   * @param time the time limit, in milliseconds
+   * @return the result of the search
+   */
+  public SearchResult search(Othello othello, long time) {
+    return search(othello, time, Long.MAX_VALUE, othello.getSize());
+  }
+
+  /**
+   * Searches for the best move
+   *
+   * @param othello the position (left as it was)
+   * @param time the time limit, in milliseconds
+   * @param nodeLimit the number of positions the main thread stops at
+   * @param maxDepth the deepest pass to make
+   * @return the result of the search
+   */
+  public SearchResult search(Othello othello, long time, long nodeLimit, int maxDepth) {
+    long start = System.nanoTime();
+    Search[] searches = new Search[threadCount];
+    ArrayList<ForkJoinTask<SearchResult>> tasks = new ArrayList<ForkJoinTask<SearchResult>>();
+    // The table is aged once for the whole search, not once for every thread
+    table.newSearch();
+
+    // Every thread gets its own copy, since Othello can't be shared
+    for (int i = 0; i < threadCount; i++) {
+      searches[i] = new Search(othello.copy(), evaluator, table);
+      searches[i].setStartDepth(1 + i % 2);
+      searches[i].setSharingTable(true);
+    }
+
+    // The main thread is the only one that decides when to stop
+    for (int i = 1; i < threadCount; i++) {
+      Search helper = searches[i];
+      tasks.add(pool.submit(() -> helper.search(time, Long.MAX_VALUE, maxDepth)));
+    }
+
+    SearchResult result = searches[0].search(time, nodeLimit, maxDepth);
+    result.threadNodes = new long[threadCount];
+    result.threadNodes[0] = result.nodes;
+
+    for (int i = 1; i < threadCount; i++) {
+      searches[i].stop();
+    }
+
+    for (int i = 1; i < threadCount; i++) {
+      SearchResult helper = tasks.get(i - 1).join();
+      result.threadNodes[i] = helper.nodes;
+      result.nodes += helper.nodes;
+
+      // A helper that finished a deeper pass knows more than the main thread
+      if (helper.depth > result.depth && helper.bestMove != -1) {
+        result.depth = helper.depth;
+        result.score = helper.score;
+        result.bestMove = helper.bestMove;
+        result.principalVariation = helper.principalVariation;
+      }
+    }
+
+    result.time = (System.nanoTime() - start) / 1000000;
+    return result;
+  }
+
+  /**
+   * Stops the threads once they are no longer needed
+   */
+  public void shutdown() {
+    if (pool != null) {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Searches the same positions with 1 thread, then 2, and so on,
+   * and reports how many positions each thread searched per second
+   *
+   * Every run starts with an empty table, so no run gets a head start
+   * from the one before it
+   *
+   * @param args --threads (the most threads to try), --time (per position,
+   *   in milliseconds) and --positions (the number of positions to search)
+   */
+  public static void main(String[] args) {
+    int maxThreads = Runtime.getRuntime().availableProcessors();
+    long time = 2000;
+    int positionCount = 4;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--threads".equals(args[i])) {
+        maxThreads = value;
+      } else if ("--time".equals(args[i])) {
+        time = value;
+      } else if ("--positions".equals(args[i])) {
+        positionCount = value;
+      }
+    }
+
+    // Middle game positions, where the search has the most to do
+    Othello[] positions = new Othello[positionCount];
+    Random random = new Random(7);
+
+    for (int i = 0; i < positionCount; i++) {
+      positions[i] = new Othello(Bitboard.SIZE, Bitboard.SIZE);
+      positions[i].setInitialBoard();
+      int[] moves = new int[positions[i].getSize()];
+
+      for (int ply = 0; ply < 20 && positions[i].getTurn() != -1; ply++) {
+        positions[i].makeMove(moves[random.nextInt(positions[i].getMoves(positions[i].getTurn() + 1, moves))]);
+      }
+    }
+
+    double baseline = 0;
+
+    for (int threads = 1; threads <= maxThreads; threads++) {
+      long nodes = 0;
+      long elapsed = 0;
+      long[] threadNodes = new long[threads];
+      int depth = 0;
+
+      for (Othello position : positions) {
+        ParallelSearch search = new ParallelSearch(new SimpleEvaluator(), new TranspositionTable(64), threads);
+        SearchResult result = search.search(position, time, Long.MAX_VALUE, Search.MAX_PLY);
+        search.shutdown();
+        nodes += result.nodes;
+        elapsed += result.time;
+        depth += result.depth;
+
+        for (int i = 0; i < threads; i++) {
+          threadNodes[i] += result.threadNodes[i];
+        }
+      }
+
+      double rate = nodes * 1000.0 / Math.max(1, elapsed);
+      baseline = threads == 1 ? rate : baseline;
+      StringBuilder perThread = new StringBuilder();
+
+      for (int i = 0; i < threads; i++) {
+        perThread.append(String.format(" %,.0f", threadNodes[i] * 1000.0 / Math.max(1, elapsed)));
+      }
+
+      System.out.println(String.format("%2d threads %,14.0f nodes/s (%.2fx), average depth %.1f, per thread:%s",
+        threads, rate, rate / baseline, (double) depth / positionCount, perThread));
+    }
+  }
+}
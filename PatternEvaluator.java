@@ -0,0 +1,162 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+
+/**
+ * An evaluation that adds up learned weights for the patterns on the board
+ *
+ * Othello keeps every pattern's index up to date as tiles change, so an
+ * evaluation is one lookup per pattern and never has to look at the board.
+ * The game is split into phases by how many squares are filled, and each
+ * phase has its own weights, since an edge that's good early can be bad late.
+ *
+ * The weights are kept in a file that's mapped straight into memory,
+ * so loading them is instant and every search can share the same copy.
+ * The file is a header of four ints (magic, phase count, type count and
+ * a spare) followed by one short for every index of every type of pattern,
+ * one phase after another. Each weight is in hundredths of a tile.
+ *
+ * This only works for the 8x8 two player game.
+ *
+ * @version 2026-10-18
+ */
+public class PatternEvaluator implements Evaluator {
+  /**
+   * The first int of every weight file ("PWT1")
+   */
+  public static final int MAGIC = 0x50575431;
+  /**
+   * The size of the header in bytes
+   */
+  public static final int HEADER_SIZE = 16;
+  /**
+   * Where each type's weights start within a phase
+   */
+  private static final int[] OFFSETS = new int[Patterns.TYPE_COUNT + 1];
+
+  static {
+    for (int type = 0; type < Patterns.TYPE_COUNT; type++) {
+      OFFSETS[type + 1] = OFFSETS[type] + Patterns.getTableSize(type);
+    }
+  }
+
+  /**
+   * The number of weights in each phase
+   */
+  public static final int PHASE_SIZE = OFFSETS[Patterns.TYPE_COUNT];
+
+  /**
+   * The weights, straight from the file
+   */
+  private ShortBuffer weights;
+  /**
+   * The number of phases
+   */
+  private int phaseCount;
+
+  /**
+   * Maps a weight file into memory
+   *
+   * @param path the file
+   * @throws IOException if the file can't be read or isn't a weight file
+   */
+  public PatternEvaluator(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      // The mapping stays valid after the channel is closed
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+        throw new IOException(path + " is not a weight file");
+      }
+
+      phaseCount = buffer.getInt(4);
+
+      if (phaseCount < 1 || buffer.getInt(8) != Patterns.TYPE_COUNT
+          || buffer.capacity() != HEADER_SIZE + 2L * phaseCount * PHASE_SIZE) {
+        throw new IOException(path + " doesn't have the right patterns");
+      }
+
+      buffer.position(HEADER_SIZE);
+      weights = buffer.slice().asShortBuffer();
+    }
+  }
+
+  /**
+   * Gets the number of phases
+   *
+   * @return the number of phases
+   */
+  public int getPhaseCount() {
+    return phaseCount;
+  }
+
+  /**
+   * Gets the phase of a position
+   *
+   * @param emptyCount the number of empty squares
+   * @param phaseCount the number of phases
+   * @return the phase, from 0 at the start to phaseCount - 1 at the end
+   */
+  public static int getPhase(int emptyCount, int phaseCount) {
+    int squares = Bitboard.SIZE * Bitboard.SIZE;
+    return (squares - emptyCount) * phaseCount / (squares + 1);
+  }
+
+  /**
+   * Gets where a weight is within the file's weights
+   *
+   * @param phase the phase
+   * @param type the type of pattern
+   * @param index the index of the pattern
+   * @return the position of the weight
+   */
+  public static int getOffset(int phase, int type, int index) {
+    return phase * PHASE_SIZE + OFFSETS[type] + index;
+  }
+
+  public int evaluate(Othello othello, int player) {
+    Patterns patterns = othello.getPatterns();
+    int base = getPhase(othello.getStatistics().getEmptyCount(), phaseCount) * PHASE_SIZE;
+    int score = 0;
+
+    for (int i = 0; i < Patterns.getCount(); i++) {
+      score += weights.get(base + OFFSETS[Patterns.getType(i)] + patterns.getIndex(i, player));
+    }
+
+    return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+  }
+
+  /**
+   * Writes a weight file
+   *
+   * It's written to a temporary file first and then moved into place,
+   * so anyone who has the old weights mapped keeps seeing the old weights
+   *
+   * @param path the file
+   * @param weights every weight, one phase after another
+   * @param phaseCount the number of phases
+   * @throws IOException if the file can't be written
+   */
+  public static void write(Path path, short[] weights, int phaseCount) throws IOException {
+    if (weights.length != phaseCount * PHASE_SIZE) {
+      throw new IllegalArgumentException("Expected " + phaseCount * PHASE_SIZE + " weights");
+    }
+
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+
+    try (DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      out.writeInt(MAGIC);
+      out.writeInt(phaseCount);
+      out.writeInt(Patterns.TYPE_COUNT);
+      out.writeInt(0);
+
+      for (short weight : weights) {
+        out.writeShort(weight);
+      }
+    }
+
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
@@ -0,0 +1,261 @@
+import java.util.*;
+
+/**
+ * The pattern indices of a standard 8x8 two player position
+ *
+ * A pattern is a fixed set of squares, like an edge or a corner, read in
+ * a fixed order. Its index is the number you get by reading the squares
+ * as digits in base 3 (0 for empty, 1 for player 0 and 2 for player 1),
+ * where the first square is the lowest digit. Every flipped and turned copy
+ * of a pattern shares the same type, so it can share the same weights.
+ *
+ * Othello keeps the indices up to date as tiles change, so reading one
+ * is free, and changing a tile only touches the few patterns that contain it.
+ *
+ * @version 2026-10-18
+ */
+public class Patterns {
+  /**
+   * An edge and the two squares diagonally in from its corners
+   */
+  public static final int EDGE = 0;
+  /**
+   * The 3x3 square in a corner
+   */
+  public static final int CORNER = 1;
+  /**
+   * The 2x5 block in a corner, along one of its edges
+   */
+  public static final int BLOCK = 2;
+  /**
+   * A diagonal from corner to corner
+   */
+  public static final int DIAGONAL_8 = 3;
+  /**
+   * A diagonal one square in from a main diagonal
+   */
+  public static final int DIAGONAL_7 = 4;
+  /**
+   * A diagonal two squares in from a main diagonal
+   */
+  public static final int DIAGONAL_6 = 5;
+  /**
+   * A diagonal three squares in from a main diagonal
+   */
+  public static final int DIAGONAL_5 = 6;
+  /**
+   * A diagonal four squares in from a main diagonal
+   */
+  public static final int DIAGONAL_4 = 7;
+  /**
+   * The number of types of patterns
+   */
+  public static final int TYPE_COUNT = 8;
+  /**
+   * One copy of each type, as {x, y} pairs, which the others are flipped and turned from
+   */
+  private static final int[][][] SHAPES = {
+    {{0, 0}, {0, 1}, {0, 2}, {0, 3}, {0, 4}, {0, 5}, {0, 6}, {0, 7}, {1, 1}, {1, 6}},
+    {{0, 0}, {0, 1}, {0, 2}, {1, 0}, {1, 1}, {1, 2}, {2, 0}, {2, 1}, {2, 2}},
+    {{0, 0}, {1, 0}, {2, 0}, {3, 0}, {4, 0}, {0, 1}, {1, 1}, {2, 1}, {3, 1}, {4, 1}},
+    {{0, 0}, {1, 1}, {2, 2}, {3, 3}, {4, 4}, {5, 5}, {6, 6}, {7, 7}},
+    {{0, 1}, {1, 2}, {2, 3}, {3, 4}, {4, 5}, {5, 6}, {6, 7}},
+    {{0, 2}, {1, 3}, {2, 4}, {3, 5}, {4, 6}, {5, 7}},
+    {{0, 3}, {1, 4}, {2, 5}, {3, 6}, {4, 7}},
+    {{0, 4}, {1, 5}, {2, 6}, {3, 7}}
+  };
+  /**
+   * The type of each pattern
+   */
+  private static final int[] TYPES;
+  /**
+   * The squares of each pattern, in reading order
+   */
+  private static final int[][] SQUARES;
+  /**
+   * Where each square's patterns start in MEMBERS and POWERS
+   */
+  private static final int[] STARTS = new int[Bitboard.SIZE * Bitboard.SIZE + 1];
+  /**
+   * The patterns that contain each square, one square after another
+   */
+  private static final int[] MEMBERS;
+  /**
+   * What the index of each of those patterns goes up by for each step in the square's value
+   */
+  private static final int[] POWERS;
+  /**
+   * For each length, every index with the players swapped
+   */
+  private static final int[][] SWAPPED = new int[11][];
+
+  static {
+    // Flipping and turning each shape every possible way gives every copy of it,
+    // but some come out as the same squares in reverse, which we only need once
+    Symmetry symmetry = Symmetry.get(Bitboard.SIZE, Bitboard.SIZE);
+    ArrayList<int[]> squares = new ArrayList<int[]>();
+    ArrayList<Integer> types = new ArrayList<Integer>();
+    HashSet<String> seen = new HashSet<String>();
+
+    for (int type = 0; type < TYPE_COUNT; type++) {
+      for (int k = 0; k < symmetry.count; k++) {
+        int[] pattern = new int[SHAPES[type].length];
+
+        for (int i = 0; i < pattern.length; i++) {
+          pattern[i] = symmetry.transform(Bitboard.getSquare(SHAPES[type][i][0], SHAPES[type][i][1]), k);
+        }
+
+        int[] sorted = pattern.clone();
+        Arrays.sort(sorted);
+
+        if (seen.add(Arrays.toString(sorted))) {
+          squares.add(pattern);
+          types.add(type);
+        }
+      }
+    }
+
+    SQUARES = squares.toArray(new int[0][]);
+    TYPES = new int[SQUARES.length];
+    int total = 0;
+
+    for (int i = 0; i < SQUARES.length; i++) {
+      TYPES[i] = types.get(i);
+      total += SQUARES[i].length;
+
+      for (int square : SQUARES[i]) {
+        STARTS[square + 1]++;
+      }
+    }
+
+    for (int square = 0; square < Bitboard.SIZE * Bitboard.SIZE; square++) {
+      STARTS[square + 1] += STARTS[square];
+    }
+
+    MEMBERS = new int[total];
+    POWERS = new int[total];
+    int[] next = Arrays.copyOf(STARTS, STARTS.length - 1);
+
+    for (int i = 0; i < SQUARES.length; i++) {
+      int power = 1;
+
+      for (int square : SQUARES[i]) {
+        MEMBERS[next[square]] = i;
+        POWERS[next[square]] = power;
+        next[square]++;
+        power *= 3;
+      }
+    }
+
+    for (int type = 0; type < TYPE_COUNT; type++) {
+      int length = SHAPES[type].length;
+
+      if (SWAPPED[length] != null) {
+        continue;
+      }
+
+      SWAPPED[length] = new int[getTableSize(type)];
+
+      for (int index = 0; index < SWAPPED[length].length; index++) {
+        int swapped = 0;
+        int power = 1;
+
+        for (int rest = index; rest > 0; rest /= 3) {
+          int digit = rest % 3;
+          swapped += (digit == 0 ? 0 : 3 - digit) * power;
+          power *= 3;
+        }
+
+        SWAPPED[length][index] = swapped;
+      }
+    }
+  }
+
+  /**
+   * The index of every pattern
+   */
+  private final int[] indices = new int[SQUARES.length];
+
+  /**
+   * Reads the indices of a position from scratch
+   *
+   * After this, Othello keeps them up to date by calling change()
+   *
+   * @param othello the position, which must be 8x8 with two players
+   */
+  public Patterns(Othello othello) {
+    if (othello.getWidth() != Bitboard.SIZE || othello.getHeight() != Bitboard.SIZE
+        || othello.getPlayerCount() != 2) {
+      throw new IllegalArgumentException("Patterns only support the 8x8 two player game");
+    }
+
+    for (int square = 0; square < Bitboard.SIZE * Bitboard.SIZE; square++) {
+      change(square, 0, othello.getValue(square));
+    }
+  }
+
+  /**
+   * Records that a square has changed
+   *
+   * @param square the square
+   * @param from the old value
+   * @param to the new value
+   */
+  public void change(int square, int from, int to) {
+    int difference = to - from;
+
+    for (int i = STARTS[square]; i < STARTS[square + 1]; i++) {
+      indices[MEMBERS[i]] += difference * POWERS[i];
+    }
+  }
+
+  /**
+   * Gets the number of patterns
+   *
+   * @return the number of patterns
+   */
+  public static int getCount() {
+    return SQUARES.length;
+  }
+
+  /**
+   * Gets the type of a pattern
+   *
+   * @param pattern the pattern
+   * @return the type
+   */
+  public static int getType(int pattern) {
+    return TYPES[pattern];
+  }
+
+  /**
+   * Gets the number of different indices a type of pattern can have
+   *
+   * @param type the type
+   * @return 3 to the power of the number of squares
+   */
+  public static int getTableSize(int type) {
+    int size = 1;
+
+    for (int i = 0; i < SHAPES[type].length; i++) {
+      size *= 3;
+    }
+
+    return size;
+  }
+
+  /**
+   * Gets the index of a pattern, as seen by a player
+   *
+   * For player 1, the players are swapped, so that 1 always means
+   * the player's own tile and 2 always means the opponent's
+   *
+   * @param pattern the pattern
+   * @param player the player (starting from 0)
+   * @return the index
+   */
+  public int getIndex(int pattern, int player) {
+    int index = indices[pattern];
+    return player == 0 ? index : SWAPPED[SQUARES[pattern].length][index];
+  }
+}
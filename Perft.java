@@ -0,0 +1,186 @@
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Counts every position that can be reached in a certain number of moves
+ *
+ * A turn that is skipped isn't a move, and a finished game
+ * counts as a single position no matter how deep we were asked to go.
+ * The counts for the 8x8 board are checked against a table of
+ * known results, so a faster move generator can be proven correct.
+ *
+ * Usage: java Perft [--players 2] [--depth 8] [--threads 4]
+ *   [--width 8] [--height 8]
+ *
+ * @version 2026-10-18
+ */
+public class Perft {
+  // These were counted by the original array-based version of Othello,
+  // starting from the layouts in Othello.getInitialBoard()
+  /**
+   * The known counts for the 8x8 board, by player count and then depth
+   */
+  private static final long[][] REFERENCE = {
+    {},
+    {},
+    {1, 4, 12, 56, 244, 1396, 8200, 55092, 390216, 3005320},
+    {1, 8, 61, 410, 2974, 20740, 134487, 1006015},
+    {1, 8, 62, 486, 3633, 29461, 237415, 1944552}
+  };
+
+  /**
+   * Move buffers for each depth, so that nothing is allocated while counting
+   */
+  private int[][] buffers;
+
+  /**
+   * Creates a counter that can go up to a certain depth
+   *
+   * @param othello the game to count in
+   * @param depth the maximum depth
+   */
+  public Perft(Othello othello, int depth) {
+    buffers = new int[depth + 1][othello.getSize()];
+  }
+
+  /**
+   * Counts the positions a certain number of moves ahead
+   *
+   * @param othello the position to count from (left as it was)
+   * @param depth the number of moves
+   * @return the number of positions
+   */
+  public long count(Othello othello, int depth) {
+    int turn = othello.getTurn();
+
+    if (depth == 0 || turn == -1) {
+      return 1;
+    }
+
+    // Every move leads to exactly one position,
+    // so there's no need to actually make them
+    if (depth == 1) {
+      return othello.getMoveCount(turn + 1);
+    }
+
+    int[] moves = buffers[depth];
+    int count = othello.getMoves(turn + 1, moves);
+    long nodes = 0;
+
+    for (int i = 0; i < count; i++) {
+      othello.makeMove(moves[i]);
+      nodes += count(othello, depth - 1);
+      othello.undo();
+    }
+
+    return nodes;
+  }
+
+  /**
+   * Counts the positions a certain number of moves ahead,
+   * giving each move from the current position to its own thread
+   *
+   * @param othello the position to count from (left as it was)
+   * @param depth the number of moves
+   * @param pool the threads to use
+   * @return the number of positions
+   */
+  public static long countParallel(Othello othello, int depth, ExecutorService pool)
+      throws InterruptedException, ExecutionException {
+    int turn = othello.getTurn();
+
+    if (depth <= 1 || turn == -1) {
+      return new Perft(othello, depth).count(othello, depth);
+    }
+
+    int[] moves = new int[othello.getSize()];
+    int count = othello.getMoves(turn + 1, moves);
+    ArrayList<Future<Long>> results = new ArrayList<Future<Long>>();
+
+    for (int i = 0; i < count; i++) {
+      // Othello isn't thread safe, so every task gets its own copy
+      Othello child = othello.copy();
+      child.makeMove(moves[i]);
+      results.add(pool.submit(() -> new Perft(child, depth - 1).count(child, depth - 1)));
+    }
+
+    long nodes = 0;
+
+    for (int i = 0; i < results.size(); i++) {
+      nodes += results.get(i).get();
+    }
+
+    return nodes;
+  }
+
+  /**
+   * Gets the known count for a position, if there is one
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @param depth the number of moves
+   * @return the count, or -1 if it isn't known
+   */
+  public static long getReference(int width, int height, int playerCount, int depth) {
+    if (width != 8 || height != 8 || playerCount >= REFERENCE.length) {
+      return -1;
+    }
+
+    long[] counts = REFERENCE[playerCount];
+    return depth < counts.length && counts[depth] != 0 ? counts[depth] : -1;
+  }
+
+  public static void main(String[] args) throws Exception {
+    int playerCount = 2;
+    int depth = 8;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int width = 8;
+    int height = 8;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      int value = Integer.parseInt(args[i + 1]);
+
+      if ("--players".equals(args[i])) {
+        playerCount = value;
+      } else if ("--depth".equals(args[i])) {
+        depth = value;
+      } else if ("--threads".equals(args[i])) {
+        threads = value;
+      } else if ("--width".equals(args[i])) {
+        width = value;
+      } else if ("--height".equals(args[i])) {
+        height = value;
+      }
+    }
+
+    Othello othello = new Othello(width, height, playerCount);
+    othello.setInitialBoard();
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    boolean isCorrect = true;
+
+    try {
+      for (int d = 1; d <= depth; d++) {
+        long start = System.nanoTime();
+        long nodes = countParallel(othello, d, pool);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long reference = getReference(width, height, playerCount, d);
+        String result = "";
+
+        if (reference != -1) {
+          result = nodes == reference ? "ok" : "expected " + reference;
+          isCorrect = isCorrect && nodes == reference;
+        }
+
+        System.out.println(String.format("depth %2d %,16d nodes %8.3f s %,14.0f nodes/s %s",
+          d, nodes, seconds, nodes / seconds, result));
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    if (!isCorrect) {
+      System.exit(1);
+    }
+  }
+}
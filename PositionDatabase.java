@@ -0,0 +1,610 @@
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * How often every move was played from every position in a pile of games,
+ * and how those games ended
+ *
+ * Positions are stored in their canonical copy (see Symmetry), so a
+ * position and its flipped and turned copies all share the same entries.
+ *
+ * The file is a hash table that's mapped into memory. It starts with a
+ * header of six ints: MAGIC, the width, the height, the number of players,
+ * the number of slots (a power of two) and the number of slots in use.
+ * Each slot is a long and four ints: the canonical hash of the position,
+ * the move (in the canonical position) and its games, wins and draws, where
+ * a slot with no games is empty. A slot is found by linear probing from
+ * a spot picked by the hash and move, so a lookup touches one or two slots.
+ *
+ * New games are added straight into the table, which is only rebuilt
+ * (at double the size) once it gets too full. The rows from each batch
+ * of games are sorted by where they go in the table first, so the writes
+ * sweep through the file once instead of jumping all over it.
+ *
+ * One thread may add games at a time, and nothing should be looked up
+ * while it does.
+ *
+ * @version 2026-10-18
+ */
+public class PositionDatabase {
+  /**
+   * The first int of every database ("PDB1")
+   */
+  public static final int MAGIC = 0x50444231;
+  /**
+   * The size of the header, in bytes
+   */
+  public static final int HEADER_SIZE = 24;
+  /**
+   * The size of each slot, in bytes
+   */
+  public static final int SLOT_SIZE = 24;
+  /**
+   * The most slots a table can have, so that it fits in one mapping
+   */
+  public static final int MAX_CAPACITY = 1 << 26;
+  /**
+   * The number of games read before their rows are added to the table
+   */
+  private static final int BATCH_SIZE = 20000;
+
+  /**
+   * The file
+   */
+  private final Path path;
+  /**
+   * The file, mapped into memory
+   */
+  private MappedByteBuffer buffer;
+  /**
+   * The width of the board
+   */
+  private final int width;
+  /**
+   * The height of the board
+   */
+  private final int height;
+  /**
+   * The number of players
+   */
+  private final int playerCount;
+  /**
+   * The number of slots
+   */
+  private int capacity;
+  /**
+   * The number of slots in use
+   */
+  private int count;
+
+  /**
+   * Opens a database, creating an empty one if the file doesn't exist
+   *
+   * @param path the file
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @throws IOException if the file can't be opened or is for a different game
+   */
+  public PositionDatabase(Path path, int width, int height, int playerCount) throws IOException {
+    this.path = path;
+    this.width = width;
+    this.height = height;
+    this.playerCount = playerCount;
+
+    if (!Files.exists(path)) {
+      create(path, 1 << 16);
+    }
+
+    map();
+
+    if (buffer.getInt(4) != width || buffer.getInt(8) != height || buffer.getInt(12) != playerCount) {
+      throw new IOException(path + " is a database for a different game");
+    }
+  }
+
+  /**
+   * Writes an empty table
+   *
+   * @param file the file
+   * @param slots the number of slots
+   * @throws IOException if the file can't be written
+   */
+  private void create(Path file, int slots) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.putInt(MAGIC).putInt(width).putInt(height).putInt(playerCount).putInt(slots).putInt(0);
+      header.flip();
+      channel.write(header, 0);
+      // Growing the file leaves the slots as zeros, which means empty
+      channel.write(ByteBuffer.allocate(1), HEADER_SIZE + (long) slots * SLOT_SIZE - 1);
+    }
+  }
+
+  /**
+   * Maps the file into memory
+   *
+   * @throws IOException if the file can't be read or isn't a database
+   */
+  private void map() throws IOException {
+    // The mapping stays valid after the channel is closed
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+
+    if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+      throw new IOException(path + " is not a position database");
+    }
+
+    capacity = buffer.getInt(16);
+    count = buffer.getInt(20);
+
+    if (Integer.bitCount(capacity) != 1 || HEADER_SIZE + (long) capacity * SLOT_SIZE != buffer.capacity()) {
+      throw new IOException(path + " is damaged");
+    }
+  }
+
+  /**
+   * Gets the number of slots in use
+   *
+   * @return the number of different moves from different positions
+   */
+  public int getEntryCount() {
+    return count;
+  }
+
+  /**
+   * Gets the number of slots
+   *
+   * @return the number of slots
+   */
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * Picks the slot to start looking in
+   *
+   * @param hash the canonical hash
+   * @param move the canonical move
+   * @return the slot
+   */
+  private int getHome(long hash, int move) {
+    long mixed = (hash ^ move * 0x9E3779B97F4A7C15L) * 0xBF58476D1CE4E5B9L;
+    return (int) (mixed >>> 32) & (capacity - 1);
+  }
+
+  /**
+   * Finds the slot of a move, or the empty slot where it would go
+   *
+   * @param hash the canonical hash
+   * @param move the canonical move
+   * @return the slot
+   */
+  private int find(long hash, int move) {
+    int slot = getHome(hash, move);
+
+    while (true) {
+      int offset = HEADER_SIZE + slot * SLOT_SIZE;
+
+      if (buffer.getInt(offset + 12) == 0
+          || buffer.getLong(offset) == hash && buffer.getInt(offset + 8) == move) {
+        return slot;
+      }
+
+      slot = (slot + 1) & (capacity - 1);
+    }
+  }
+
+  /**
+   * Looks up every legal move in a position
+   *
+   * @param othello the position
+   * @return the moves that have been played, as they would be played in this position
+   */
+  public ArrayList<BookMove> getMoves(Othello othello) {
+    ArrayList<BookMove> moves = new ArrayList<BookMove>();
+    int turn = othello.getTurn();
+
+    if (turn == -1) {
+      return moves;
+    }
+
+    Symmetry symmetry = Symmetry.get(width, height);
+    int symmetries = symmetry.getCanonicalSymmetries(othello);
+    long hash = symmetry.hash(othello, Integer.numberOfTrailingZeros(symmetries));
+    int[] legal = new int[othello.getSize()];
+    int legalCount = othello.getMoves(turn + 1, legal);
+
+    for (int i = 0; i < legalCount; i++) {
+      int offset = HEADER_SIZE + find(hash, symmetry.getCanonicalMove(legal[i], symmetries)) * SLOT_SIZE;
+      int games = buffer.getInt(offset + 12);
+
+      if (games > 0) {
+        moves.add(new BookMove(legal[i], games, buffer.getInt(offset + 16), buffer.getInt(offset + 20)));
+      }
+    }
+
+    return moves;
+  }
+
+  /**
+   * Counts how often a position was reached (and then moved from)
+   *
+   * @param othello the position
+   * @return the number of games
+   */
+  public long getCount(Othello othello) {
+    long games = 0;
+
+    for (BookMove move : getMoves(othello)) {
+      games += move.games;
+    }
+
+    return games;
+  }
+
+  /**
+   * Replays a game and makes a row for every move in it
+   *
+   * @param record the game
+   * @return one row for every move: {hash, move, games, wins, draws}
+   */
+  public static ArrayList<long[]> getRows(GameRecord record) {
+    Othello othello = record.createStart();
+    Symmetry symmetry = Symmetry.get(record.width, record.height);
+    ArrayList<long[]> rows = new ArrayList<long[]>(record.moves.length);
+    int[] movers = new int[record.moves.length];
+
+    for (int i = 0; i < record.moves.length; i++) {
+      int turn = othello.getTurn();
+
+      if (turn == -1 || !othello.isLegal(record.moves[i], turn + 1)) {
+        throw new IllegalArgumentException("Illegal move " + record.moves[i] + " at ply " + i);
+      }
+
+      int symmetries = symmetry.getCanonicalSymmetries(othello);
+      long hash = symmetry.hash(othello, Integer.numberOfTrailingZeros(symmetries));
+      rows.add(new long[] {hash, symmetry.getCanonicalMove(record.moves[i], symmetries), 1, 0, 0});
+      movers[i] = turn;
+      othello.makeMove(record.moves[i]);
+    }
+
+    // Everyone tied for the most tiles gets a draw, and a lone leader gets a win
+    Statistics statistics = othello.getStatistics();
+    int top = 0;
+    int leaders = 0;
+
+    for (int i = 0; i < record.playerCount; i++) {
+      int tiles = statistics.getCount(i);
+
+      if (tiles > top) {
+        top = tiles;
+        leaders = 1;
+      } else if (tiles == top) {
+        leaders++;
+      }
+    }
+
+    for (int i = 0; i < rows.size(); i++) {
+      if (statistics.getCount(movers[i]) == top) {
+        rows.get(i)[leaders == 1 ? 3 : 4] = 1;
+      }
+    }
+
+    return rows;
+  }
+
+  /**
+   * Adds rows to the table
+   *
+   * @param rows the rows: {hash, move, games, wins, draws}, which get sorted
+   * @throws IOException if the table has to grow and can't
+   */
+  public void add(long[][] rows) throws IOException {
+    // Sorting by the home slot means the table is written from front to back,
+    // and equal rows end up next to each other so they can be added up first
+    sort(rows);
+    ArrayList<long[]> merged = new ArrayList<long[]>();
+
+    for (long[] row : rows) {
+      long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+
+      if (last != null && last[0] == row[0] && last[1] == row[1]) {
+        last[2] += row[2];
+        last[3] += row[3];
+        last[4] += row[4];
+      } else {
+        merged.add(row.clone());
+      }
+    }
+
+    rows = merged.toArray(new long[0][]);
+
+    // Each row could need its own slot, and probing gets slow past three quarters full
+    if ((count + (long) rows.length) * 4 > (long) capacity * 3) {
+      while ((count + (long) rows.length) * 4 > (long) capacity * 3) {
+        grow();
+      }
+
+      // The home slots have all moved
+      sort(rows);
+    }
+
+    for (long[] row : rows) {
+      int offset = HEADER_SIZE + find(row[0], (int) row[1]) * SLOT_SIZE;
+      int old = buffer.getInt(offset + 12);
+
+      if (old == 0) {
+        buffer.putLong(offset, row[0]);
+        buffer.putInt(offset + 8, (int) row[1]);
+        count++;
+      }
+
+      // Counts that don't fit are capped rather than wrapped
+      buffer.putInt(offset + 12, (int) Math.min(old + row[2], Integer.MAX_VALUE));
+      buffer.putInt(offset + 16, (int) Math.min(buffer.getInt(offset + 16) + row[3], Integer.MAX_VALUE));
+      buffer.putInt(offset + 20, (int) Math.min(buffer.getInt(offset + 20) + row[4], Integer.MAX_VALUE));
+    }
+
+    buffer.putInt(20, count);
+  }
+
+  /**
+   * Sorts rows by their home slot, then by hash and move, on every core
+   *
+   * @param rows the rows
+   */
+  private void sort(long[][] rows) {
+    Arrays.parallelSort(rows, (a, b) -> {
+      int difference = Integer.compare(getHome(a[0], (int) a[1]), getHome(b[0], (int) b[1]));
+      return difference != 0 ? difference : a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]);
+    });
+  }
+
+  /**
+   * Rebuilds the table at double the size
+   *
+   * It's built in a temporary file first and then moved into place,
+   * so a crash part of the way through leaves the old table as it was
+   *
+   * @throws IOException if the new table can't be written
+   */
+  private void grow() throws IOException {
+    if (capacity >= MAX_CAPACITY) {
+      throw new IOException(path + " is full");
+    }
+
+    MappedByteBuffer old = buffer;
+    int oldCapacity = capacity;
+    Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+    create(temporary, capacity * 2);
+
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+    }
+
+    capacity *= 2;
+
+    for (int slot = 0; slot < oldCapacity; slot++) {
+      int from = HEADER_SIZE + slot * SLOT_SIZE;
+
+      if (old.getInt(from + 12) != 0) {
+        int to = HEADER_SIZE + find(old.getLong(from), old.getInt(from + 8)) * SLOT_SIZE;
+
+        for (int i = 0; i < SLOT_SIZE; i += 4) {
+          buffer.putInt(to + i, old.getInt(from + i));
+        }
+      }
+    }
+
+    buffer.putInt(20, count);
+    buffer.force();
+    Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /**
+   * Makes sure everything that's been added is on disk
+   */
+  public void force() {
+    buffer.force();
+  }
+
+  /**
+   * Adds every game in a game record file
+   *
+   * The games are replayed in batches, spread over every thread,
+   * and each batch is added to the table before the next is read,
+   * so only one batch is ever held in memory
+   *
+   * @param games the game record file
+   * @param threads the number of threads replaying games
+   * @return the number of games added
+   * @throws Exception if the games can't be read or the table can't be written
+   */
+  public long ingest(Path games, int threads) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    long total = 0;
+
+    try (GameRecordReader in = new GameRecordReader(games)) {
+      boolean done = false;
+
+      while (!done) {
+        ArrayList<GameRecord> batch = new ArrayList<GameRecord>(BATCH_SIZE);
+
+        while (batch.size() < BATCH_SIZE) {
+          GameRecord record = in.read();
+
+          if (record == null) {
+            done = true;
+            break;
+          }
+
+          // Games of other sizes would hash into nonsense here
+          if (record.width == width && record.height == height && record.playerCount == playerCount) {
+            batch.add(record);
+          }
+        }
+
+        ArrayList<Future<ArrayList<long[]>>> results = new ArrayList<Future<ArrayList<long[]>>>();
+        int chunk = (batch.size() + threads - 1) / threads;
+
+        for (int start = 0; start < batch.size(); start += chunk) {
+          List<GameRecord> part = batch.subList(start, Math.min(batch.size(), start + chunk));
+          results.add(pool.submit(() -> {
+            ArrayList<long[]> rows = new ArrayList<long[]>();
+
+            for (GameRecord record : part) {
+              rows.addAll(getRows(record));
+            }
+
+            return rows;
+          }));
+        }
+
+        ArrayList<long[]> rows = new ArrayList<long[]>();
+
+        for (Future<ArrayList<long[]>> result : results) {
+          rows.addAll(result.get());
+        }
+
+        add(rows.toArray(new long[0][]));
+        total += batch.size();
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    force();
+    return total;
+  }
+
+  /**
+   * Checks that every position gives the same moves as its flipped and turned copies
+   *
+   * Random games are added to a scratch database, and then every position
+   * they went through is looked up along with each of its copies
+   *
+   * @param games the number of random games
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @param seed the seed for the moves
+   * @return {the number of moves checked, the number that didn't match}
+   * @throws IOException if the scratch database can't be written
+   */
+  public static long[] verify(int games, int width, int height, int playerCount, long seed) throws IOException {
+    Path file = Files.createTempFile("positions", ".db");
+    Files.delete(file);
+
+    try {
+      PositionDatabase database = new PositionDatabase(file, width, height, playerCount);
+      Random random = new Random(seed);
+      ArrayList<GameRecord> records = new ArrayList<GameRecord>();
+      ArrayList<long[]> rows = new ArrayList<long[]>();
+
+      for (int i = 0; i < games; i++) {
+        Othello othello = new Othello(width, height, playerCount);
+        othello.setInitialBoard();
+        int[] moves = new int[othello.getSize()];
+
+        while (othello.getTurn() != -1) {
+          othello.makeMove(moves[random.nextInt(othello.getMoves(othello.getTurn() + 1, moves))]);
+        }
+
+        GameRecord record = GameRecord.of(othello);
+        records.add(record);
+        rows.addAll(getRows(record));
+      }
+
+      database.add(rows.toArray(new long[0][]));
+      long checked = 0;
+      long different = 0;
+
+      for (GameRecord record : records) {
+        Othello othello = record.createStart();
+
+        for (int move : record.moves) {
+          checked += database.getMoves(othello).size();
+          different += BookMove.countAsymmetric(database::getMoves, othello);
+          othello.makeMove(move);
+        }
+      }
+
+      return new long[] {checked, different};
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Adds games to a database and shows what it knows about the first position
+   *
+   * @param args --db, --games (a game record file), --players, --width,
+   *   --height, --threads and --verify (the number of random games to check
+   *   symmetric positions with, instead of doing anything else)
+   * @throws Exception if the files can't be read or written
+   */
+  public static void main(String[] args) throws Exception {
+    Path path = Paths.get("positions.db");
+    Path games = null;
+    int playerCount = 2;
+    int width = 8;
+    int height = 8;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int verifyGames = 0;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--db".equals(args[i])) {
+        path = Paths.get(args[i + 1]);
+      } else if ("--games".equals(args[i])) {
+        games = Paths.get(args[i + 1]);
+      } else if ("--players".equals(args[i])) {
+        playerCount = Integer.parseInt(args[i + 1]);
+      } else if ("--width".equals(args[i])) {
+        width = Integer.parseInt(args[i + 1]);
+      } else if ("--height".equals(args[i])) {
+        height = Integer.parseInt(args[i + 1]);
+      } else if ("--threads".equals(args[i])) {
+        threads = Integer.parseInt(args[i + 1]);
+      } else if ("--verify".equals(args[i])) {
+        verifyGames = Integer.parseInt(args[i + 1]);
+      }
+    }
+
+    if (verifyGames > 0) {
+      long[] result = verify(verifyGames, width, height, playerCount, 1);
+      System.out.println(String.format("%d moves checked against their symmetric copies, %d different %s",
+        result[0], result[1], result[1] == 0 ? "ok" : "FAILED"));
+
+      if (result[1] != 0) {
+        System.exit(1);
+      }
+
+      return;
+    }
+
+    PositionDatabase database = new PositionDatabase(path, width, height, playerCount);
+
+    if (games != null) {
+      long start = System.nanoTime();
+      long added = database.ingest(games, threads);
+      double seconds = (System.nanoTime() - start) / 1e9;
+      System.out.println(String.format("%d games in %.1f s (%.0f games/s), %d entries in %d slots",
+        added, seconds, added / seconds, database.getEntryCount(), database.getCapacity()));
+    }
+
+    Othello othello = new Othello(width, height, playerCount);
+    othello.setInitialBoard();
+    System.out.println("The first position was reached " + database.getCount(othello) + " times");
+
+    for (BookMove move : database.getMoves(othello)) {
+      System.out.println(move);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+import java.util.*;
+
+/**
+ * Precomputed rays of squares for every square on a board
+ *
+ * Instead of walking {dx, dy} vectors and checking whether
+ * we fell off the board at every step, we list every ray ahead of time.
+ * The squares of the ray starting next to square s in direction d
+ * are squares[starts[s * 8 + d]] up to (but not including)
+ * squares[starts[s * 8 + d + 1]].
+ *
+ * @version 2026-10-18
+ */
+public class Rays {
+  /**
+   * The number of directions that a ray can go in
+   */
+  public static final int DIRECTIONS = 8;
+  // Think of them like vectors. {-1, -1} looks for
+  // a line of stones that are to the top-left
+  /**
+   * The x component of each direction
+   */
+  public static final int[] DX = {-1, -1, -1, 0, 0, 1, 1, 1};
+  /**
+   * The y component of each direction
+   */
+  public static final int[] DY = {-1, 0, 1, -1, 1, -1, 0, 1};
+  /**
+   * The longest array Java can make
+   */
+  private static final int MAX_LENGTH = Integer.MAX_VALUE - 8;
+  /**
+   * The most board sizes to keep rays for
+   */
+  private static final int CACHE_SIZE = 16;
+  /**
+   * Rays that have already been built, by board size, dropping whichever
+   * was used longest ago so that a program that sees many sizes doesn't keep them all
+   */
+  private static LinkedHashMap<Long, Rays> cache = new LinkedHashMap<Long, Rays>(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<Long, Rays> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  /**
+   * Where each ray starts in squares
+   */
+  public final int[] starts;
+  /**
+   * The squares of every ray, one after another
+   */
+  public final int[] squares;
+
+  /**
+   * Builds the rays for a board
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @throws IllegalArgumentException if the rays are too long to fit in an array
+   */
+  private Rays(int width, int height) {
+    // Every square has a ray in every direction, and each ray can be as long
+    // as the board, so long and thin boards overflow an int well before big square ones
+    if ((long) width * height * DIRECTIONS + 1 > MAX_LENGTH) {
+      throw new IllegalArgumentException("The board is too big: " + width + "x" + height);
+    }
+
+    int size = width * height;
+    starts = new int[size * DIRECTIONS + 1];
+    long total = 0;
+
+    // The first pass only measures the rays so that
+    // we can allocate the exact amount of space
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+          starts[(x * height + y) * DIRECTIONS + dir] = (int) total;
+          total += getLength(x, y, dir, width, height);
+        }
+      }
+
+      // No point measuring the rest once we know it won't fit
+      if (total > MAX_LENGTH) {
+        throw new IllegalArgumentException("The board is too big: " + width + "x" + height);
+      }
+    }
+
+    starts[size * DIRECTIONS] = (int) total;
+    squares = new int[(int) total];
+    int index = 0;
+
+    for (int x = 0; x < width; x++) {
+      for (int y = 0; y < height; y++) {
+        for (int dir = 0; dir < DIRECTIONS; dir++) {
+          int length = getLength(x, y, dir, width, height);
+
+          for (int step = 1; step <= length; step++) {
+            squares[index++] = (x + DX[dir] * step) * height + (y + DY[dir] * step);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the number of squares in a ray before it leaves the board
+   *
+   * @param x the x coordinate of the square
+   * @param y the y coordinate of the square
+   * @param dir the index of the direction
+   * @param width the width of the board
+   * @param height the height of the board
+   * @return the length of the ray
+   */
+  private static int getLength(int x, int y, int dir, int width, int height) {
+    int length = 0;
+    x += DX[dir];
+    y += DY[dir];
+
+    while ((0 <= x && x < width) && (0 <= y && y < height)) {
+      length++;
+      x += DX[dir];
+      y += DY[dir];
+    }
+
+    return length;
+  }
+
+  /**
+   * Gets the rays for a board, building them if they don't exist yet
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @return the rays for the board
+   * @throws IllegalArgumentException if the rays are too long to fit in an array
+   */
+  public static synchronized Rays get(int width, int height) {
+    // Rays never change once built, so every board of the same size can share them
+    long key = ((long) width << 32) | height;
+    Rays rays = cache.get(key);
+
+    if (rays == null) {
+      rays = new Rays(width, height);
+      cache.put(key, rays);
+    }
+
+    return rays;
+  }
+}
@@ -0,0 +1,478 @@
+import java.util.*;
+
+/**
+ * A computer player for two player games
+ *
+ * This is negamax with alpha-beta pruning. Every position is scored for
+ * whoever is moving, so the score of a move is just the negated score
+ * of the position after it (unless the other player's turn was skipped,
+ * in which case it's the same player again and nothing is negated).
+ * The search goes one move deeper at a time until it runs out of time,
+ * which also tells it which move to try first on the next pass.
+ *
+ * @version 2026-10-18
+ */
+public class Search {
+  /**
+   * A score larger than any real score
+   */
+  public static final int INFINITY = 10000000;
+  /**
+   * The score of a won game (before the tile difference is added)
+   */
+  public static final int WIN = 1000000;
+  /**
+   * How far from the last score the first try of each pass looks
+   */
+  private static final int ASPIRATION = 150;
+  /**
+   * The limits are checked whenever the node count is a multiple of this plus one
+   */
+  private static final int CHECK_INTERVAL = 1023;
+  /**
+   * The deepest any search can go
+   */
+  public static final int MAX_PLY = 128;
+
+  /**
+   * The game being searched (always put back the way it was)
+   */
+  private Othello othello;
+  /**
+   * Scores positions when there's no time to look any further
+   */
+  private Evaluator evaluator;
+  /**
+   * Positions that have already been searched
+   */
+  private TranspositionTable table;
+  /**
+   * The moves at each ply
+   */
+  private int[][] moves;
+  /**
+   * The ordering score of each move at each ply
+   */
+  private int[][] orders;
+  /**
+   * The best line found from each ply
+   */
+  private int[][] pv;
+  /**
+   * Where the best line from each ply ends
+   */
+  private int[] pvLength;
+  /**
+   * The best line from the last completed pass
+   */
+  private int[] previousPv = new int[0];
+  /**
+   * Whether the current node is on the best line from the last pass
+   */
+  private boolean isFollowingPv;
+  /**
+   * Two moves at each ply that recently caused a cutoff
+   */
+  private int[][] killers;
+  /**
+   * How often each move caused a cutoff, by player and then square
+   */
+  private int[][] history;
+  /**
+   * The number of positions searched
+   */
+  private long nodes;
+  /**
+   * The number of positions to stop at
+   */
+  private long nodeLimit;
+  /**
+   * The time to stop at
+   */
+  private long deadline;
+  /**
+   * Whether the search should stop as soon as possible
+   */
+  private volatile boolean isStopped;
+  /**
+   * The depth of the first pass
+   */
+  private int startDepth = 1;
+  /**
+   * Whether the table is shared with other searches that started at the same time,
+   * in which case whoever started them all ages the table once instead
+   */
+  private boolean isSharingTable = false;
+
+  /**
+   * Creates a search for a game with its own transposition table
+   *
+   * @param othello the game to search (it is changed while searching)
+   * @param evaluator the evaluation to use
+   */
+  public Search(Othello othello, Evaluator evaluator) {
+    this(othello, evaluator, new TranspositionTable(16));
+  }
+
+  /**
+   * Creates a search for a game
+   *
+   * @param othello the game to search (it is changed while searching)
+   * @param evaluator the evaluation to use
+   * @param table the transposition table to use (it may be shared)
+   */
+  public Search(Othello othello, Evaluator evaluator, TranspositionTable table) {
+    if (othello.getPlayerCount() != 2) {
+      throw new IllegalArgumentException("Search only supports two players");
+    }
+
+    int size = othello.getSize();
+    // Every move fills a square, so we can never go deeper than that,
+    // but on big boards we'd never have time to get that far anyways
+    int plies = Math.min(size, MAX_PLY) + 1;
+    this.othello = othello;
+    this.evaluator = evaluator;
+    this.table = table;
+    this.moves = new int[plies][size];
+    this.orders = new int[plies][size];
+    this.pv = new int[plies][plies];
+    this.pvLength = new int[plies + 1];
+    this.killers = new int[plies][2];
+    this.history = new int[2][size];
+  }
+
+  /**
+   * Searches for the best move within a time limit
+   *
+   * @param time the time limit, in milliseconds
+   * @return the result of the search
+   */
+  public SearchResult search(long time) {
+    return search(time, Long.MAX_VALUE, othello.getSize());
+  }
+
+  /**
+   * Searches for the best move
+   *
+   * @param time the time limit, in milliseconds
+   * @param nodeLimit the number of positions to stop at
+   * @param maxDepth the deepest pass to make
+   * @return the result of the search
+   */
+  public SearchResult search(long time, long nodeLimit, int maxDepth) {
+    long start = System.nanoTime();
+    SearchResult result = new SearchResult();
+    this.deadline = start + time * 1000000;
+    this.nodeLimit = nodeLimit;
+    this.nodes = 0;
+    this.previousPv = new int[0];
+
+    // Every helper of a parallel search ageing the table would make
+    // entries from earlier in this very search look stale
+    if (!isSharingTable) {
+      table.newSearch();
+    }
+
+    int player = othello.getTurn();
+
+    if (player == -1 || !othello.hasMoves(player + 1)) {
+      isStopped = false;
+      return result;
+    }
+
+    // If we run out of time straight away, any legal move is better than none
+    othello.getMoves(player + 1, moves[0]);
+    result.bestMove = moves[0][0];
+    result.principalVariation = new int[] {result.bestMove};
+    int empty = othello.getStatistics().getEmptyCount();
+    maxDepth = Math.min(maxDepth, Math.min(empty, MAX_PLY));
+
+    for (int depth = Math.min(startDepth, maxDepth); depth <= maxDepth; depth++) {
+      int score = searchRoot(depth, result.score, result.depth > 1);
+
+      if (isStopped) {
+        break;
+      }
+
+      result.depth = depth;
+      result.score = score;
+      result.principalVariation = Arrays.copyOf(pv[0], pvLength[0]);
+      result.bestMove = result.principalVariation[0];
+      previousPv = result.principalVariation;
+
+      // The next pass takes several times longer than this one,
+      // so there's no point starting it if we're already halfway out of time
+      if (System.nanoTime() - start > (deadline - start) / 2) {
+        break;
+      }
+    }
+
+    result.nodes = nodes;
+    result.time = (System.nanoTime() - start) / 1000000;
+    // This is reset at the end rather than the start, so that
+    // a call to stop() that comes in before the search starts isn't lost
+    isStopped = false;
+    return result;
+  }
+
+  /**
+   * Sets the depth of the first pass
+   *
+   * Helpers in a parallel search start at different depths,
+   * so that they don't all end up doing exactly the same work
+   *
+   * @param startDepth the depth of the first pass
+   */
+  public void setStartDepth(int startDepth) {
+    this.startDepth = startDepth;
+  }
+
+  /**
+   * Sets whether the table is shared with other searches that started at the same time
+   *
+   * If it is, this search leaves ageing the table to whoever started them,
+   * which has to call TranspositionTable.newSearch() once before they begin
+   *
+   * @param isSharingTable whether the table is shared
+   */
+  public void setSharingTable(boolean isSharingTable) {
+    this.isSharingTable = isSharingTable;
+  }
+
+  /**
+   * Stops a search that is running on another thread,
+   * or the next one to start if none is running
+   */
+  public void stop() {
+    isStopped = true;
+  }
+
+  /**
+   * Searches from the root, starting with a narrow window around a guess
+   *
+   * @param depth the depth
+   * @param guess the score from the last pass
+   * @param isAspirated whether to start with a narrow window
+   * @return the score
+   */
+  private int searchRoot(int depth, int guess, boolean isAspirated) {
+    int alpha = isAspirated ? guess - ASPIRATION : -INFINITY;
+    int beta = isAspirated ? guess + ASPIRATION : INFINITY;
+
+    while (true) {
+      isFollowingPv = true;
+      int score = negamax(depth, 0, alpha, beta);
+
+      if (isStopped) {
+        return score;
+      }
+
+      // If the real score is outside of the window, we have to look again
+      // with that side opened all the way up
+      if (score <= alpha) {
+        alpha = -INFINITY;
+      } else if (score >= beta) {
+        beta = INFINITY;
+      } else {
+        return score;
+      }
+    }
+  }
+
+  /**
+   * Scores the position for whoever is moving
+   *
+   * @param depth the number of moves left to look at
+   * @param ply the number of moves from the root
+   * @param alpha the score we already know we can get
+   * @param beta the score the opponent already knows they can hold us to
+   * @return the score of the position
+   */
+  private int negamax(int depth, int ply, int alpha, int beta) {
+    pvLength[ply] = ply;
+    nodes++;
+
+    if ((nodes & CHECK_INTERVAL) == 0) {
+      checkLimits();
+    }
+
+    if (isStopped) {
+      return 0;
+    }
+
+    int player = othello.getTurn();
+
+    if (depth == 0) {
+      return evaluator.evaluate(othello, player);
+    }
+
+    long hash = othello.getHash();
+    long entry = table.probe(hash);
+    int hashMove = -1;
+
+    if (entry != 0) {
+      hashMove = TranspositionTable.getMove(entry);
+
+      // We need the root to fill in the best line, so it never stops here
+      if (ply > 0 && TranspositionTable.getDepth(entry) >= depth) {
+        int score = TranspositionTable.getScore(entry);
+        int bound = TranspositionTable.getBound(entry);
+
+        if (bound == TranspositionTable.EXACT
+            || (bound == TranspositionTable.LOWER && score >= beta)
+            || (bound == TranspositionTable.UPPER && score <= alpha)) {
+          return score;
+        }
+      }
+    }
+
+    int[] list = moves[ply];
+    int[] order = orders[ply];
+    int count = othello.getMoves(player + 1, list);
+    boolean isOnPv = isFollowingPv;
+    int pvMove = isOnPv && ply < previousPv.length ? previousPv[ply] : -1;
+
+    // The best move from the last pass goes first, then the best move
+    // from the table, then the moves that caused cutoffs at this ply,
+    // then whatever has worked well elsewhere
+    for (int i = 0; i < count; i++) {
+      int move = list[i];
+
+      if (move == pvMove) {
+        order[i] = Integer.MAX_VALUE;
+      } else if (move == hashMove) {
+        order[i] = Integer.MAX_VALUE - 1;
+      } else if (move == killers[ply][0]) {
+        order[i] = Integer.MAX_VALUE - 2;
+      } else if (move == killers[ply][1]) {
+        order[i] = Integer.MAX_VALUE - 3;
+      } else {
+        order[i] = history[player][move];
+      }
+    }
+
+    int originalAlpha = alpha;
+    int best = -INFINITY;
+    int bestMove = -1;
+
+    for (int i = 0; i < count; i++) {
+      pickNext(list, order, i, count);
+      int move = list[i];
+      isFollowingPv = isOnPv && move == pvMove;
+      pvLength[ply + 1] = ply + 1;
+      int next = othello.makeMove(move);
+      int score;
+
+      if (next == -1) {
+        score = getFinalScore(player);
+      } else if (next == player) {
+        score = negamax(depth - 1, ply + 1, alpha, beta);
+      } else {
+        score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+      }
+
+      othello.undo();
+
+      if (isStopped) {
+        return 0;
+      }
+
+      if (score > best) {
+        best = score;
+        bestMove = move;
+
+        if (score > alpha) {
+          alpha = score;
+          updatePv(ply, move);
+
+          if (alpha >= beta) {
+            if (move != killers[ply][0]) {
+              killers[ply][1] = killers[ply][0];
+              killers[ply][0] = move;
+            }
+
+            history[player][move] += depth * depth;
+            break;
+          }
+        }
+      }
+    }
+
+    int bound = TranspositionTable.EXACT;
+
+    if (best <= originalAlpha) {
+      bound = TranspositionTable.UPPER;
+    } else if (best >= beta) {
+      bound = TranspositionTable.LOWER;
+    }
+
+    table.store(hash, bestMove, best, depth, bound);
+    return best;
+  }
+
+  /**
+   * Moves the best remaining move to the front of what's left
+   *
+   * Most nodes are cut off after one or two moves,
+   * so this is cheaper than sorting the whole list up front
+   *
+   * @param list the moves
+   * @param order the ordering score of each move
+   * @param from the first move that hasn't been searched
+   * @param count the number of moves
+   */
+  private static void pickNext(int[] list, int[] order, int from, int count) {
+    int best = from;
+
+    for (int i = from + 1; i < count; i++) {
+      if (order[i] > order[best]) {
+        best = i;
+      }
+    }
+
+    int move = list[from];
+    list[from] = list[best];
+    list[best] = move;
+    int score = order[from];
+    order[from] = order[best];
+    order[best] = score;
+  }
+
+  /**
+   * Makes a move the start of the best line from a ply
+   *
+   * @param ply the ply
+   * @param move the move
+   */
+  private void updatePv(int ply, int move) {
+    pv[ply][ply] = move;
+    int length = pvLength[ply + 1];
+
+    for (int i = ply + 1; i < length; i++) {
+      pv[ply][i] = pv[ply + 1][i];
+    }
+
+    pvLength[ply] = Math.max(length, ply + 1);
+  }
+
+  /**
+   * Scores a finished game
+   *
+   * @param player the player (starting from 0)
+   * @return WIN plus the tile difference for a win, and the negative of that for a loss
+   */
+  private int getFinalScore(int player) {
+    Statistics statistics = othello.getStatistics();
+    int difference = statistics.getCount(player) - statistics.getCount(1 - player);
+    return Integer.signum(difference) * WIN + difference;
+  }
+
+  /**
+   * Stops the search if it has run out of time or nodes
+   */
+  private void checkLimits() {
+    if (nodes >= nodeLimit || System.nanoTime() > deadline) {
+      isStopped = true;
+    }
+  }
+}
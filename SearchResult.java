@@ -0,0 +1,102 @@
+/**
+ * A way to emit data after a search has finished
+ */
+public class SearchResult {
+  /**
+   * The best move that was found, or -1 if there were no moves
+   */
+  public int bestMove = -1;
+  /**
+   * The score of the best move for the player who is moving
+   */
+  public int score = 0;
+  /**
+   * The deepest search that was completed
+   */
+  public int depth = 0;
+  /**
+   * The moves that both sides are expected to play, starting with bestMove
+   */
+  public int[] principalVariation = new int[0];
+  /**
+   * The number of positions that were searched
+   */
+  public long nodes = 0;
+  /**
+   * How long the search took, in milliseconds
+   */
+  public long time = 0;
+  /**
+   * The number of positions that each thread searched
+   */
+  public long[] threadNodes = new long[0];
+  /**
+   * The score of every player, for searches with more than two players
+   */
+  public int[] scores = new int[0];
+
+  public SearchResult() {}
+
+  /**
+   * Gets the number of positions searched per second
+   *
+   * @return the number of positions searched per second
+   */
+  public long getNodesPerSecond() {
+    return time == 0 ? nodes * 1000 : nodes * 1000 / time;
+  }
+
+  /**
+   * Gets the number of positions searched per second by each thread
+   *
+   * @return the number of positions searched per second by each thread
+   */
+  public long[] getNodesPerSecondPerThread() {
+    long[] rates = new long[threadNodes.length];
+
+    for (int i = 0; i < rates.length; i++) {
+      rates[i] = time == 0 ? threadNodes[i] * 1000 : threadNodes[i] * 1000 / time;
+    }
+
+    return rates;
+  }
+
+  /**
+   * Creates a String of all of the variables of the instance
+   *
+   * @return a String of all the variables of the instance
+   */
+  public String toString() {
+    String string =
+      "bestMove: " + bestMove
+      + "\nscore: " + score
+      + "\ndepth: " + depth
+      + "\nnodes: " + nodes
+      + "\ntime: " + time
+      + "\nnodesPerSecond: " + getNodesPerSecond()
+      + "\nprincipalVariation:";
+
+    for (int i = 0; i < principalVariation.length; i++) {
+      string += " " + principalVariation[i];
+    }
+
+    if (scores.length > 0) {
+      string += "\nscores:";
+
+      for (int i = 0; i < scores.length; i++) {
+        string += " " + scores[i];
+      }
+    }
+
+    if (threadNodes.length > 0) {
+      string += "\nnodesPerSecondPerThread:";
+      long[] rates = getNodesPerSecondPerThread();
+
+      for (int i = 0; i < rates.length; i++) {
+        string += " " + rates[i];
+      }
+    }
+
+    return string;
+  }
+}
@@ -0,0 +1,81 @@
+/**
+ * An evaluation that only uses the statistics Othello already keeps
+ *
+ * Corners can never be captured, having more moves than everyone else
+ * is good, and tiles on the frontier give the other players moves.
+ * Tile counts only start to matter towards the end of the game.
+ * Each player's score is compared against the average of everyone else.
+ *
+ * @version 2026-10-18
+ */
+public class SimpleEvaluator implements Evaluator {
+  /**
+   * The value of a corner
+   */
+  private static final int CORNER = 800;
+  /**
+   * The value of a legal move
+   */
+  private static final int MOBILITY = 60;
+  /**
+   * The cost of a frontier tile
+   */
+  private static final int FRONTIER = 25;
+  /**
+   * The value of a tile at the very end of the game
+   */
+  private static final int DISC = 40;
+
+  public int evaluate(Othello othello, int player) {
+    int playerCount = othello.getPlayerCount();
+    int own = getScore(othello, player);
+    int others = 0;
+
+    for (int i = 0; i < playerCount; i++) {
+      if (i != player) {
+        others += getScore(othello, i);
+      }
+    }
+
+    int score = own - others / (playerCount - 1);
+    return Math.max(-MAX_SCORE, Math.min(MAX_SCORE, score));
+  }
+
+  /**
+   * Scores a single player on their own
+   *
+   * @param othello the position
+   * @param player the player (starting from 0)
+   * @return the score
+   */
+  private int getScore(Othello othello, int player) {
+    Statistics statistics = othello.getStatistics();
+    int size = othello.getSize();
+    int filled = size - statistics.getEmptyCount();
+    int value = player + 1;
+    int right = othello.getWidth() - 1;
+    int bottom = othello.getHeight() - 1;
+    int corners = 0;
+
+    if (othello.getValue(othello.getSquare(0, 0)) == value) {
+      corners++;
+    }
+
+    if (othello.getValue(othello.getSquare(right, 0)) == value) {
+      corners++;
+    }
+
+    if (othello.getValue(othello.getSquare(0, bottom)) == value) {
+      corners++;
+    }
+
+    if (othello.getValue(othello.getSquare(right, bottom)) == value) {
+      corners++;
+    }
+
+    return CORNER * corners
+      + MOBILITY * statistics.getMobility(player)
+      - FRONTIER * statistics.getFrontierCount(player)
+      + DISC * statistics.getCount(player) * filled / size;
+  }
+}
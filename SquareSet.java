@@ -0,0 +1,133 @@
+/**
+ * A set of squares with constant time adds, removes and lookups
+ *
+ * The members are kept packed at the front of an array, and every square
+ * remembers where it is in that array (or -1 if it isn't in the set).
+ * Removing a square just moves the last member into its spot.
+ *
+ * @version 2026-10-18
+ */
+public class SquareSet {
+  /**
+   * The squares in the set
+   */
+  private int[] members;
+  /**
+   * Where each square is in members, or -1 if it isn't in the set
+   */
+  private int[] positions;
+  /**
+   * The number of squares in the set
+   */
+  private int size = 0;
+
+  /**
+   * Creates an empty set
+   *
+   * @param capacity the number of squares on the board
+   */
+  public SquareSet(int capacity) {
+    members = new int[capacity];
+    positions = new int[capacity];
+
+    for (int i = 0; i < capacity; i++) {
+      positions[i] = -1;
+    }
+  }
+
+  /**
+   * Gets the number of squares in the set
+   *
+   * @return the number of squares
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Checks if a square is in the set
+   *
+   * @param square the square
+   * @return whether or not the square is in the set
+   */
+  public boolean contains(int square) {
+    return positions[square] != -1;
+  }
+
+  /**
+   * Gets a square in the set (in no particular order)
+   *
+   * @param index the index, from 0 to size() - 1
+   * @return the square
+   */
+  public int get(int index) {
+    return members[index];
+  }
+
+  /**
+   * Adds a square to the set if it isn't already there
+   *
+   * @param square the square
+   */
+  public void add(int square) {
+    if (positions[square] != -1) {
+      return;
+    }
+
+    members[size] = square;
+    positions[square] = size;
+    size++;
+  }
+
+  /**
+   * Removes a square from the set if it is there
+   *
+   * @param square the square
+   */
+  public void remove(int square) {
+    int position = positions[square];
+
+    if (position == -1) {
+      return;
+    }
+
+    // Fill the hole with the last member so that everything stays packed
+    size--;
+    int last = members[size];
+    members[position] = last;
+    positions[last] = position;
+    positions[square] = -1;
+  }
+
+  /**
+   * Makes this set hold exactly the squares of another one, in the same order
+   *
+   * Only the squares that are in either set are touched,
+   * so this costs nothing like a whole board
+   *
+   * @param other the set to copy, for a board of the same size
+   */
+  public void copyFrom(SquareSet other) {
+    for (int i = 0; i < size; i++) {
+      positions[members[i]] = -1;
+    }
+
+    size = other.size;
+    System.arraycopy(other.members, 0, members, 0, size);
+
+    for (int i = 0; i < size; i++) {
+      positions[members[i]] = i;
+    }
+  }
+
+  /**
+   * Copies every square in the set into a buffer
+   *
+   * @param buffer the buffer
+   * @return the number of squares copied
+   */
+  public int copyInto(int[] buffer) {
+    System.arraycopy(members, 0, buffer, 0, size);
+    return size;
+  }
+}
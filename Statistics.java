@@ -0,0 +1,250 @@
+/**
+ * Statistics about a position that are kept up to date as tiles change
+ *
+ * Othello tells this about every square that changes, so reading
+ * any of these never requires looking at the whole board.
+ * Players here start from 0, just like getCounts().
+ *
+ * @version 2026-10-18
+ */
+public class Statistics {
+  /**
+   * The game being described
+   */
+  private Othello othello;
+  /**
+   * The rays of squares for the board (only the first square of each is used)
+   */
+  private Rays rays;
+  /**
+   * The height of the board
+   */
+  private int height;
+  /**
+   * The x coordinate where the right half of the board starts
+   */
+  private int middleX;
+  /**
+   * The y coordinate where the bottom half of the board starts
+   */
+  private int middleY;
+  /**
+   * The number of tiles of each player
+   */
+  private int[] counts;
+  /**
+   * The number of frontier tiles (tiles next to an empty square) of each player
+   */
+  private int[] frontierCounts;
+  /**
+   * The number of empty squares
+   */
+  private int emptyCount;
+  /**
+   * The number of empty squares in each quarter of the board
+   */
+  private int[] regionEmptyCounts = new int[4];
+  /**
+   * The number of empty squares next to each square
+   */
+  private int[] emptyNeighbours;
+
+  /**
+   * Creates the statistics for an empty board
+   *
+   * @param othello the game to describe
+   */
+  public Statistics(Othello othello) {
+    int width = othello.getWidth();
+    this.othello = othello;
+    this.height = othello.getHeight();
+    this.rays = Rays.get(width, height);
+    this.middleX = (width + 1) / 2;
+    this.middleY = (height + 1) / 2;
+    this.counts = new int[othello.getPlayerCount()];
+    this.frontierCounts = new int[othello.getPlayerCount()];
+    this.emptyCount = othello.getSize();
+    this.emptyNeighbours = new int[emptyCount];
+
+    for (int square = 0; square < emptyCount; square++) {
+      regionEmptyCounts[getRegion(square)]++;
+
+      // On an empty board, every neighbour is empty
+      for (int dir = 0; dir < Rays.DIRECTIONS; dir++) {
+        if (getNeighbour(square, dir) != -1) {
+          emptyNeighbours[square]++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the quarter of the board that a square is in
+   *
+   * @param square the square
+   * @return the region from 0 to 3
+   */
+  public int getRegion(int square) {
+    int x = square / height;
+    int y = square % height;
+    return (x < middleX ? 0 : 1) + (y < middleY ? 0 : 2);
+  }
+
+  /**
+   * Gets the square next to a square in a direction
+   *
+   * @param square the square
+   * @param dir the index of the direction
+   * @return the neighbouring square, or -1 if it is off the board
+   */
+  private int getNeighbour(int square, int dir) {
+    int index = square * Rays.DIRECTIONS + dir;
+    int start = rays.starts[index];
+    return start < rays.starts[index + 1] ? rays.squares[start] : -1;
+  }
+
+  /**
+   * Records that a square has changed
+   *
+   * The board must already hold the new value
+   *
+   * @param square the square
+   * @param from the old value
+   * @param to the new value
+   */
+  public void change(int square, int from, int to) {
+    if (from == to) {
+      return;
+    }
+
+    boolean isFrontier = emptyNeighbours[square] > 0;
+
+    if (from != 0) {
+      counts[from - 1]--;
+
+      if (isFrontier) {
+        frontierCounts[from - 1]--;
+      }
+    }
+
+    if (to != 0) {
+      counts[to - 1]++;
+
+      if (isFrontier) {
+        frontierCounts[to - 1]++;
+      }
+    }
+
+    // Capturing a tile doesn't change which squares are empty,
+    // so there's nothing else to do unless a tile was placed or removed
+    if (from != 0 && to != 0) {
+      return;
+    }
+
+    int delta = to == 0 ? 1 : -1;
+    emptyCount += delta;
+    regionEmptyCounts[getRegion(square)] += delta;
+
+    for (int dir = 0; dir < Rays.DIRECTIONS; dir++) {
+      int neighbour = getNeighbour(square, dir);
+
+      if (neighbour == -1) {
+        continue;
+      }
+
+      emptyNeighbours[neighbour] += delta;
+      int value = othello.getValue(neighbour);
+
+      // A neighbouring tile only changes whether it is on the frontier
+      // when it loses its last empty neighbour or gains its first one
+      if (value != 0) {
+        if (delta == -1 && emptyNeighbours[neighbour] == 0) {
+          frontierCounts[value - 1]--;
+        } else if (delta == 1 && emptyNeighbours[neighbour] == 1) {
+          frontierCounts[value - 1]++;
+        }
+      }
+    }
+  }
+
+  /**
+   * Overwrites these statistics with those of another game of the same size,
+   * for when its whole board has been copied into this one's
+   *
+   * @param other the statistics to copy from
+   */
+  public void copyFrom(Statistics other) {
+    System.arraycopy(other.counts, 0, counts, 0, counts.length);
+    System.arraycopy(other.frontierCounts, 0, frontierCounts, 0, frontierCounts.length);
+    System.arraycopy(other.regionEmptyCounts, 0, regionEmptyCounts, 0, regionEmptyCounts.length);
+    System.arraycopy(other.emptyNeighbours, 0, emptyNeighbours, 0, emptyNeighbours.length);
+    emptyCount = other.emptyCount;
+  }
+
+  /**
+   * Gets the number of tiles of a player
+   *
+   * @param player the player (starting from 0)
+   * @return the number of tiles
+   */
+  public int getCount(int player) {
+    return counts[player];
+  }
+
+  /**
+   * Gets the number of frontier tiles of a player
+   *
+   * @param player the player (starting from 0)
+   * @return the number of tiles next to at least one empty square
+   */
+  public int getFrontierCount(int player) {
+    return frontierCounts[player];
+  }
+
+  /**
+   * Gets the number of legal moves of a player
+   *
+   * @param player the player (starting from 0)
+   * @return the number of legal moves
+   */
+  public int getMobility(int player) {
+    return othello.getMoveCount(player + 1);
+  }
+
+  /**
+   * Gets the number of empty squares
+   *
+   * @return the number of empty squares
+   */
+  public int getEmptyCount() {
+    return emptyCount;
+  }
+
+  /**
+   * Gets the number of empty squares in a quarter of the board
+   *
+   * @param region the region from 0 to 3
+   * @return the number of empty squares
+   */
+  public int getRegionEmptyCount(int region) {
+    return regionEmptyCounts[region];
+  }
+
+  /**
+   * Gets the parity of every quarter of the board
+   *
+   * Near the end of the game, whoever moves last in a region usually
+   * comes out ahead, so it matters which regions have an odd number of squares left
+   *
+   * @return a bitmask where bit k is set if region k has an odd number of empty squares
+   */
+  public int getParity() {
+    int parity = 0;
+
+    for (int region = 0; region < 4; region++) {
+      parity |= (regionEmptyCounts[region] & 1) << region;
+    }
+
+    return parity;
+  }
+}
@@ -0,0 +1,233 @@
+import java.util.*;
+
+/**
+ * The ways a board can be flipped or turned without changing the game
+ *
+ * Symmetry k flips the x axis if bit 0 is set and the y axis if bit 1 is set.
+ * If bit 2 is set, x and y are swapped first, which only works on square
+ * boards, so those have eight symmetries and every other board has four.
+ * A position and all of its flipped and turned copies play out the same,
+ * so anything that remembers positions only needs to remember one of them:
+ * the canonical one, which is the copy with the smallest hash.
+ *
+ * @version 2026-10-18
+ */
+public class Symmetry {
+  /**
+   * The most board sizes to keep symmetries for
+   */
+  private static final int CACHE_SIZE = 16;
+  /**
+   * Symmetries that have already been built, by board size,
+   * dropping whichever was used longest ago
+   */
+  private static LinkedHashMap<Long, Symmetry> cache = new LinkedHashMap<Long, Symmetry>(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<Long, Symmetry> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  /**
+   * The number of symmetries (8 for square boards, otherwise 4)
+   */
+  public final int count;
+  /**
+   * Where each square ends up under each symmetry
+   */
+  private final int[][] squares;
+
+  /**
+   * Builds the symmetries of a board
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   */
+  private Symmetry(int width, int height) {
+    count = width == height ? 8 : 4;
+    squares = new int[count][width * height];
+
+    for (int symmetry = 0; symmetry < count; symmetry++) {
+      for (int x = 0; x < width; x++) {
+        for (int y = 0; y < height; y++) {
+          int newX = (symmetry & 4) != 0 ? y : x;
+          int newY = (symmetry & 4) != 0 ? x : y;
+          newX = (symmetry & 1) != 0 ? width - 1 - newX : newX;
+          newY = (symmetry & 2) != 0 ? height - 1 - newY : newY;
+          squares[symmetry][x * height + y] = newX * height + newY;
+        }
+      }
+    }
+  }
+
+  /**
+   * Gets the symmetries of a board, building them if needed
+   *
+   * @param width the width of the board
+   * @param height the height of the board
+   * @return the symmetries
+   */
+  public static synchronized Symmetry get(int width, int height) {
+    long key = ((long) width << 32) | height;
+    Symmetry symmetry = cache.get(key);
+
+    if (symmetry == null) {
+      symmetry = new Symmetry(width, height);
+      cache.put(key, symmetry);
+    }
+
+    return symmetry;
+  }
+
+  /**
+   * Gets where a square ends up under a symmetry
+   *
+   * @param square the square
+   * @param symmetry the symmetry
+   * @return the square it ends up on
+   */
+  public int transform(int square, int symmetry) {
+    return squares[symmetry][square];
+  }
+
+  /**
+   * Gets the symmetry that undoes a symmetry
+   *
+   * Flips undo themselves, but when x and y are swapped first,
+   * the flip that happened to x afterwards has to happen to y instead
+   *
+   * @param symmetry the symmetry
+   * @return the symmetry that undoes it
+   */
+  public static int getInverse(int symmetry) {
+    if ((symmetry & 4) == 0) {
+      return symmetry;
+    }
+
+    return 4 | ((symmetry & 1) << 1) | ((symmetry & 2) >> 1);
+  }
+
+  /**
+   * Hashes the copy of a position under a symmetry
+   *
+   * Symmetry 0 gives the same hash as Othello.getHash()
+   *
+   * @param othello the position
+   * @param symmetry the symmetry
+   * @return the hash of the flipped or turned position
+   */
+  public long hash(Othello othello, int symmetry) {
+    Zobrist zobrist = Zobrist.get(othello.getSize(), othello.getPlayerCount());
+    int[] map = squares[symmetry];
+    long hash = zobrist.getTurnKey(othello.getTurn());
+
+    for (int square = 0; square < map.length; square++) {
+      int value = othello.getValue(square);
+
+      if (value != 0) {
+        hash ^= zobrist.getSquareKey(map[square], value);
+      }
+    }
+
+    return hash;
+  }
+
+  /**
+   * Finds the symmetry that turns a position into its canonical copy
+   *
+   * @param othello the position
+   * @return the symmetry whose copy has the smallest hash
+   */
+  public int getCanonical(Othello othello) {
+    return Integer.numberOfTrailingZeros(getCanonicalSymmetries(othello));
+  }
+
+  /**
+   * Finds every symmetry that turns a position into its canonical copy
+   *
+   * There's more than one whenever the position is symmetric to itself
+   * (which happens a lot in the first few moves), and they all give
+   * the same board, but they don't all move a square to the same place
+   *
+   * @param othello the position
+   * @return a mask with bit k set if symmetry k gives the smallest hash
+   */
+  public int getCanonicalSymmetries(Othello othello) {
+    // Every copy is hashed in the same pass over the board
+    Zobrist zobrist = Zobrist.get(othello.getSize(), othello.getPlayerCount());
+    long[] hashes = new long[count];
+    Arrays.fill(hashes, zobrist.getTurnKey(othello.getTurn()));
+
+    for (int square = 0; square < squares[0].length; square++) {
+      int value = othello.getValue(square);
+
+      if (value != 0) {
+        for (int symmetry = 0; symmetry < count; symmetry++) {
+          hashes[symmetry] ^= zobrist.getSquareKey(squares[symmetry][square], value);
+        }
+      }
+    }
+
+    int best = 0;
+
+    for (int symmetry = 1; symmetry < count; symmetry++) {
+      if (hashes[symmetry] < hashes[best]) {
+        best = symmetry;
+      }
+    }
+
+    int mask = 0;
+
+    for (int symmetry = 0; symmetry < count; symmetry++) {
+      if (hashes[symmetry] == hashes[best]) {
+        mask |= 1 << symmetry;
+      }
+    }
+
+    return mask;
+  }
+
+  /**
+   * Gets where a move ends up in the canonical copy of its position
+   *
+   * When more than one symmetry gives the canonical copy, a move and its
+   * mirror image in a position that's symmetric to itself are really the same
+   * move, so this picks the smallest square the move reaches under any of them.
+   * That way the same move is always stored in the same place, no matter
+   * which copy of the position it was played in.
+   *
+   * @param square the move
+   * @param symmetries the mask from getCanonicalSymmetries()
+   * @return the move in the canonical copy
+   */
+  public int getCanonicalMove(int square, int symmetries) {
+    int best = Integer.MAX_VALUE;
+
+    for (int symmetry = 0; symmetry < count; symmetry++) {
+      if ((symmetries & (1 << symmetry)) != 0) {
+        best = Math.min(best, squares[symmetry][square]);
+      }
+    }
+
+    return best;
+  }
+
+  /**
+   * Builds the copy of a position under a symmetry
+   *
+   * @param othello the position
+   * @param symmetry the symmetry
+   * @return the flipped or turned position, with an empty log
+   */
+  public Othello apply(Othello othello, int symmetry) {
+    int[] values = othello.getValues();
+    int[] moved = new int[values.length];
+
+    for (int square = 0; square < values.length; square++) {
+      moved[squares[symmetry][square]] = values[square];
+    }
+
+    Othello copy = new Othello(othello.getWidth(), othello.getHeight(), othello.getPlayerCount());
+    copy.setPosition(moved, othello.getTurn());
+    return copy;
+  }
+}
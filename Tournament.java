@@ -0,0 +1,230 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Plays lots of games between engines without any windows or sounds
+ *
+ * Each game runs on its own thread with its own Othello, so games are
+ * spread over every core. The engines take turns sitting in each seat,
+ * and the first few moves of each game are random so that the games
+ * aren't all the same. Every result is written out as soon as its game
+ * finishes, so a long run can be watched (or stopped) part of the way through.
+ *
+ * @version 2026-10-18
+ */
+public class Tournament {
+  /**
+   * The engine specs (see Engine.create)
+   */
+  private String[] specs;
+  /**
+   * The width of the board
+   */
+  private int width;
+  /**
+   * The height of the board
+   */
+  private int height;
+  /**
+   * The number of players
+   */
+  private int playerCount;
+  /**
+   * The number of plies at the start of each game that are random
+   */
+  private int randomPlies;
+  /**
+   * The seed of the first game (each game after it adds one)
+   */
+  private long seed;
+
+  /**
+   * Creates a tournament
+   *
+   * @param specs the engine specs
+   * @param width the width of the board
+   * @param height the height of the board
+   * @param playerCount the number of players
+   * @param randomPlies the number of plies at the start of each game that are random
+   * @param seed the seed of the first game
+   */
+  public Tournament(String[] specs, int width, int height, int playerCount, int randomPlies, long seed) {
+    this.specs = specs;
+    this.width = width;
+    this.height = height;
+    this.playerCount = playerCount;
+    this.randomPlies = randomPlies;
+    this.seed = seed;
+  }
+
+  /**
+   * Plays one game
+   *
+   * @param index the number of the game, which picks the seats and the seed
+   * @return the result
+   */
+  public GameResult playGame(int index) {
+    long start = System.nanoTime();
+    Othello othello = new Othello(width, height, playerCount);
+    othello.setInitialBoard();
+    Random random = new Random(seed + index);
+    Engine[] engines = new Engine[playerCount];
+    GameResult result = new GameResult();
+    result.index = index;
+    result.engines = new String[playerCount];
+
+    try {
+      // Rotating the seats means every engine moves first equally often
+      for (int seat = 0; seat < playerCount; seat++) {
+        result.engines[seat] = specs[(seat + index) % specs.length];
+        engines[seat] = Engine.create(result.engines[seat], othello, random.nextLong());
+      }
+
+      int[] moves = new int[othello.getSize()];
+
+      while (othello.getTurn() != -1) {
+        int turn = othello.getTurn();
+        int move;
+
+        if (result.plies < randomPlies) {
+          move = moves[random.nextInt(othello.getMoves(turn + 1, moves))];
+        } else {
+          move = engines[turn].getMove();
+        }
+
+        othello.makeMove(move);
+        result.plies++;
+      }
+    } finally {
+      // A parallel engine's threads would otherwise outlive the game
+      for (Engine engine : engines) {
+        if (engine != null) {
+          engine.close();
+        }
+      }
+    }
+
+    result.counts = new int[playerCount];
+
+    for (int i = 0; i < playerCount; i++) {
+      result.counts[i] = othello.getStatistics().getCount(i);
+    }
+
+    result.time = (System.nanoTime() - start) / 1000000;
+    return result;
+  }
+
+  /**
+   * Plays games and writes their results as they finish
+   *
+   * @param games the number of games
+   * @param threads the number of games to play at once
+   * @param out where each result is written, one line per game
+   * @return the total score of each engine, by spec
+   * @throws Exception if a game fails or the results can't be written
+   */
+  public HashMap<String, Double> play(int games, int threads, Writer out) throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CompletionService<GameResult> results = new ExecutorCompletionService<GameResult>(pool);
+    HashMap<String, Double> scores = new HashMap<String, Double>();
+
+    try {
+      for (int i = 0; i < games; i++) {
+        int index = i;
+        results.submit(() -> playGame(index));
+      }
+
+      // Only this thread writes, so the lines never get mixed up
+      for (int i = 0; i < games; i++) {
+        GameResult result = results.take().get();
+        out.write(result + "\n");
+        out.flush();
+
+        for (int seat = 0; seat < playerCount; seat++) {
+          scores.merge(result.engines[seat], result.getScore(seat), Double::sum);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    return scores;
+  }
+
+  /**
+   * Runs a tournament and prints how each engine did
+   *
+   * @param args --engines (comma-separated specs), --games, --players,
+   *   --width, --height, --random, --seed, --threads and --out
+   * @throws Exception if a game fails or the results can't be written
+   */
+  public static void main(String[] args) throws Exception {
+    String[] specs = {"search", "random"};
+    Path path = Paths.get("tournament.csv");
+    int games = 100;
+    int playerCount = 2;
+    int width = 8;
+    int height = 8;
+    int randomPlies = 4;
+    long seed = 42;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--engines".equals(args[i])) {
+        specs = args[i + 1].split(",");
+        continue;
+      } else if ("--out".equals(args[i])) {
+        path = Paths.get(args[i + 1]);
+        continue;
+      }
+
+      long value = Long.parseLong(args[i + 1]);
+
+      if ("--games".equals(args[i])) {
+        games = (int) value;
+      } else if ("--players".equals(args[i])) {
+        playerCount = (int) value;
+      } else if ("--width".equals(args[i])) {
+        width = (int) value;
+      } else if ("--height".equals(args[i])) {
+        height = (int) value;
+      } else if ("--random".equals(args[i])) {
+        randomPlies = (int) value;
+      } else if ("--seed".equals(args[i])) {
+        seed = value;
+      } else if ("--threads".equals(args[i])) {
+        threads = (int) value;
+      }
+    }
+
+    Tournament tournament = new Tournament(specs, width, height, playerCount, randomPlies, seed);
+    long start = System.nanoTime();
+    HashMap<String, Double> scores;
+
+    try (Writer out = Files.newBufferedWriter(path)) {
+      scores = tournament.play(games, threads, out);
+    }
+
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("%d games in %.1f s (%.2f games/s) on %d threads, results in %s",
+      games, seconds, games / seconds, threads, path));
+
+    // Each engine sits in a share of the seats, so its score is out of that many games
+    HashMap<String, Integer> seats = new HashMap<String, Integer>();
+
+    for (int i = 0; i < games; i++) {
+      for (int seat = 0; seat < playerCount; seat++) {
+        seats.merge(specs[(seat + i) % specs.length], 1, Integer::sum);
+      }
+    }
+
+    for (String spec : scores.keySet()) {
+      double score = scores.get(spec);
+      int played = seats.get(spec);
+      System.out.println(String.format("%-20s %8.1f / %d (%.1f%%)",
+        spec, score, played, 100 * score / played));
+    }
+  }
+}
@@ -0,0 +1,399 @@
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Fits the weights of a PatternEvaluator to recorded games
+ *
+ * Every position of every game is labelled with how the game ended
+ * (the tile difference, in hundredths of a tile), and the weights are
+ * fitted by least squares so that adding up a position's patterns guesses
+ * its label. Each position is used from both players' points of view.
+ *
+ * The games are replayed from the file on every pass rather than kept
+ * in memory, so the memory used only depends on the number of weights and
+ * threads, not on the number of games. One thread replays the games into
+ * blocks of pattern indices, and every other core works out the errors
+ * of a block at a time. Each pass then moves every weight by the average
+ * error of the positions it appeared in.
+ *
+ * The games are read from a game record file (see GameRecordWriter),
+ * and only 8x8 two player games are used.
+ *
+ * @version 2026-10-18
+ */
+public class Trainer {
+  /**
+   * The number of positions in a block
+   */
+  private static final int BLOCK_SIZE = 4096;
+  /**
+   * How many positions a weight is assumed to have been seen in already,
+   * so that rare patterns don't jump to whatever their few positions say
+   */
+  private static final int SMOOTHING = 8;
+
+  /**
+   * The number of phases
+   */
+  private int phaseCount;
+  /**
+   * The number of threads working out errors
+   */
+  private int threads;
+  /**
+   * The weights, one phase after another
+   */
+  private double[] weights;
+
+  /**
+   * The pattern indices and labels of a block of positions
+   */
+  private static class Block {
+    /**
+     * The weights used by each position, one position after another
+     */
+    int[] features = new int[BLOCK_SIZE * Patterns.getCount()];
+    /**
+     * The label of each position
+     */
+    int[] targets = new int[BLOCK_SIZE];
+    /**
+     * The number of positions in the block
+     */
+    int size;
+  }
+
+  /**
+   * What one thread has added up over a pass
+   */
+  private static class Totals {
+    /**
+     * The total error of the positions that used each weight
+     */
+    double[] errors;
+    /**
+     * The number of positions that used each weight
+     */
+    int[] counts;
+    /**
+     * The total squared error
+     */
+    double squaredError;
+    /**
+     * The number of positions
+     */
+    long positions;
+  }
+
+  /**
+   * Creates a trainer that starts with every weight at 0
+   *
+   * @param phaseCount the number of phases
+   * @param threads the number of threads working out errors
+   */
+  public Trainer(int phaseCount, int threads) {
+    this.phaseCount = phaseCount;
+    this.threads = threads;
+    weights = new double[phaseCount * PatternEvaluator.PHASE_SIZE];
+  }
+
+  /**
+   * Goes over every game once and moves the weights towards a better fit
+   *
+   * @param games the games file
+   * @param rate how far to move each weight, from 0 to 1
+   * @return the root mean squared error before the weights moved, in tiles
+   * @throws Exception if the games can't be read
+   */
+  public double train(Path games, double rate) throws Exception {
+    // Two blocks for each thread is enough to keep everyone busy
+    // while the replaying thread fills the next one
+    BlockingQueue<Block> empty = new ArrayBlockingQueue<Block>(threads * 2);
+    BlockingQueue<Block> full = new ArrayBlockingQueue<Block>(threads * 2);
+    Block done = new Block();
+
+    for (int i = 0; i < threads * 2; i++) {
+      empty.add(new Block());
+    }
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    ArrayList<Future<Totals>> results = new ArrayList<Future<Totals>>();
+
+    for (int i = 0; i < threads; i++) {
+      results.add(pool.submit(() -> {
+        Totals totals = new Totals();
+        totals.errors = new double[weights.length];
+        totals.counts = new int[weights.length];
+
+        for (Block block = full.take(); block != done; block = full.take()) {
+          addErrors(block, totals);
+          empty.put(block);
+        }
+
+        // Pass it on so every other thread stops too
+        full.put(done);
+        return totals;
+      }));
+    }
+
+    Totals sum = new Totals();
+    sum.errors = new double[weights.length];
+    sum.counts = new int[weights.length];
+
+    try {
+      Block block = empty.take();
+
+      try (GameRecordReader in = new GameRecordReader(games)) {
+        GameRecord record;
+
+        while ((record = in.read()) != null) {
+          if (record.width != Bitboard.SIZE || record.height != Bitboard.SIZE || record.playerCount != 2) {
+            continue;
+          }
+
+          // Each position appears twice, and a block must hold a whole game
+          if (block.size + 2 * (record.moves.length + 1) > BLOCK_SIZE) {
+            full.put(block);
+            block = empty.take();
+            block.size = 0;
+          }
+
+          addGame(record, block);
+        }
+      }
+
+      full.put(block);
+      full.put(done);
+
+      for (Future<Totals> result : results) {
+        Totals totals = result.get();
+        sum.squaredError += totals.squaredError;
+        sum.positions += totals.positions;
+
+        for (int i = 0; i < weights.length; i++) {
+          sum.errors[i] += totals.errors[i];
+          sum.counts[i] += totals.counts[i];
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    // Every position uses one weight from each pattern, so moving
+    // every weight by the whole error would overshoot by that many times
+    double step = rate / Patterns.getCount();
+
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] += step * sum.errors[i] / (sum.counts[i] + SMOOTHING);
+    }
+
+    return sum.positions == 0 ? 0 : Math.sqrt(sum.squaredError / sum.positions) / 100;
+  }
+
+  /**
+   * Replays a game and adds each of its positions to a block
+   *
+   * @param record the game
+   * @param block the block
+   * @throws IOException if a move isn't legal
+   */
+  private void addGame(GameRecord record, Block block) throws IOException {
+    int[] moves = record.moves;
+    Othello othello = record.createStart();
+    Patterns patterns = othello.getPatterns();
+    int start = block.size;
+
+    for (int ply = 0; ply <= moves.length; ply++) {
+      int phase = PatternEvaluator.getPhase(othello.getStatistics().getEmptyCount(), phaseCount);
+
+      for (int player = 0; player < 2; player++) {
+        int base = block.size * Patterns.getCount();
+
+        for (int i = 0; i < Patterns.getCount(); i++) {
+          block.features[base + i] = PatternEvaluator.getOffset(phase, Patterns.getType(i), patterns.getIndex(i, player));
+        }
+
+        block.size++;
+      }
+
+      if (ply == moves.length) {
+        break;
+      }
+
+      int turn = othello.getTurn();
+
+      if (turn == -1 || !othello.isLegal(moves[ply], turn + 1)) {
+        throw new IOException("Illegal move " + moves[ply] + " at ply " + ply);
+      }
+
+      othello.makeMove(moves[ply]);
+    }
+
+    // Only now do we know how the game ended
+    Statistics statistics = othello.getStatistics();
+    int difference = 100 * (statistics.getCount(0) - statistics.getCount(1));
+
+    for (int i = start; i < block.size; i += 2) {
+      block.targets[i] = difference;
+      block.targets[i + 1] = -difference;
+    }
+  }
+
+  /**
+   * Adds up the errors of a block of positions
+   *
+   * @param block the block
+   * @param totals where to add them
+   */
+  private void addErrors(Block block, Totals totals) {
+    int count = Patterns.getCount();
+
+    for (int position = 0; position < block.size; position++) {
+      int base = position * count;
+      double guess = 0;
+
+      for (int i = 0; i < count; i++) {
+        guess += weights[block.features[base + i]];
+      }
+
+      double error = block.targets[position] - guess;
+      totals.squaredError += error * error;
+      totals.positions++;
+
+      for (int i = 0; i < count; i++) {
+        int feature = block.features[base + i];
+        totals.errors[feature] += error;
+        totals.counts[feature]++;
+      }
+    }
+  }
+
+  /**
+   * Writes the weights to a weight file
+   *
+   * @param path the file
+   * @throws IOException if the file can't be written
+   */
+  public void write(Path path) throws IOException {
+    short[] rounded = new short[weights.length];
+
+    for (int i = 0; i < weights.length; i++) {
+      rounded[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(weights[i])));
+    }
+
+    PatternEvaluator.write(path, rounded, phaseCount);
+  }
+
+  /**
+   * Plays games for training and writes them to a games file
+   *
+   * The first few moves of each game are random, so that the games
+   * cover more than one line, and the rest are searched
+   *
+   * @param path the games file
+   * @param games the number of games
+   * @param randomPlies the number of plies at the start of each game that are random
+   * @param nodeLimit the number of positions each search may look at
+   * @param threads the number of games to play at once
+   * @param seed the seed of the first game (each game after it adds one)
+   * @throws Exception if a game fails or the file can't be written
+   */
+  public static void generate(Path path, int games, int randomPlies, long nodeLimit, int threads, long seed)
+      throws Exception {
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    CompletionService<Othello> results = new ExecutorCompletionService<Othello>(pool);
+
+    try (GameRecordWriter out = new GameRecordWriter(path)) {
+      for (int i = 0; i < games; i++) {
+        long gameSeed = seed + i;
+        results.submit(() -> {
+          Othello othello = new Othello(Bitboard.SIZE, Bitboard.SIZE);
+          othello.setInitialBoard();
+          Random random = new Random(gameSeed);
+          try (Engine engine = Engine.create("search:" + nodeLimit, othello, gameSeed)) {
+            int[] moves = new int[othello.getSize()];
+
+            for (int ply = 0; othello.getTurn() != -1; ply++) {
+              int move = ply < randomPlies
+                ? moves[random.nextInt(othello.getMoves(othello.getTurn() + 1, moves))]
+                : engine.getMove();
+              othello.makeMove(move);
+            }
+          }
+
+          return othello;
+        });
+      }
+
+      // Only this thread writes, so the records never get mixed up
+      for (int i = 0; i < games; i++) {
+        out.write(results.take().get());
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+
+  /**
+   * Fits weights to a games file, playing the games first if asked to
+   *
+   * @param args --games (the game record file), --weights (the weight file),
+   *   --generate (the number of games to play first), --random, --nodes,
+   *   --passes, --rate, --phases and --threads
+   * @throws Exception if the files can't be read or written
+   */
+  public static void main(String[] args) throws Exception {
+    Path games = Paths.get("games.ogr");
+    Path path = Paths.get("weights.bin");
+    int generate = 0;
+    int randomPlies = 8;
+    long nodeLimit = 2000;
+    int passes = 20;
+    double rate = 1;
+    int phaseCount = 12;
+    int threads = Runtime.getRuntime().availableProcessors();
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      if ("--games".equals(args[i])) {
+        games = Paths.get(args[i + 1]);
+      } else if ("--weights".equals(args[i])) {
+        path = Paths.get(args[i + 1]);
+      } else if ("--rate".equals(args[i])) {
+        rate = Double.parseDouble(args[i + 1]);
+      } else if ("--generate".equals(args[i])) {
+        generate = Integer.parseInt(args[i + 1]);
+      } else if ("--random".equals(args[i])) {
+        randomPlies = Integer.parseInt(args[i + 1]);
+      } else if ("--nodes".equals(args[i])) {
+        nodeLimit = Long.parseLong(args[i + 1]);
+      } else if ("--passes".equals(args[i])) {
+        passes = Integer.parseInt(args[i + 1]);
+      } else if ("--phases".equals(args[i])) {
+        phaseCount = Integer.parseInt(args[i + 1]);
+      } else if ("--threads".equals(args[i])) {
+        threads = Integer.parseInt(args[i + 1]);
+      }
+    }
+
+    if (generate > 0) {
+      long start = System.nanoTime();
+      generate(games, generate, randomPlies, nodeLimit, threads, new Random().nextLong());
+      System.out.println(String.format("%d games in %.1f s, written to %s",
+        generate, (System.nanoTime() - start) / 1e9, games));
+    }
+
+    Trainer trainer = new Trainer(phaseCount, threads);
+
+    for (int pass = 1; pass <= passes; pass++) {
+      long start = System.nanoTime();
+      double error = trainer.train(games, rate);
+      System.out.println(String.format("pass %3d: error %.2f tiles (%.1f s)",
+        pass, error, (System.nanoTime() - start) / 1e9));
+    }
+
+    trainer.write(path);
+    System.out.println("Weights written to " + path);
+  }
+}
@@ -0,0 +1,200 @@
+import java.lang.invoke.*;
+
+/**
+ * A fixed-size table of positions that have already been searched
+ *
+ * Each entry is two longs: the hash of the position XORed with the data,
+ * and the data itself. If two threads write the same entry at the same
+ * time and the halves get mixed up, the XOR no longer matches the hash,
+ * so the entry is simply treated as missing. That way, any number of
+ * search threads can share one table without any locks.
+ *
+ * Entries come in pairs. The first of each pair keeps whichever position
+ * was searched deepest, and the second is always replaced.
+ *
+ * The data is packed like this, from the lowest bit up:
+ * 32 bits of score, 16 bits of move (plus one, so -1 fits),
+ * 8 bits of depth, 2 bits of bound and 6 bits of generation.
+ *
+ * @version 2026-10-18
+ */
+public class TranspositionTable {
+  /**
+   * The score is exact
+   */
+  public static final int EXACT = 1;
+  /**
+   * The real score is at least this much
+   */
+  public static final int LOWER = 2;
+  /**
+   * The real score is at most this much
+   */
+  public static final int UPPER = 3;
+  // Plain long writes aren't guaranteed to be atomic,
+  // but opaque ones are (and they cost nothing extra on 64-bit machines)
+  /**
+   * A handle for reading and writing the table atomically
+   */
+  private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+
+  /**
+   * The entries (four longs per pair)
+   */
+  private final long[] entries;
+  /**
+   * A mask for picking a pair from a hash
+   */
+  private final int mask;
+  /**
+   * The generation, which goes up every search so that old entries get replaced
+   */
+  private volatile int generation = 0;
+
+  /**
+   * Creates an empty table
+   *
+   * @param megabytes roughly how much memory to use
+   */
+  public TranspositionTable(int megabytes) {
+    // Each pair takes 32 bytes, and the number of pairs must be a power of two
+    long pairs = Math.max(1, ((long) megabytes << 20) / 32);
+    pairs = Long.highestOneBit(Math.min(pairs, Integer.MAX_VALUE / 4));
+    entries = new long[(int) pairs * 4];
+    mask = (int) pairs - 1;
+  }
+
+  /**
+   * Starts a new search, so that entries from earlier ones can be replaced
+   */
+  public void newSearch() {
+    generation = (generation + 1) & 63;
+  }
+
+  /**
+   * Removes every entry
+   */
+  public void clear() {
+    for (int i = 0; i < entries.length; i++) {
+      LONGS.setOpaque(entries, i, 0L);
+    }
+  }
+
+  /**
+   * Looks up a position
+   *
+   * @param hash the hash of the position
+   * @return the data of the entry, or 0 if there isn't one
+   */
+  public long probe(long hash) {
+    int index = ((int) hash & mask) << 2;
+
+    for (int slot = index; slot < index + 4; slot += 2) {
+      long check = (long) LONGS.getOpaque(entries, slot);
+      long data = (long) LONGS.getOpaque(entries, slot + 1);
+
+      if ((check ^ data) == hash && data != 0) {
+        return data;
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * Stores a position
+   *
+   * @param hash the hash of the position
+   * @param move the best move, or -1 if there isn't one
+   * @param score the score
+   * @param depth the depth that was searched
+   * @param bound EXACT, LOWER or UPPER
+   */
+  public void store(long hash, int move, int score, int depth, int bound) {
+    int index = ((int) hash & mask) << 2;
+    long data = pack(move, score, depth, bound, generation);
+    long first = (long) LONGS.getOpaque(entries, index + 1);
+    long firstCheck = (long) LONGS.getOpaque(entries, index);
+    int slot = index + 2;
+
+    // The first slot is replaced if it's the same position, if it's from an
+    // older search, or if the new one was searched at least as deep
+    if (first == 0
+        || (firstCheck ^ first) == hash
+        || getGeneration(first) != generation
+        || depth >= getDepth(first)) {
+      slot = index;
+    }
+
+    LONGS.setOpaque(entries, slot, hash ^ data);
+    LONGS.setOpaque(entries, slot + 1, data);
+  }
+
+  /**
+   * Packs the data of an entry into a long
+   *
+   * @param move the best move, or -1 if there isn't one
+   * @param score the score
+   * @param depth the depth
+   * @param bound the bound
+   * @param generation the generation
+   * @return the data
+   */
+  private static long pack(int move, int score, int depth, int bound, int generation) {
+    return (score & 0xFFFFFFFFL)
+      | ((long) ((move + 1) & 0xFFFF) << 32)
+      | ((long) Math.min(depth, 255) << 48)
+      | ((long) bound << 56)
+      | ((long) generation << 58);
+  }
+
+  /**
+   * Gets the best move of an entry
+   *
+   * @param data the data of the entry
+   * @return the move, or -1 if there isn't one
+   */
+  public static int getMove(long data) {
+    return (int) ((data >>> 32) & 0xFFFF) - 1;
+  }
+
+  /**
+   * Gets the score of an entry
+   *
+   * @param data the data of the entry
+   * @return the score
+   */
+  public static int getScore(long data) {
+    return (int) data;
+  }
+
+  /**
+   * Gets the depth of an entry
+   *
+   * @param data the data of the entry
+   * @return the depth
+   */
+  public static int getDepth(long data) {
+    return (int) ((data >>> 48) & 0xFF);
+  }
+
+  /**
+   * Gets the bound of an entry
+   *
+   * @param data the data of the entry
+   * @return EXACT, LOWER or UPPER
+   */
+  public static int getBound(long data) {
+    return (int) ((data >>> 56) & 3);
+  }
+
+  /**
+   * Gets the generation of an entry
+   *
+   * @param data the data of the entry
+   * @return the generation
+   */
+  private static int getGeneration(long data) {
+    return (int) (data >>> 58);
+  }
+}
@@ -0,0 +1,126 @@
+import java.util.*;
+
+/**
+ * Random numbers for hashing positions
+ *
+ * Every value of every square and every turn gets its own random long.
+ * The hash of a position is all of the ones that apply XORed together,
+ * so changing a square only takes two XORs (one to remove the old value
+ * and one to add the new one).
+ *
+ * @version 2026-10-18
+ */
+public class Zobrist {
+  // The seed never changes, so the same position always gets the same hash,
+  // even in a different run of the program
+  /**
+   * The seed for the random numbers
+   */
+  private static final long SEED = 0x0123456789ABCDEFL;
+  /**
+   * The most board sizes to keep keys for
+   */
+  private static final int CACHE_SIZE = 16;
+  /**
+   * Keys that have already been made, by board size and player count, dropping
+   * whichever was used longest ago (they come out the same if they're made again)
+   */
+  private static LinkedHashMap<Long, Zobrist> cache = new LinkedHashMap<Long, Zobrist>(16, 0.75f, true) {
+    protected boolean removeEldestEntry(Map.Entry<Long, Zobrist> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  /**
+   * The number of values a square can have (including empty)
+   */
+  private final int valueCount;
+  /**
+   * The key for each square and value (the keys for empty squares are 0)
+   */
+  private final long[] squareKeys;
+  /**
+   * The key for each turn, starting from -1 for a finished game
+   */
+  private final long[] turnKeys;
+
+  /**
+   * Makes the keys for a board
+   *
+   * @param size the number of squares
+   * @param playerCount the number of players
+   */
+  private Zobrist(int size, int playerCount) {
+    SplittableRandom random = new SplittableRandom(SEED);
+    valueCount = playerCount + 1;
+    squareKeys = new long[size * valueCount];
+    turnKeys = new long[playerCount + 1];
+
+    for (int square = 0; square < size; square++) {
+      // Leaving empty squares at 0 means that an empty board hashes to 0
+      for (int value = 1; value < valueCount; value++) {
+        squareKeys[square * valueCount + value] = random.nextLong();
+      }
+    }
+
+    for (int i = 0; i < turnKeys.length; i++) {
+      turnKeys[i] = random.nextLong();
+    }
+  }
+
+  /**
+   * Gets the keys for a board, making them if they don't exist yet
+   *
+   * @param size the number of squares
+   * @param playerCount the number of players
+   * @return the keys
+   */
+  public static synchronized Zobrist get(int size, int playerCount) {
+    long key = ((long) size << 8) | playerCount;
+    Zobrist zobrist = cache.get(key);
+
+    if (zobrist == null) {
+      zobrist = new Zobrist(size, playerCount);
+      cache.put(key, zobrist);
+    }
+
+    return zobrist;
+  }
+
+  /**
+   * Gets the key for a value on a square
+   *
+   * @param square the square
+   * @param value the value, where 0 is empty
+   * @return the key
+   */
+  public long getSquareKey(int square, int value) {
+    return squareKeys[square * valueCount + value];
+  }
+
+  /**
+   * Gets the key for a turn
+   *
+   * @param turn the turn, or -1 if the game is over
+   * @return the key
+   */
+  public long getTurnKey(int turn) {
+    return turnKeys[turn + 1];
+  }
+
+  /**
+   * Hashes a position from scratch
+   *
+   * @param othello the position
+   * @return the hash
+   */
+  public long hash(Othello othello) {
+    long hash = getTurnKey(othello.getTurn());
+
+    for (int square = 0; square < othello.getSize(); square++) {
+      hash ^= getSquareKey(square, othello.getValue(square));
+    }
+
+    return hash;
+  }
+}
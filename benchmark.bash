@@ -0,0 +1,3 @@
+#!/usr/bin/bash
+# Compiles into its own directory so that the game's jar isn't affected
+mkdir -p benchmark && javac -d benchmark Benchmark.java && java -cp benchmark Benchmark "$@"